@@ -0,0 +1,15 @@
+package com.svalero.apievents.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Caches de lecturas por ID; tamaño y caducidad se configuran en application.properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String EVENTS = "events";
+    public static final String RESERVATIONS = "reservations";
+    public static final String PAYMENTS = "payments";
+    public static final String USERS = "users";
+    public static final String EVENT_CATEGORIES = "event-categories";
+}
@@ -0,0 +1,39 @@
+package com.svalero.apievents.config;
+
+import com.svalero.apievents.domain.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Los eventos creados cuando el id era IDENTITY no pasaron por events_seq. Antes de
+ * atender peticiones se adelanta la secuencia por encima del mayor id existente para
+ * que los bloques de ids que reserva Hibernate no choquen con ellos.
+ */
+@Component
+public class EventSequenceInitializer implements SmartInitializingSingleton {
+
+    private final Logger logger = LoggerFactory.getLogger(EventSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EventSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from events", Long.class);
+        Long next = jdbcTemplate.queryForObject("select next value for " + Event.ID_SEQUENCE, Long.class);
+        // Con el optimizador pooled el bloque reservado empieza ID_ALLOCATION_SIZE - 1 valores antes de next
+        if (next - Event.ID_ALLOCATION_SIZE < maxId) {
+            long restart = maxId + Event.ID_ALLOCATION_SIZE + 1;
+            jdbcTemplate.execute("alter sequence " + Event.ID_SEQUENCE + " restart with " + restart);
+            logger.info("Sequence {} restarted at {} (max event id: {})", Event.ID_SEQUENCE, restart, maxId);
+        }
+    }
+}
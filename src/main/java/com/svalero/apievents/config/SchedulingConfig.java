@@ -0,0 +1,10 @@
+package com.svalero.apievents.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tareas periódicas (@Scheduled) de los índices en memoria
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,37 @@
+package com.svalero.apievents.controller;
+
+import com.svalero.apievents.domain.dto.CacheStatsDto;
+import com.svalero.apievents.service.CacheStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheStatsController {
+
+    private final Logger logger = LoggerFactory.getLogger(CacheStatsController.class);
+
+    private final CacheStatsService cacheStatsService;
+
+    @Autowired
+    public CacheStatsController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    // Obtener las estadísticas de las caches de lectura por ID
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        logger.info("BEGIN getCacheStats");
+        List<CacheStatsDto> stats = cacheStatsService.getCacheStats();
+        logger.info("END getCacheStats - Total caches: {}", stats.size());
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+}
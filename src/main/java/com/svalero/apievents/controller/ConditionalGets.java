@@ -0,0 +1,72 @@
+package com.svalero.apievents.controller;
+
+import com.svalero.apievents.index.EntityVersions;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * GET condicionales a partir de las versiones en memoria: la comprobación de If-None-Match
+ * (o de If-Modified-Since, si no hay If-None-Match) se hace antes de llamar al servicio, así
+ * una respuesta 304 no llega a la base de datos.
+ */
+public final class ConditionalGets {
+
+    private ConditionalGets() {
+    }
+
+    // Indica si alguna de las ETag de If-None-Match (o "*") coincide con la versión actual. Sin If-None-Match
+    // se usa If-Modified-Since, como pide RFC 9110: la ETag distingue dos cambios en el mismo segundo y la fecha no
+    public static boolean isNotModified(String ifNoneMatch, String ifModifiedSince, EntityVersions.Version version) {
+        if (version == null) {
+            return false;
+        }
+        if (ifNoneMatch == null) {
+            return isNotModifiedSince(ifModifiedSince, version);
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            // If-None-Match usa comparación débil: W/"x" coincide con "x"
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(version.etag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Last-Modified solo tiene precisión de segundo: la versión no ha cambiado si su segundo no es posterior
+    // a la fecha del cliente. Una fecha que no se entiende se ignora y la respuesta es completa
+    private static boolean isNotModifiedSince(String ifModifiedSince, EntityVersions.Version version) {
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            ZonedDateTime since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.floorDiv(version.lastModified(), 1000) <= since.toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    public static <T> ResponseEntity<T> notModified(EntityVersions.Version version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .build();
+    }
+
+    // Respuesta 200 con ETag y Last-Modified cuando se conoce la versión
+    public static ResponseEntity.BodyBuilder ok(EntityVersions.Version version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(version.etag()).lastModified(version.lastModified());
+        }
+        return builder;
+    }
+}
@@ -1,14 +1,22 @@
 package com.svalero.apievents.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CategoryStatsDto;
+import com.svalero.apievents.domain.dto.MultiGetDto;
 import com.svalero.apievents.exception.EventCategoryNotFoundException;
+import com.svalero.apievents.index.CategoryVersions;
+import com.svalero.apievents.index.EntityVersions;
 import com.svalero.apievents.service.EventCategoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,19 +29,42 @@ public class EventCategoryController {
     private final Logger logger = LoggerFactory.getLogger(EventCategoryController.class);
 
     private final EventCategoryService categoryService;
+    private final CategoryVersions categoryVersions;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public EventCategoryController(EventCategoryService categoryService) {
+    public EventCategoryController(EventCategoryService categoryService, CategoryVersions categoryVersions,
+                                   ObjectMapper objectMapper) {
         this.categoryService = categoryService;
+        this.categoryVersions = categoryVersions;
+        this.objectMapper = objectMapper;
     }
 
-    // Obtener todas las categorías
+    // Obtener todas las categorías (array JSON escrito en streaming; 304 si la tabla no ha cambiado)
     @GetMapping
-    public ResponseEntity<List<EventCategory>> getAllCategories() {
+    public ResponseEntity<StreamingResponseBody> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
         logger.info("BEGIN getAllCategories");
-        List<EventCategory> categories = categoryService.getAllCategories();
-        logger.info("END getAllCategories - Total categories fetched: {}", categories.size());
-        return new ResponseEntity<>(categories, HttpStatus.OK);
+        EntityVersions.Version version = categoryVersions.ofTable();
+        if (ConditionalGets.isNotModified(ifNoneMatch, ifModifiedSince, version)) {
+            logger.info("END getAllCategories - Not modified");
+            return ConditionalGets.notModified(version);
+        }
+        return ConditionalGets.ok(version)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.array(objectMapper, categoryService::streamAllCategories,
+                        total -> logger.info("END getAllCategories - Total categories streamed: {}", total)));
+    }
+
+    // Obtener todas las categorías en NDJSON, una categoría por línea
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCategories() {
+        logger.info("BEGIN streamAllCategories");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonStreams.ndjson(objectMapper, categoryService::streamAllCategories,
+                        total -> logger.info("END streamAllCategories - Total categories streamed: {}", total)));
     }
 
     // Agregar una nueva categoría
@@ -54,6 +85,15 @@ public class EventCategoryController {
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
 
+    // Estadísticas por categoría: eventos, plazas, entradas reservadas, recaudación y próximo evento
+    @GetMapping("/stats")
+    public ResponseEntity<List<CategoryStatsDto>> getCategoryStats() {
+        logger.info("BEGIN getCategoryStats");
+        List<CategoryStatsDto> stats = categoryService.getCategoryStats();
+        logger.info("END getCategoryStats - Total categories: {}", stats.size());
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
     // Buscar categorías activas
     @GetMapping("/active")
     public ResponseEntity<List<EventCategory>> getActiveCategories() {
@@ -90,14 +130,36 @@ public class EventCategoryController {
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
 
-    // Obtener una categoría por ID
+    // Obtener varias categorías por ID (?ids=1,2,3); los ids que no existen se devuelven en missing
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetDto<EventCategory>> getCategoriesByIds(@RequestParam List<Long> ids) {
+        logger.info("BEGIN getCategoriesByIds - Fetching {} ids", ids.size());
+        MultiGetDto<EventCategory> result = categoryService.getCategoriesByIds(ids);
+        logger.info("END getCategoriesByIds - Found: {}, missing: {}", result.getItems().size(), result.getMissing().size());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Obtener varias categorías por ID con la lista en el cuerpo, para listas que no caben en la URL
+    @PostMapping("/by-ids")
+    public ResponseEntity<MultiGetDto<EventCategory>> getCategoriesByIdsPost(@RequestBody List<Long> ids) {
+        return getCategoriesByIds(ids);
+    }
+
+    // Obtener una categoría por ID (304 si no ha cambiado desde la ETag o la fecha del cliente)
     @GetMapping("/{id}")
-    public ResponseEntity<EventCategory> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<EventCategory> getCategoryById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
         logger.info("BEGIN getCategoryById - Fetching category with ID: {}", id);
+        EntityVersions.Version version = categoryVersions.of(id);
+        if (ConditionalGets.isNotModified(ifNoneMatch, ifModifiedSince, version)) {
+            logger.info("END getCategoryById - Not modified: {}", id);
+            return ConditionalGets.notModified(version);
+        }
         try {
             EventCategory category = categoryService.getCategoryById(id);
             logger.info("END getCategoryById - Category found: {}", category.getId());
-            return new ResponseEntity<>(category, HttpStatus.OK);
+            return ConditionalGets.ok(version).body(category);
         } catch (Exception e) {
             logger.error("Error in getCategoryById - Category not found with ID: {}", id, e);
             throw e;
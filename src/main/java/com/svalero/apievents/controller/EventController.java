@@ -1,17 +1,49 @@
 package com.svalero.apievents.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.BulkEventResultDto;
+import com.svalero.apievents.domain.dto.CursorPage;
+import com.svalero.apievents.domain.dto.EventCursor;
+import com.svalero.apievents.domain.dto.EventFacetsDto;
+import com.svalero.apievents.domain.dto.EventOccupancyDto;
 import com.svalero.apievents.domain.dto.EventOutDto;
 import com.svalero.apievents.domain.dto.EventRegistrationDto;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.domain.dto.NearbyEventOutDto;
+import com.svalero.apievents.domain.dto.PageDto;
+import com.svalero.apievents.domain.dto.SuggestionsDto;
+import com.svalero.apievents.domain.dto.TopEventDto;
+import com.svalero.apievents.domain.dto.UpcomingEventDto;
 import com.svalero.apievents.exception.EventNotFoundException;
+import com.svalero.apievents.exception.InvalidCursorException;
+import com.svalero.apievents.exception.InvalidQueryException;
+import com.svalero.apievents.index.EntityVersions;
+import com.svalero.apievents.index.EventFacetIndex;
+import com.svalero.apievents.index.EventVersions;
+import com.svalero.apievents.repository.EventSpecifications;
+import com.svalero.apievents.service.EventImportService;
 import com.svalero.apievents.service.EventService;
+import com.svalero.apievents.service.SuggestionService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -19,94 +51,282 @@ import java.util.Map;
 @RestController
 public class EventController {
 
+    // Cabecera con el cursor de la página siguiente en los listados paginados
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final Logger logger = LoggerFactory.getLogger(EventController.class);
     private final EventService eventService;
+    private final EventImportService eventImportService;
+    private final SuggestionService suggestionService;
+    private final EventVersions eventVersions;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, EventImportService eventImportService,
+                           SuggestionService suggestionService, EventVersions eventVersions, ObjectMapper objectMapper) {
         this.eventService = eventService;
+        this.eventImportService = eventImportService;
+        this.suggestionService = suggestionService;
+        this.eventVersions = eventVersions;
+        this.objectMapper = objectMapper;
     }
 
-    // Obtener todos los eventos
+    // Obtener todos los eventos (304 si la tabla no ha cambiado desde la ETag o la fecha del cliente)
     @GetMapping("/events")
-    public ResponseEntity<List<Event>> getAllEvents() {
+    public ResponseEntity<List<EventOutDto>> getAllEvents(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
         logger.info("BEGIN getAllEvents");
-        List<Event> events = eventService.getAllEvents();
-        logger.info("END getAllEvents - Total events fetched: {}", events.size());
-        return new ResponseEntity<>(events, HttpStatus.OK);
+        EntityVersions.Version version = eventVersions.ofTable();
+        if (ConditionalGets.isNotModified(ifNoneMatch, ifModifiedSince, version)) {
+            logger.info("END getAllEvents - Not modified");
+            return ConditionalGets.notModified(version);
+        }
+        CursorPage<EventOutDto> events = eventService.getAllEvents(EventCursor.decode(after), limit);
+        logger.info("END getAllEvents - Total events fetched: {}", events.getItems().size());
+        return pageResponse(events, version);
+    }
+
+    // Obtener todos los eventos en NDJSON, un evento por línea y sin paginar
+    @GetMapping(value = "/events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEvents() {
+        logger.info("BEGIN streamAllEvents");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonStreams.ndjson(objectMapper, eventService::streamAllEvents,
+                        total -> logger.info("END streamAllEvents - Total events streamed: {}", total)));
     }
 
     // Agregar un nuevo evento
     @PostMapping("/events")
-    public ResponseEntity<EventOutDto> addEvent(@RequestBody EventRegistrationDto event) {
+    public ResponseEntity<EventOutDto> addEvent(@Valid @RequestBody EventRegistrationDto event) {
         logger.info("BEGIN addEvent - Adding new event: {}", event.getEventName());
         EventOutDto newEvent = eventService.add(event);
         logger.info("END addEvent - Event added with ID: {}", newEvent.getId());
         return new ResponseEntity<>(newEvent, HttpStatus.CREATED);
     }
 
+    // Alta masiva de eventos desde un array JSON, con el resultado de cada fila
+    @PostMapping(value = "/events/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkEventResultDto>> addEventsBulk(@RequestBody List<EventRegistrationDto> events) {
+        logger.info("BEGIN addEventsBulk - Rows received: {}", events.size());
+        List<BulkEventResultDto> results = eventImportService.addAll(events.iterator());
+        logger.info("END addEventsBulk - Events created: {}", countCreated(results));
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
 
+    // Alta masiva de eventos desde NDJSON, un evento por línea leído según llega
+    @PostMapping(value = "/events/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkEventResultDto>> addEventsBulkNdjson(InputStream body) throws IOException {
+        logger.info("BEGIN addEventsBulkNdjson");
+        List<BulkEventResultDto> results;
+        try (MappingIterator<EventRegistrationDto> rows = objectMapper.readerFor(EventRegistrationDto.class).readValues(body)) {
+            results = eventImportService.addAll(rows);
+        }
+        logger.info("END addEventsBulkNdjson - Rows received: {}, events created: {}", results.size(), countCreated(results));
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
 
     // Buscar eventos por nombre
     @GetMapping("events/name")
-    public ResponseEntity<List<Event>> getEventsByName(@RequestParam String name) {
+    public ResponseEntity<List<EventOutDto>> getEventsByName(@RequestParam String name,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
         logger.info("BEGIN getEventsByName - Searching events with name: {}", name);
-        List<Event> events = eventService.getEventsByName(name);
-        logger.info("END getEventsByName - Total events found: {}", events.size());
-        return new ResponseEntity<>(events, HttpStatus.OK);
+        CursorPage<EventOutDto> events = eventService.getEventsByName(name, EventCursor.decode(after), limit);
+        logger.info("END getEventsByName - Total events found: {}", events.getItems().size());
+        return pageResponse(events);
     }
 
     // Buscar eventos por capacidad máxima
     @GetMapping("events/capacity")
-    public ResponseEntity<List<Event>> getEventsByCapacity(@RequestParam int capacity) {
+    public ResponseEntity<List<EventOutDto>> getEventsByCapacity(@RequestParam int capacity,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
         logger.info("BEGIN getEventsByCapacity - Searching events with capacity: {}", capacity);
-        List<Event> events = eventService.getEventsByCapacity(capacity);
-        logger.info("END getEventsByCapacity - Total events found: {}", events.size());
-        return new ResponseEntity<>(events, HttpStatus.OK);
+        CursorPage<EventOutDto> events = eventService.getEventsByCapacity(capacity, EventCursor.decode(after), limit);
+        logger.info("END getEventsByCapacity - Total events found: {}", events.getItems().size());
+        return pageResponse(events);
     }
 
     // Buscar eventos por fecha
     @GetMapping("events/date")
-    public ResponseEntity<List<Event>> getEventsByDate(@RequestParam LocalDate date) {
+    public ResponseEntity<List<EventOutDto>> getEventsByDate(@RequestParam LocalDate date,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
         logger.info("BEGIN getEventsByDate - Searching events for date: {}", date);
-        List<Event> events = eventService.getEventsByDate(date);
-        logger.info("END getEventsByDate - Total events found: {}", events.size());
-        return new ResponseEntity<>(events, HttpStatus.OK);
+        CursorPage<EventOutDto> events = eventService.getEventsByDate(date, EventCursor.decode(after), limit);
+        logger.info("END getEventsByDate - Total events found: {}", events.getItems().size());
+        return pageResponse(events);
     }
 
     // Buscar eventos entre dos fechas
     @GetMapping("events/range")
-    public ResponseEntity<List<Event>> getEventsBetweenDates(
-            @RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
+    public ResponseEntity<List<EventOutDto>> getEventsBetweenDates(
+            @RequestParam LocalDate startDate, @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
         logger.info("BEGIN getEventsBetweenDates - Searching events between {} and {}", startDate, endDate);
-        List<Event> events = eventService.getEventsBetweenDates(startDate, endDate);
-        logger.info("END getEventsBetweenDates - Total events found: {}", events.size());
-        return new ResponseEntity<>(events, HttpStatus.OK);
+        CursorPage<EventOutDto> events = eventService.getEventsBetweenDates(startDate, endDate, EventCursor.decode(after), limit);
+        logger.info("END getEventsBetweenDates - Total events found: {}", events.getItems().size());
+        return pageResponse(events);
     }
 
     // Buscar eventos por ubicación
     @GetMapping("events/ubication")
-    public ResponseEntity<List<Event>> getEventsByUbication(@RequestParam String ubication) {
+    public ResponseEntity<List<EventOutDto>> getEventsByUbication(@RequestParam String ubication,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
         logger.info("BEGIN getEventsByUbication - Searching events in location: {}", ubication);
-        List<Event> events = eventService.getEventsByUbication(ubication);
-        logger.info("END getEventsByUbication - Total events found: {}", events.size());
+        CursorPage<EventOutDto> events = eventService.getEventsByUbication(ubication, EventCursor.decode(after), limit);
+        logger.info("END getEventsByUbication - Total events found: {}", events.getItems().size());
+        return pageResponse(events);
+    }
+
+    // Buscar eventos por texto, ordenados por relevancia
+    @GetMapping("events/search")
+    public ResponseEntity<List<EventOutDto>> searchEvents(@RequestParam String q, @RequestParam(defaultValue = "100") int limit) {
+        logger.info("BEGIN searchEvents - Searching events matching: {}", q);
+        List<EventOutDto> events = eventService.searchEvents(q, limit);
+        logger.info("END searchEvents - Total events found: {}", events.size());
         return new ResponseEntity<>(events, HttpStatus.OK);
     }
 
-    // Obtener un evento por ID
+    // Próximos eventos (los days días desde hoy, incluido) en orden de fecha, con el nombre de su categoría
+    @GetMapping("events/upcoming")
+    public ResponseEntity<List<UpcomingEventDto>> getUpcomingEvents(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "100") int limit) {
+        logger.info("BEGIN getUpcomingEvents - Next {} days", days);
+        List<UpcomingEventDto> events = eventService.getUpcomingEvents(days, limit);
+        logger.info("END getUpcomingEvents - Total events found: {}", events.size());
+        return new ResponseEntity<>(events, HttpStatus.OK);
+    }
+
+    // Eventos con más entradas reservadas en las últimas 24 horas (window=24h) o 7 días (window=7d)
+    @GetMapping("events/top")
+    public ResponseEntity<List<TopEventDto>> getTopEvents(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        logger.info("BEGIN getTopEvents - Window: {}", window);
+        List<TopEventDto> events = eventService.getTopEvents(window, limit);
+        logger.info("END getTopEvents - Total events found: {}", events.size());
+        return new ResponseEntity<>(events, HttpStatus.OK);
+    }
+
+    // Buscar eventos combinando filtros, con los recuentos de cada faceta en la misma respuesta
+    @GetMapping("events/facets")
+    public ResponseEntity<EventFacetsDto> getEventFacets(
+            @RequestParam(required = false) LocalDate date,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) Integer capacity,
+            @RequestParam(required = false) String ubication,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "100") int limit) {
+        logger.info("BEGIN getEventFacets - date: {}, range: {} - {}, capacity: {}, ubication: {}, category: {}",
+                date, startDate, endDate, capacity, ubication, categoryId);
+        // Una fecha exacta es un rango de un solo día
+        EventFacetIndex.FacetFilter filter = new EventFacetIndex.FacetFilter(date != null ? date : startDate,
+                date != null ? date : endDate, capacity, ubication, categoryId);
+        EventFacetsDto facets = eventService.getEventFacets(filter, limit);
+        logger.info("END getEventFacets - Total events found: {}", facets.getTotal());
+        return new ResponseEntity<>(facets, HttpStatus.OK);
+    }
+
+    // Consultar eventos combinando cualquier subconjunto de filtros, con paginación y orden
+    @GetMapping("events/query")
+    public ResponseEntity<PageDto<EventOutDto>> queryEvents(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) Integer maxCapacity,
+            @RequestParam(required = false) String ubication,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(defaultValue = EventSpecifications.DEFAULT_SORT) String sort) {
+        EventSpecifications.Filter filter = new EventSpecifications.Filter(name, startDate, endDate, minCapacity,
+                maxCapacity, ubication, categoryId);
+        logger.info("BEGIN queryEvents - Filter: {}, page: {}, size: {}, sort: {}", filter, page, size, sort);
+        PageDto<EventOutDto> events = eventService.queryEvents(filter, page, size, sort);
+        logger.info("END queryEvents - Total events found: {}", events.getTotal());
+        return new ResponseEntity<>(events, HttpStatus.OK);
+    }
+
+    // Autocompletar nombres de eventos y categorías mientras el usuario escribe
+    @GetMapping("events/suggest")
+    public ResponseEntity<SuggestionsDto> suggest(@RequestParam String prefix,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        logger.info("BEGIN suggest - Prefix: {}", prefix);
+        SuggestionsDto suggestions = suggestionService.suggest(prefix, limit);
+        logger.info("END suggest - Events: {}, categories: {}", suggestions.getEvents().size(),
+                suggestions.getCategories().size());
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+
+    // Buscar eventos cercanos a un punto, ordenados por distancia
+    @GetMapping("events/near")
+    public ResponseEntity<List<NearbyEventOutDto>> getEventsNear(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @RequestParam @Positive double radiusKm,
+            @RequestParam(defaultValue = "100") int limit) {
+        logger.info("BEGIN getEventsNear - Searching events within {} km of ({}, {})", radiusKm, lat, lon);
+        List<NearbyEventOutDto> events = eventService.getEventsNear(lat, lon, radiusKm, limit);
+        logger.info("END getEventsNear - Total events found: {}", events.size());
+        return new ResponseEntity<>(events, HttpStatus.OK);
+    }
+
+    // Obtener varios eventos por ID (?ids=1,2,3); los ids que no existen se devuelven en missing
+    @GetMapping(value = "/events", params = "ids")
+    public ResponseEntity<MultiGetDto<Event>> getEventsByIds(@RequestParam List<Long> ids) {
+        logger.info("BEGIN getEventsByIds - Fetching {} ids", ids.size());
+        MultiGetDto<Event> result = eventService.getEventsByIds(ids);
+        logger.info("END getEventsByIds - Found: {}, missing: {}", result.getItems().size(), result.getMissing().size());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Obtener varios eventos por ID con la lista en el cuerpo, para listas que no caben en la URL
+    @PostMapping("events/by-ids")
+    public ResponseEntity<MultiGetDto<Event>> getEventsByIdsPost(@RequestBody List<Long> ids) {
+        return getEventsByIds(ids);
+    }
+
+    // Obtener un evento por ID (304 si no ha cambiado desde la ETag o la fecha del cliente)
     @GetMapping("events/{id}")
-    public ResponseEntity<Event> getEventById(@PathVariable Long id) throws EventNotFoundException {
+    public ResponseEntity<Event> getEventById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince)
+            throws EventNotFoundException {
         logger.info("BEGIN getEventById - Fetching event with ID: {}", id);
+        EntityVersions.Version version = eventVersions.of(id);
+        if (ConditionalGets.isNotModified(ifNoneMatch, ifModifiedSince, version)) {
+            logger.info("END getEventById - Not modified: {}", id);
+            return ConditionalGets.notModified(version);
+        }
         try {
             Event event = eventService.getEventById(id);
             logger.info("END getEventById - Event found: {}", event.getId());
-            return new ResponseEntity<>(event, HttpStatus.OK);
+            return ConditionalGets.ok(version).body(event);
         } catch (Exception e) {
             logger.error("Error in getEventById - Event not found with ID: {}", id, e);
             throw e;
         }
     }
 
+    // Plazas, entradas reservadas, importe pagado y entradas libres de un evento, sin sumar sus reservas
+    @GetMapping("events/{id}/occupancy")
+    public ResponseEntity<EventOccupancyDto> getEventOccupancy(@PathVariable long id) throws EventNotFoundException {
+        logger.info("BEGIN getEventOccupancy - Event ID: {}", id);
+        EventOccupancyDto occupancy = eventService.getEventOccupancy(id);
+        logger.info("END getEventOccupancy - Remaining seats: {}", occupancy.getRemaining());
+        return new ResponseEntity<>(occupancy, HttpStatus.OK);
+    }
+
     // Actualizar un evento por ID
     @PutMapping("events/{id}")
     public ResponseEntity<Event> updateEvent(@PathVariable Long id, @RequestBody Event eventDetails) throws EventNotFoundException {
@@ -149,11 +369,57 @@ public class EventController {
         }
     }
 
+    // Devuelve los elementos de la página y el cursor siguiente en la cabecera X-Next-Cursor
+    private ResponseEntity<List<EventOutDto>> pageResponse(CursorPage<EventOutDto> page) {
+        return pageResponse(page, null);
+    }
+
+    private ResponseEntity<List<EventOutDto>> pageResponse(CursorPage<EventOutDto> page, EntityVersions.Version version) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNext() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNext());
+        }
+        return ConditionalGets.ok(version).headers(headers).body(page.getItems());
+    }
+
+    private long countCreated(List<BulkEventResultDto> results) {
+        return results.stream()
+                .filter(result -> BulkEventResultDto.CREATED.equals(result.getStatus()))
+                .count();
+    }
+
     // Manejar excepciones de evento no encontrado
     @ExceptionHandler(EventNotFoundException.class)
     public ResponseEntity<String> handleEventNotFoundException(EventNotFoundException exception) {
         logger.error("Handling EventNotFoundException - {}", exception.getMessage(), exception);
         return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
     }
-}
 
+    // Manejar cursores de paginación mal formados
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException exception) {
+        logger.error("Handling InvalidCursorException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Manejar líneas NDJSON que no son un evento válido
+    @ExceptionHandler(RuntimeJsonMappingException.class)
+    public ResponseEntity<String> handleRuntimeJsonMappingException(RuntimeJsonMappingException exception) {
+        logger.error("Handling RuntimeJsonMappingException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Manejar filtros, páginas u órdenes no válidos en las consultas
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<String> handleInvalidQueryException(InvalidQueryException exception) {
+        logger.error("Handling InvalidQueryException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Manejar cambios sobre un evento que otra escritura (por ejemplo, una reserva) acaba de modificar
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception) {
+        logger.error("Handling OptimisticLockingFailureException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>("Event was modified concurrently, please retry", HttpStatus.CONFLICT);
+    }
+}
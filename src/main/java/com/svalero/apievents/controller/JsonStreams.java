@@ -0,0 +1,66 @@
+package com.svalero.apievents.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Cuerpos de respuesta que serializan las filas según se leen de la base de datos,
+ * como array JSON o como NDJSON (un objeto por línea). El primer byte sale con la
+ * primera fila y la memoria no crece con el tamaño de la tabla.
+ */
+public final class JsonStreams {
+
+    // Origen de filas: entrega cada fila a action y devuelve cuántas ha entregado
+    @FunctionalInterface
+    public interface RowSource<T> {
+        long forEach(Consumer<T> action);
+    }
+
+    private JsonStreams() {
+    }
+
+    public static <T> StreamingResponseBody array(ObjectMapper objectMapper, RowSource<T> source,
+                                                  LongConsumer onComplete) {
+        return write(objectMapper, source, onComplete, false);
+    }
+
+    public static <T> StreamingResponseBody ndjson(ObjectMapper objectMapper, RowSource<T> source,
+                                                   LongConsumer onComplete) {
+        return write(objectMapper, source, onComplete, true);
+    }
+
+    private static <T> StreamingResponseBody write(ObjectMapper objectMapper, RowSource<T> source,
+                                                   LongConsumer onComplete, boolean ndjson) {
+        return outputStream -> {
+            // Sin flush por fila: el generador vacía su búfer al llenarse
+            ObjectWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long count;
+            try (SequenceWriter rows = ndjson
+                    ? writer.withRootValueSeparator("\n").writeValues(outputStream)
+                    : writer.writeValuesAsArray(outputStream)) {
+                count = source.forEach(row -> {
+                    try {
+                        rows.write(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            if (ndjson && count > 0) {
+                outputStream.write('\n');
+            }
+            onComplete.accept(count);
+        };
+    }
+}
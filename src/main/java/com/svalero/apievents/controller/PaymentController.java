@@ -1,14 +1,24 @@
 package com.svalero.apievents.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.svalero.apievents.domain.Payment;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.domain.dto.PageDto;
+import com.svalero.apievents.domain.dto.PaymentOutDto;
+import com.svalero.apievents.exception.IdempotencyKeyReusedException;
+import com.svalero.apievents.exception.InvalidQueryException;
 import com.svalero.apievents.exception.PaymentNotFoundException;
+import com.svalero.apievents.repository.PaymentSpecifications;
+import com.svalero.apievents.service.IdempotencyService;
 import com.svalero.apievents.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,28 +31,84 @@ public class PaymentController {
     private final Logger logger = LoggerFactory.getLogger(PaymentController.class);
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
     }
 
-    // Obtener todos los pagos
+    // Obtener todos los pagos (array JSON escrito en streaming)
     @GetMapping
-    public ResponseEntity<List<Payment>> getAllPayments() {
+    public ResponseEntity<StreamingResponseBody> getAllPayments() {
         logger.info("BEGIN getAllPayments");
-        List<Payment> payments = paymentService.getAllPayments();
-        logger.info("END getAllPayments - Total payments fetched: {}", payments.size());
-        return new ResponseEntity<>(payments, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.array(objectMapper, paymentService::streamAllPayments,
+                        total -> logger.info("END getAllPayments - Total payments streamed: {}", total)));
+    }
+
+    // Obtener todos los pagos en NDJSON, un pago por línea
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPayments() {
+        logger.info("BEGIN streamAllPayments");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonStreams.ndjson(objectMapper, paymentService::streamAllPayments,
+                        total -> logger.info("END streamAllPayments - Total payments streamed: {}", total)));
     }
 
     // Guardar un nuevo pago
     @PostMapping
-    public ResponseEntity<Payment> addPayment(@RequestBody Payment payment) {
+    public ResponseEntity<Payment> addPayment(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Payment payment) {
         logger.info("BEGIN addPayment - Adding payment for reservation ID: {}", payment.getReservation().getId());
-        Payment newPayment = paymentService.savePayment(payment);
-        logger.info("END addPayment - Payment added with ID: {}", newPayment.getId());
-        return new ResponseEntity<>(newPayment, HttpStatus.CREATED);
+        // Un reintento con la misma Idempotency-Key recibe el pago ya registrado en lugar de registrarlo dos veces
+        ResponseEntity<Payment> response = idempotencyService.execute("payments", idempotencyKey, payment, Payment.class,
+                () -> new ResponseEntity<>(paymentService.savePayment(payment), HttpStatus.CREATED));
+        logger.info("END addPayment - Payment added with ID: {}", response.getBody().getId());
+        return response;
+    }
+
+    // Consultar pagos combinando cualquier subconjunto de filtros, con paginación y orden
+    @GetMapping("/query")
+    public ResponseEntity<PageDto<PaymentOutDto>> queryPayments(
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(required = false) Long reservationId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(defaultValue = PaymentSpecifications.DEFAULT_SORT) String sort) {
+        PaymentSpecifications.Filter filter = new PaymentSpecifications.Filter(customerName, status, startDate, endDate,
+                minAmount, maxAmount, reservationId);
+        logger.info("BEGIN queryPayments - Filter: {}, page: {}, size: {}, sort: {}", filter, page, size, sort);
+        PageDto<PaymentOutDto> payments = paymentService.queryPayments(filter, page, size, sort);
+        logger.info("END queryPayments - Total payments found: {}", payments.getTotal());
+        return new ResponseEntity<>(payments, HttpStatus.OK);
+    }
+
+    // Obtener varios pagos por ID (?ids=1,2,3); los ids que no existen se devuelven en missing
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetDto<Payment>> getPaymentsByIds(@RequestParam List<Long> ids) {
+        logger.info("BEGIN getPaymentsByIds - Fetching {} ids", ids.size());
+        MultiGetDto<Payment> result = paymentService.getPaymentsByIds(ids);
+        logger.info("END getPaymentsByIds - Found: {}, missing: {}", result.getItems().size(), result.getMissing().size());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Obtener varios pagos por ID con la lista en el cuerpo, para listas que no caben en la URL
+    @PostMapping("/by-ids")
+    public ResponseEntity<MultiGetDto<Payment>> getPaymentsByIdsPost(@RequestBody List<Long> ids) {
+        return getPaymentsByIds(ids);
     }
 
     // Obtener un pago por ID
@@ -73,48 +139,58 @@ public class PaymentController {
         }
     }
 
+    // Buscar pagos por nombre del cliente, tolerando erratas, del más parecido al menos
+    @GetMapping("/customer")
+    public ResponseEntity<List<PaymentOutDto>> getPaymentsByCustomerName(@RequestParam String name,
+            @RequestParam(defaultValue = "100") int limit) {
+        logger.info("BEGIN getPaymentsByCustomerName - Searching payments for customer: {}", name);
+        List<PaymentOutDto> payments = paymentService.getPaymentsByCustomerName(name, limit);
+        logger.info("END getPaymentsByCustomerName - Total payments found: {}", payments.size());
+        return new ResponseEntity<>(payments, HttpStatus.OK);
+    }
+
     // Buscar pagos por fecha
     @GetMapping("/date")
-    public ResponseEntity<List<Payment>> getPaymentsByDate(@RequestParam LocalDate date) {
+    public ResponseEntity<List<PaymentOutDto>> getPaymentsByDate(@RequestParam LocalDate date) {
         logger.info("BEGIN getPaymentsByDate - Searching payments for date: {}", date);
-        List<Payment> payments = paymentService.getPaymentsByDate(date);
+        List<PaymentOutDto> payments = paymentService.getPaymentsByDate(date);
         logger.info("END getPaymentsByDate - Total payments found: {}", payments.size());
         return new ResponseEntity<>(payments, HttpStatus.OK);
     }
 
     // Buscar pagos entre dos fechas
     @GetMapping("/range")
-    public ResponseEntity<List<Payment>> getPaymentsBetweenDates(
+    public ResponseEntity<List<PaymentOutDto>> getPaymentsBetweenDates(
             @RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
         logger.info("BEGIN getPaymentsBetweenDates - Searching payments between {} and {}", startDate, endDate);
-        List<Payment> payments = paymentService.getPaymentsBetweenDates(startDate, endDate);
+        List<PaymentOutDto> payments = paymentService.getPaymentsBetweenDates(startDate, endDate);
         logger.info("END getPaymentsBetweenDates - Total payments found: {}", payments.size());
         return new ResponseEntity<>(payments, HttpStatus.OK);
     }
 
     // Buscar pagos por estado
     @GetMapping("/status")
-    public ResponseEntity<List<Payment>> getPaymentsByStatus(@RequestParam String status) {
+    public ResponseEntity<List<PaymentOutDto>> getPaymentsByStatus(@RequestParam String status) {
         logger.info("BEGIN getPaymentsByStatus - Searching payments with status: {}", status);
-        List<Payment> payments = paymentService.getPaymentsByStatus(status);
+        List<PaymentOutDto> payments = paymentService.getPaymentsByStatus(status);
         logger.info("END getPaymentsByStatus - Total payments found: {}", payments.size());
         return new ResponseEntity<>(payments, HttpStatus.OK);
     }
 
     // Buscar pagos por monto mínimo
     @GetMapping("/amount")
-    public ResponseEntity<List<Payment>> getPaymentsByAmount(@RequestParam double amount) {
+    public ResponseEntity<List<PaymentOutDto>> getPaymentsByAmount(@RequestParam double amount) {
         logger.info("BEGIN getPaymentsByAmount - Searching payments with minimum amount: {}", amount);
-        List<Payment> payments = paymentService.getPaymentsByAmount(amount);
+        List<PaymentOutDto> payments = paymentService.getPaymentsByAmount(amount);
         logger.info("END getPaymentsByAmount - Total payments found: {}", payments.size());
         return new ResponseEntity<>(payments, HttpStatus.OK);
     }
 
     // Buscar pagos por ID de reserva
     @GetMapping("/reservation")
-    public ResponseEntity<List<Payment>> getPaymentsByReservation(@RequestParam Long reservationId) {
+    public ResponseEntity<List<PaymentOutDto>> getPaymentsByReservation(@RequestParam Long reservationId) {
         logger.info("BEGIN getPaymentsByReservation - Searching payments for reservation ID: {}", reservationId);
-        List<Payment> payments = paymentService.getPaymentsByReservation(reservationId);
+        List<PaymentOutDto> payments = paymentService.getPaymentsByReservation(reservationId);
         logger.info("END getPaymentsByReservation - Total payments found: {}", payments.size());
         return new ResponseEntity<>(payments, HttpStatus.OK);
     }
@@ -153,5 +229,18 @@ public class PaymentController {
         logger.error("Handling PaymentNotFoundException - {}", exception.getMessage(), exception);
         return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
     }
-}
 
+    // Manejar repeticiones de una Idempotency-Key con otro cuerpo
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException exception) {
+        logger.error("Handling IdempotencyKeyReusedException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    // Manejar filtros, páginas u órdenes no válidos en las consultas
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<String> handleInvalidQueryException(InvalidQueryException exception) {
+        logger.error("Handling InvalidQueryException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+}
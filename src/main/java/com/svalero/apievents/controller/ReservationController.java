@@ -1,14 +1,28 @@
 package com.svalero.apievents.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.domain.dto.PageDto;
+import com.svalero.apievents.domain.dto.ReservationOutDto;
+import com.svalero.apievents.exception.BookingConflictException;
+import com.svalero.apievents.exception.EventNotFoundException;
+import com.svalero.apievents.exception.IdempotencyKeyReusedException;
+import com.svalero.apievents.exception.InvalidQuantityException;
+import com.svalero.apievents.exception.InvalidQueryException;
+import com.svalero.apievents.exception.NotEnoughSeatsException;
 import com.svalero.apievents.exception.ReservationNotFoundException;
+import com.svalero.apievents.repository.ReservationSpecifications;
+import com.svalero.apievents.service.IdempotencyService;
 import com.svalero.apievents.service.ReservationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,76 +35,133 @@ public class ReservationController {
     private final Logger logger = LoggerFactory.getLogger(ReservationController.class);
 
     private final ReservationService reservationService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(ReservationService reservationService, IdempotencyService idempotencyService,
+                                 ObjectMapper objectMapper) {
         this.reservationService = reservationService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
     }
 
-    // Obtener todas las reservas
+    // Obtener todas las reservas (array JSON escrito en streaming)
     @GetMapping
-    public ResponseEntity<List<Reservation>> getAllReservations() {
+    public ResponseEntity<StreamingResponseBody> getAllReservations() {
         logger.info("BEGIN getAllReservations");
-        List<Reservation> reservations = reservationService.getAllReservations();
-        logger.info("END getAllReservations - Total reservations fetched: {}", reservations.size());
-        return new ResponseEntity<>(reservations, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.array(objectMapper, reservationService::streamAllReservations,
+                        total -> logger.info("END getAllReservations - Total reservations streamed: {}", total)));
+    }
+
+    // Obtener todas las reservas en NDJSON, una reserva por línea
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllReservations() {
+        logger.info("BEGIN streamAllReservations");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonStreams.ndjson(objectMapper, reservationService::streamAllReservations,
+                        total -> logger.info("END streamAllReservations - Total reservations streamed: {}", total)));
     }
 
     // Agregar una nueva reserva
     @PostMapping
-    public ResponseEntity<Reservation> addReservation(@RequestBody Reservation reservation) {
+    public ResponseEntity<Reservation> addReservation(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Reservation reservation) {
         logger.info("BEGIN addReservation - Adding reservation for customer: {}", reservation.getCustomerName());
-        Reservation newReservation = reservationService.saveReservation(reservation);
-        logger.info("END addReservation - Reservation added with ID: {}", newReservation.getId());
-        return new ResponseEntity<>(newReservation, HttpStatus.CREATED);
+        // Con Idempotency-Key, un reintento del cliente recibe la respuesta del primer intento sin repetir el alta
+        ResponseEntity<Reservation> response = idempotencyService.execute("reservations", idempotencyKey,
+                reservation, Reservation.class,
+                () -> new ResponseEntity<>(reservationService.saveReservation(reservation), HttpStatus.CREATED));
+        logger.info("END addReservation - Reservation added with ID: {}", response.getBody().getId());
+        return response;
     }
 
-    // Buscar reservas por nombre del cliente
+    // Buscar reservas por nombre o email del cliente, tolerando erratas, de la más parecida a la menos
     @GetMapping("/customer")
-    public ResponseEntity<List<Reservation>> getReservationsByCustomerName(@RequestParam String name) {
+    public ResponseEntity<List<ReservationOutDto>> getReservationsByCustomerName(@RequestParam String name,
+            @RequestParam(defaultValue = "100") int limit) {
         logger.info("BEGIN getReservationsByCustomerName - Searching reservations for customer: {}", name);
-        List<Reservation> reservations = reservationService.getReservationsByCustomerName(name);
+        List<ReservationOutDto> reservations = reservationService.getReservationsByCustomerName(name, limit);
         logger.info("END getReservationsByCustomerName - Total reservations found: {}", reservations.size());
         return new ResponseEntity<>(reservations, HttpStatus.OK);
     }
 
     // Buscar reservas por fecha de reserva
     @GetMapping("/date")
-    public ResponseEntity<List<Reservation>> getReservationsByDate(@RequestParam LocalDate date) {
+    public ResponseEntity<List<ReservationOutDto>> getReservationsByDate(@RequestParam LocalDate date) {
         logger.info("BEGIN getReservationsByDate - Searching reservations for date: {}", date);
-        List<Reservation> reservations = reservationService.getReservationsByDate(date);
+        List<ReservationOutDto> reservations = reservationService.getReservationsByDate(date);
         logger.info("END getReservationsByDate - Total reservations found: {}", reservations.size());
         return new ResponseEntity<>(reservations, HttpStatus.OK);
     }
 
     // Buscar reservas entre dos fechas
     @GetMapping("/range")
-    public ResponseEntity<List<Reservation>> getReservationsBetweenDates(
+    public ResponseEntity<List<ReservationOutDto>> getReservationsBetweenDates(
             @RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
         logger.info("BEGIN getReservationsBetweenDates - Searching reservations between {} and {}", startDate, endDate);
-        List<Reservation> reservations = reservationService.getReservationsBetweenDates(startDate, endDate);
+        List<ReservationOutDto> reservations = reservationService.getReservationsBetweenDates(startDate, endDate);
         logger.info("END getReservationsBetweenDates - Total reservations found: {}", reservations.size());
         return new ResponseEntity<>(reservations, HttpStatus.OK);
     }
 
     // Buscar reservas por cantidad de entradas
     @GetMapping("/quantity")
-    public ResponseEntity<List<Reservation>> getReservationsByQuantity(@RequestParam int quantity) {
+    public ResponseEntity<List<ReservationOutDto>> getReservationsByQuantity(@RequestParam int quantity) {
         logger.info("BEGIN getReservationsByQuantity - Searching reservations with quantity: {}", quantity);
-        List<Reservation> reservations = reservationService.getReservationsByQuantity(quantity);
+        List<ReservationOutDto> reservations = reservationService.getReservationsByQuantity(quantity);
         logger.info("END getReservationsByQuantity - Total reservations found: {}", reservations.size());
         return new ResponseEntity<>(reservations, HttpStatus.OK);
     }
 
     // Buscar reservas asociadas a un evento específico
     @GetMapping("/event")
-    public ResponseEntity<List<Reservation>> getReservationsByEvent(@RequestParam Long eventId) {
+    public ResponseEntity<List<ReservationOutDto>> getReservationsByEvent(@RequestParam Long eventId) {
         logger.info("BEGIN getReservationsByEvent - Searching reservations for event ID: {}", eventId);
-        List<Reservation> reservations = reservationService.getReservationsByEvent(eventId);
+        List<ReservationOutDto> reservations = reservationService.getReservationsByEvent(eventId);
         logger.info("END getReservationsByEvent - Total reservations found: {}", reservations.size());
         return new ResponseEntity<>(reservations, HttpStatus.OK);
     }
 
+    // Consultar reservas combinando cualquier subconjunto de filtros, con paginación y orden
+    @GetMapping("/query")
+    public ResponseEntity<PageDto<ReservationOutDto>> queryReservations(
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) Integer minQuantity,
+            @RequestParam(required = false) Integer maxQuantity,
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(defaultValue = ReservationSpecifications.DEFAULT_SORT) String sort) {
+        ReservationSpecifications.Filter filter = new ReservationSpecifications.Filter(customerName, startDate, endDate,
+                minQuantity, maxQuantity, eventId);
+        logger.info("BEGIN queryReservations - Filter: {}, page: {}, size: {}, sort: {}", filter, page, size, sort);
+        PageDto<ReservationOutDto> reservations = reservationService.queryReservations(filter, page, size, sort);
+        logger.info("END queryReservations - Total reservations found: {}", reservations.getTotal());
+        return new ResponseEntity<>(reservations, HttpStatus.OK);
+    }
+
+    // Obtener varias reservas por ID (?ids=1,2,3); los ids que no existen se devuelven en missing
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetDto<Reservation>> getReservationsByIds(@RequestParam List<Long> ids) {
+        logger.info("BEGIN getReservationsByIds - Fetching {} ids", ids.size());
+        MultiGetDto<Reservation> result = reservationService.getReservationsByIds(ids);
+        logger.info("END getReservationsByIds - Found: {}, missing: {}", result.getItems().size(), result.getMissing().size());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Obtener varias reservas por ID con la lista en el cuerpo, para listas que no caben en la URL
+    @PostMapping("/by-ids")
+    public ResponseEntity<MultiGetDto<Reservation>> getReservationsByIdsPost(@RequestBody List<Long> ids) {
+        return getReservationsByIds(ids);
+    }
+
     // Obtener una reserva por ID
     @GetMapping("/{id}")
     public ResponseEntity<Reservation> getReservationById(@PathVariable Long id) {
@@ -153,5 +224,46 @@ public class ReservationController {
         logger.error("Handling ReservationNotFoundException - {}", exception.getMessage(), exception);
         return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
     }
-}
 
+    // Manejar excepciones de evento no encontrado al reservar
+    @ExceptionHandler(EventNotFoundException.class)
+    public ResponseEntity<String> handleEventNotFoundException(EventNotFoundException exception) {
+        logger.error("Handling EventNotFoundException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    // Manejar reservas que superan las entradas libres del evento
+    @ExceptionHandler(NotEnoughSeatsException.class)
+    public ResponseEntity<String> handleNotEnoughSeatsException(NotEnoughSeatsException exception) {
+        logger.error("Handling NotEnoughSeatsException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // Manejar reservas de menos de una entrada
+    @ExceptionHandler(InvalidQuantityException.class)
+    public ResponseEntity<String> handleInvalidQuantityException(InvalidQuantityException exception) {
+        logger.error("Handling InvalidQuantityException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Manejar reservas que no se han podido guardar porque el evento o la reserva cambiaban a la vez
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<String> handleBookingConflictException(BookingConflictException exception) {
+        logger.error("Handling BookingConflictException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // Manejar repeticiones de una Idempotency-Key con otro cuerpo
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException exception) {
+        logger.error("Handling IdempotencyKeyReusedException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    // Manejar filtros, páginas u órdenes no válidos en las consultas
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<String> handleInvalidQueryException(InvalidQueryException exception) {
+        logger.error("Handling InvalidQueryException - {}", exception.getMessage(), exception);
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,6 +1,8 @@
 package com.svalero.apievents.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.svalero.apievents.domain.User;
+import com.svalero.apievents.domain.dto.MultiGetDto;
 import com.svalero.apievents.exception.UserNotFoundException;
 import com.svalero.apievents.service.UserService;
 import jakarta.validation.Valid;
@@ -8,8 +10,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -21,19 +25,32 @@ public class UserController {
     private final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
-    // Obtener todos los usuarios
+    // Obtener todos los usuarios (array JSON escrito en streaming)
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
         logger.info("BEGIN getAllUsers");
-        List<User> users = userService.getAllUsers();
-        logger.info("END getAllUsers - Total users fetched: {}", users.size());
-        return new ResponseEntity<>(users, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.array(objectMapper, userService::streamAllUsers,
+                        total -> logger.info("END getAllUsers - Total users streamed: {}", total)));
+    }
+
+    // Obtener todos los usuarios en NDJSON, un usuario por línea
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        logger.info("BEGIN streamAllUsers");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonStreams.ndjson(objectMapper, userService::streamAllUsers,
+                        total -> logger.info("END streamAllUsers - Total users streamed: {}", total)));
     }
 
     // Agregar un nuevo usuario
@@ -45,6 +62,30 @@ public class UserController {
         return new ResponseEntity<>(newUser, HttpStatus.CREATED);
     }
 
+    // Obtener varios usuarios por ID (?ids=1,2,3); los ids que no existen se devuelven en missing
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetDto<User>> getUsersByIds(@RequestParam List<Long> ids) {
+        logger.info("BEGIN getUsersByIds - Fetching {} ids", ids.size());
+        MultiGetDto<User> result = userService.getUsersByIds(ids);
+        logger.info("END getUsersByIds - Found: {}, missing: {}", result.getItems().size(), result.getMissing().size());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Obtener varios usuarios por ID con la lista en el cuerpo, para listas que no caben en la URL
+    @PostMapping("/by-ids")
+    public ResponseEntity<MultiGetDto<User>> getUsersByIdsPost(@RequestBody List<Long> ids) {
+        return getUsersByIds(ids);
+    }
+
+    // Obtener un usuario por ID
+    @GetMapping("/{id}")
+    public ResponseEntity<User> getUserById(@PathVariable Long id) throws UserNotFoundException {
+        logger.info("BEGIN getUserById - Fetching user with ID: {}", id);
+        User user = userService.getUserById(id);
+        logger.info("END getUserById - User found with ID: {}", id);
+        return new ResponseEntity<>(user, HttpStatus.OK);
+    }
+
     // Buscar un usuario por email
     @GetMapping("/email")
     public ResponseEntity<User> getUserByEmail(@RequestParam String email) throws UserNotFoundException {
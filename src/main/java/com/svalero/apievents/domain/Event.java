@@ -1,6 +1,7 @@
 package com.svalero.apievents.domain;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -15,10 +16,20 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "Event")
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        // Soporta la paginación por keyset sobre (eventDate, id)
+        @Index(name = "idx_events_date_id", columnList = "event_date, id"),
+        // Soporta la consulta por filtros de una categoría en un rango de fechas
+        @Index(name = "idx_events_category_date", columnList = "category_id, event_date, id")
+})
 public class Event {
+    // Los ids se reservan por bloques (optimizador pooled) para que Hibernate pueda agrupar los INSERT en lotes JDBC
+    public static final String ID_SEQUENCE = "events_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private long id;
     @NotNull(message = "Event name is required")
     @Column(name = "event_name",nullable = false, unique = true)
@@ -44,4 +55,10 @@ public class Event {
     @ManyToOne
     @JoinColumn(name = "category_id")
     private EventCategory category;
+    // Versión optimista: cada reserva la incrementa, así dos reservas simultáneas del evento no pueden dar el aforo por bueno a la vez
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private long version;
 }
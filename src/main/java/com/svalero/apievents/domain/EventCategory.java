@@ -30,7 +30,8 @@ public class EventCategory {
     @Column(name = "creation_date")
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private LocalDate creationDate;
-    @Column(name = "number_events", nullable = false)
+    // Lo mantiene el servidor (CategoryEventCounters) con UPDATE directos; guardar la entidad no lo cambia
+    @Column(name = "number_events", nullable = false, updatable = false)
     private int numberEvents;
     private Boolean active = true;
 
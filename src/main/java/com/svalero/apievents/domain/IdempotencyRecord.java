@@ -0,0 +1,36 @@
+package com.svalero.apievents.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+
+// Respuesta guardada de una petición con Idempotency-Key, para repetirla tras un reinicio sin volver a ejecutarla
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "IdempotencyRecord")
+@Table(name = "idempotency_keys", indexes = {
+        // Soporta la purga de las claves caducadas
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyRecord {
+
+    // Ámbito (el recurso) y clave enviada por el cliente, separados por ':'
+    @Id
+    @Column(name = "idempotency_key", length = 300)
+    private String key;
+    // SHA-256 del cuerpo de la petición original; null en las filas guardadas antes de que se comprobara
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+    @Column(nullable = false)
+    private int status;
+    @Lob
+    @Column(nullable = false)
+    private String body;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
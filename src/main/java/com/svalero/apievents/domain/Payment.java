@@ -14,7 +14,11 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "Payment")
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        // Soportan la consulta por filtros de un estado en un rango de fechas y la de fechas sola
+        @Index(name = "idx_payments_status_date", columnList = "status, payment_date"),
+        @Index(name = "idx_payments_date_id", columnList = "payment_date, id")
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,11 +1,13 @@
 package com.svalero.apievents.domain;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
@@ -14,7 +16,11 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "Reservation")
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        // Soportan la consulta por filtros de un evento en un rango de fechas y la de fechas sola
+        @Index(name = "idx_reservations_event_date", columnList = "event_id, reservation_date"),
+        @Index(name = "idx_reservations_date_id", columnList = "reservation_date, id")
+})
 public class Reservation {
 
     @Id
@@ -37,4 +43,10 @@ public class Reservation {
     @ManyToOne
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
+    // Versión optimista: de dos cambios simultáneos sobre la reserva solo se guarda el primero; el otro se reintenta
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private long version;
 }
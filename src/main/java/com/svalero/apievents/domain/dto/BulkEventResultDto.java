@@ -0,0 +1,27 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEventResultDto {
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    // Posición de la fila en el cuerpo de la petición, empezando en 0
+    private int index;
+    private String status;
+    private Long id;
+    private String error;
+
+    public static BulkEventResultDto created(int index, long id) {
+        return new BulkEventResultDto(index, CREATED, id, null);
+    }
+
+    public static BulkEventResultDto rejected(int index, String error) {
+        return new BulkEventResultDto(index, REJECTED, null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Número de eventos de una categoría contados en la tabla de eventos
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryEventCountDto {
+    private long categoryId;
+    private long events;
+}
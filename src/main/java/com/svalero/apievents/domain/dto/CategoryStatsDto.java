@@ -0,0 +1,21 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Estadísticas de una categoría: eventos, plazas, entradas reservadas, recaudación y próximo evento
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStatsDto {
+    private long categoryId;
+    private String name;
+    private long events;
+    private long totalCapacity;
+    private long reservedSeats;
+    private double revenue;
+    private LocalDate nextEventDate;
+}
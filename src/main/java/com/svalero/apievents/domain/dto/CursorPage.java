@@ -0,0 +1,16 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Página de resultados con el cursor opaco para pedir la siguiente (null si no hay más)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String next;
+}
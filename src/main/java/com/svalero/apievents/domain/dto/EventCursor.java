@@ -0,0 +1,81 @@
+package com.svalero.apievents.domain.dto;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Posición de keyset sobre el orden estable (eventDate, id) de los eventos.
+ * Se serializa como un token opaco en Base64 URL-safe; un eventDate null es válido
+ * porque los eventos sin fecha se ordenan primero.
+ */
+@Data
+@AllArgsConstructor
+public class EventCursor {
+
+    // Cursor anterior a cualquier evento: primera página
+    public static final EventCursor FIRST = new EventCursor(null, 0L);
+
+    // Cursor anterior a cualquier evento con fecha: donde siguen las páginas al acabar los eventos sin fecha.
+    // No es LocalDate.MIN porque esa fecha no sobrevive a la conversión del driver JDBC
+    public static final EventCursor FIRST_DATED = new EventCursor(LocalDate.of(1, 1, 1), 0L);
+
+    // Orden estable de la paginación: sin fecha primero, después por fecha e id
+    public static final Comparator<Event> ORDER = Comparator
+            .comparing(Event::getEventDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparingLong(Event::getId);
+
+    private LocalDate eventDate;
+    private long id;
+
+    public static EventCursor of(Event event) {
+        return new EventCursor(event.getEventDate(), event.getId());
+    }
+
+    public static EventCursor of(EventOutDto event) {
+        return new EventCursor(event.getEventDate(), event.getId());
+    }
+
+    // Indica si el evento va después del cursor en el orden (eventDate, id)
+    // (misma condición que EventRepository.UNDATED_AFTER y KEYSET_AFTER juntas)
+    public boolean isBefore(Event event) {
+        if (eventDate == null) {
+            return event.getEventDate() != null || event.getId() > id;
+        }
+        if (event.getEventDate() == null) {
+            return false;
+        }
+        int byDate = event.getEventDate().compareTo(eventDate);
+        return byDate > 0 || (byDate == 0 && event.getId() > id);
+    }
+
+    public String encode() {
+        String raw = (eventDate == null ? "" : eventDate.toString()) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EventCursor decode(String token) throws InvalidCursorException {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            String date = raw.substring(0, separator);
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new EventCursor(date.isEmpty() ? null : LocalDate.parse(date), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Eventos que cumplen los filtros (hasta el límite pedido) y recuentos por faceta sobre todos ellos
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventFacetsDto {
+    private long total;
+    private List<EventOutDto> events;
+    // Id de categoría (0 sin categoría) -> eventos
+    private Map<Long, Long> categories;
+    // Mes de la fecha (yyyy-MM) -> eventos; los eventos sin fecha no cuentan
+    private Map<String, Long> months;
+    // Tramo de capacidad -> eventos
+    private Map<String, Long> capacities;
+    // Ubicación -> eventos, de más a menos
+    private Map<String, Long> ubications;
+}
@@ -0,0 +1,42 @@
+package com.svalero.apievents.domain.dto;
+
+import com.svalero.apievents.domain.Event;
+
+/**
+ * Conversiones entre los DTO de eventos y la entidad Event, escritas campo a campo.
+ * Sustituyen a ModelMapper: sin reflexión ni estrategia de emparejamiento por llamada,
+ * y un campo nuevo que no se copie aparece al compilar y en los tests, no en producción.
+ */
+public final class EventMapper {
+
+    private EventMapper() {
+    }
+
+    // Evento nuevo a partir del alta; la categoría la resuelve quien llama a partir de categoryId
+    public static Event toEvent(EventRegistrationDto dto) {
+        Event event = new Event();
+        event.setEventName(dto.getEventName());
+        event.setEventDate(dto.getEventDate());
+        event.setCapacity(dto.getCapacity());
+        event.setUbication(dto.getUbication());
+        event.setLatitude(dto.getLatitude());
+        event.setLongitude(dto.getLongitude());
+        return event;
+    }
+
+    // Resumen del evento con la categoría como id (0 si no tiene), igual que EventRepository.SUMMARY
+    public static EventOutDto toOutDto(Event event) {
+        return new EventOutDto(event.getId(), event.getEventName(), event.getEventDate(), event.getCapacity(),
+                event.getUbication(), categoryId(event), event.getLatitude(), event.getLongitude());
+    }
+
+    // Resumen del evento junto a su distancia al punto de búsqueda
+    public static NearbyEventOutDto toNearbyOutDto(Event event, double distanceKm) {
+        return new NearbyEventOutDto(event.getId(), event.getEventName(), event.getEventDate(), event.getCapacity(),
+                event.getUbication(), categoryId(event), event.getLatitude(), event.getLongitude(), distanceKm);
+    }
+
+    private static long categoryId(Event event) {
+        return event.getCategory() != null ? event.getCategory().getId() : 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ocupación de un evento: plazas, entradas reservadas, importe pagado y entradas libres
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventOccupancyDto {
+    private long eventId;
+    private int capacity;
+    private long reserved;
+    private double paid;
+    private long remaining;
+}
@@ -20,6 +20,7 @@ public class EventRegistrationDto {
     private LocalDate eventDate;
     @Min(value = 1)
     private int capacity;
+    @NotNull(message = "El campo ubication es obligatorio")
     private String ubication;
     //private EventCategory category;
     private double latitude;
@@ -0,0 +1,16 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Entidades pedidas por id en el orden de la petición, y los ids pedidos que no existen
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetDto<T> {
+    private List<T> items;
+    private List<Long> missing;
+}
@@ -0,0 +1,24 @@
+package com.svalero.apievents.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyEventOutDto {
+    private long id;
+    private String eventName;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate eventDate;
+    private int capacity;
+    private String ubication;
+    private long categoryId;
+    private double latitude;
+    private double longitude;
+    private double distanceKm;
+}
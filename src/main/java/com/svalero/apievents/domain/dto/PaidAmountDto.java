@@ -0,0 +1,14 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Suma de los importes pagados por las reservas de un evento
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaidAmountDto {
+    private long eventId;
+    private double paid;
+}
@@ -0,0 +1,22 @@
+package com.svalero.apievents.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentOutDto {
+    private long id;
+    private String name;
+    private String customerName;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate paymentDate;
+    private double amount;
+    private String status;
+    private long reservationId;
+}
@@ -0,0 +1,14 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Suma de las entradas reservadas de un evento
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservedSeatsDto {
+    private long eventId;
+    private long reservedSeats;
+}
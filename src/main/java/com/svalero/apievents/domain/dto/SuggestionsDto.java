@@ -0,0 +1,16 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Sugerencias de autocompletado: eventos (próximos primero) y categorías (con más eventos primero)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionsDto {
+    private List<SuggestionDto> events;
+    private List<SuggestionDto> categories;
+}
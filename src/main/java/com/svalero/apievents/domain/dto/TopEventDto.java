@@ -0,0 +1,15 @@
+package com.svalero.apievents.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Evento del ranking de tendencias con las entradas reservadas en la ventana
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopEventDto {
+    private long eventId;
+    private String eventName;
+    private long quantity;
+}
@@ -0,0 +1,23 @@
+package com.svalero.apievents.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Fila de la vista de próximos eventos: el resumen del evento con el nombre de su categoría
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpcomingEventDto {
+    private long id;
+    private String eventName;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate eventDate;
+    private int capacity;
+    private String ubication;
+    private long categoryId;
+    private String categoryName;
+}
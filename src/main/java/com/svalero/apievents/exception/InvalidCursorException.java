@@ -0,0 +1,7 @@
+package com.svalero.apievents.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
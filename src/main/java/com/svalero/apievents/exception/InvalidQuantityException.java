@@ -0,0 +1,7 @@
+package com.svalero.apievents.exception;
+
+public class InvalidQuantityException extends RuntimeException {
+    public InvalidQuantityException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.svalero.apievents.exception;
+
+public class NotEnoughSeatsException extends RuntimeException {
+    public NotEnoughSeatsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,203 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.EventCategory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Catálogo completo de categorías en memoria. Cada versión es una foto inmutable con las
+ * categorías ordenadas por id, por fecha de creación y por número de eventos; los buscadores
+ * hacen una búsqueda binaria sobre la foto vigente sin bloqueos. Cada escritura construye una
+ * foto nueva a partir de la anterior y la publica de una vez, así una lectura nunca ve un
+ * catálogo a medio cambiar. La tabla es pequeña, así que copiarla entera en cada escritura es barato.
+ */
+@Component
+public class CategoryCatalog implements EntityIndex<EventCategory> {
+
+    private static final EventCategory[] NO_CATEGORIES = new EventCategory[0];
+
+    private volatile Snapshot snapshot = Snapshot.of(NO_CATEGORIES);
+
+    @Override
+    public synchronized void rebuild(Collection<EventCategory> entities) {
+        EventCategory[] categories = entities.toArray(NO_CATEGORIES);
+        Arrays.sort(categories, Comparator.comparingLong(EventCategory::getId));
+        snapshot = Snapshot.of(categories);
+    }
+
+    @Override
+    public synchronized void put(EventCategory category) {
+        EventCategory[] current = snapshot.byId;
+        int index = indexOf(current, category.getId());
+        EventCategory[] categories;
+        if (index >= 0) {
+            categories = current.clone();
+            categories[index] = category;
+        } else {
+            int position = -index - 1;
+            categories = new EventCategory[current.length + 1];
+            System.arraycopy(current, 0, categories, 0, position);
+            categories[position] = category;
+            System.arraycopy(current, position, categories, position + 1, current.length - position);
+        }
+        snapshot = Snapshot.of(categories);
+    }
+
+    @Override
+    public synchronized void remove(long id) {
+        EventCategory[] current = snapshot.byId;
+        int index = indexOf(current, id);
+        if (index < 0) {
+            return;
+        }
+        EventCategory[] categories = new EventCategory[current.length - 1];
+        System.arraycopy(current, 0, categories, 0, index);
+        System.arraycopy(current, index + 1, categories, index, categories.length - index);
+        snapshot = Snapshot.of(categories);
+    }
+
+    public Optional<EventCategory> findById(long id) {
+        EventCategory[] categories = snapshot.byId;
+        int index = indexOf(categories, id);
+        return index >= 0 ? Optional.of(categories[index]) : Optional.empty();
+    }
+
+    // Categorías activas, en orden de id
+    public List<EventCategory> findByActiveTrue() {
+        return view(snapshot.active, 0, snapshot.active.length);
+    }
+
+    // Categorías inactivas, en orden de id; las que no tienen valor no son ni activas ni inactivas, como en SQL
+    public List<EventCategory> findByActiveFalse() {
+        return view(snapshot.inactive, 0, snapshot.inactive.length);
+    }
+
+    // Las búsquedas por fecha devuelven las categorías en orden de fecha de creación; las que no tienen fecha no aparecen
+    public List<EventCategory> findByCreationDate(LocalDate date) {
+        Snapshot current = snapshot;
+        long day = date.toEpochDay();
+        return view(current.byCreationDate, lowerBound(current.creationDays, day),
+                lowerBound(current.creationDays, day + 1));
+    }
+
+    public List<EventCategory> findByCreationDateAfter(LocalDate date) {
+        Snapshot current = snapshot;
+        return view(current.byCreationDate, lowerBound(current.creationDays, date.toEpochDay() + 1),
+                current.creationDays.length);
+    }
+
+    public List<EventCategory> findByCreationDateBefore(LocalDate date) {
+        Snapshot current = snapshot;
+        return view(current.byCreationDate, 0, lowerBound(current.creationDays, date.toEpochDay()));
+    }
+
+    // Las búsquedas por número de eventos devuelven las categorías de menos a más eventos
+    public List<EventCategory> findByNumberEvents(int numberEvents) {
+        Snapshot current = snapshot;
+        return view(current.byNumberEvents, lowerBound(current.numberEvents, numberEvents),
+                lowerBound(current.numberEvents, (long) numberEvents + 1));
+    }
+
+    public List<EventCategory> findByNumberEventsGreaterThanEqual(int numberEvents) {
+        Snapshot current = snapshot;
+        return view(current.byNumberEvents, lowerBound(current.numberEvents, numberEvents),
+                current.numberEvents.length);
+    }
+
+    private static List<EventCategory> view(EventCategory[] categories, int from, int to) {
+        return Collections.unmodifiableList(Arrays.asList(categories).subList(from, to));
+    }
+
+    private static int indexOf(EventCategory[] categories, long id) {
+        int low = 0;
+        int high = categories.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = categories[middle].getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Primera posición con una clave mayor o igual que key
+    private static int lowerBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Foto inmutable del catálogo: los arrays no se modifican una vez publicada
+    private static final class Snapshot {
+        private final EventCategory[] byId;
+        private final EventCategory[] active;
+        private final EventCategory[] inactive;
+        private final EventCategory[] byCreationDate;
+        private final long[] creationDays;
+        private final EventCategory[] byNumberEvents;
+        private final long[] numberEvents;
+
+        private Snapshot(EventCategory[] byId, EventCategory[] active, EventCategory[] inactive,
+                         EventCategory[] byCreationDate, EventCategory[] byNumberEvents) {
+            this.byId = byId;
+            this.active = active;
+            this.inactive = inactive;
+            this.byCreationDate = byCreationDate;
+            this.creationDays = new long[byCreationDate.length];
+            for (int i = 0; i < byCreationDate.length; i++) {
+                creationDays[i] = byCreationDate[i].getCreationDate().toEpochDay();
+            }
+            this.byNumberEvents = byNumberEvents;
+            this.numberEvents = new long[byNumberEvents.length];
+            for (int i = 0; i < byNumberEvents.length; i++) {
+                numberEvents[i] = byNumberEvents[i].getNumberEvents();
+            }
+        }
+
+        // byId ya viene ordenado por id; el resto de órdenes desempatan por id
+        private static Snapshot of(EventCategory[] byId) {
+            List<EventCategory> active = new ArrayList<>();
+            List<EventCategory> inactive = new ArrayList<>();
+            List<EventCategory> dated = new ArrayList<>();
+            for (EventCategory category : byId) {
+                if (Boolean.TRUE.equals(category.getActive())) {
+                    active.add(category);
+                } else if (Boolean.FALSE.equals(category.getActive())) {
+                    inactive.add(category);
+                }
+                if (category.getCreationDate() != null) {
+                    dated.add(category);
+                }
+            }
+            EventCategory[] byCreationDate = dated.toArray(NO_CATEGORIES);
+            Arrays.sort(byCreationDate, Comparator.comparing(EventCategory::getCreationDate)
+                    .thenComparingLong(EventCategory::getId));
+            EventCategory[] byNumberEvents = byId.clone();
+            Arrays.sort(byNumberEvents, Comparator.comparingInt(EventCategory::getNumberEvents)
+                    .thenComparingLong(EventCategory::getId));
+            return new Snapshot(byId, active.toArray(NO_CATEGORIES), inactive.toArray(NO_CATEGORIES),
+                    byCreationDate, byNumberEvents);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.config.CacheConfig;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CategoryEventCountDto;
+import com.svalero.apievents.repository.EventCategoryRepository;
+import com.svalero.apievents.repository.EventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador de eventos de cada categoría (EventCategory.numberEvents), mantenido por el servidor.
+ * Las altas, cambios de categoría y bajas de eventos suman o restan en un LongAdder por
+ * categoría, sin bloqueos ni escrituras en la base de datos; una tarea periódica lleva lo
+ * acumulado a la tabla con una sentencia UPDATE por cada valor distinto de la diferencia, así
+ * que una categoría muy activa no pone a sus escritores en cola sobre el bloqueo de su fila.
+ * Al arrancar se corrige la tabla con un recuento agrupado de los eventos.
+ */
+@Component
+public class CategoryEventCounters {
+
+    private final Logger logger = LoggerFactory.getLogger(CategoryEventCounters.class);
+
+    private final EventCategoryRepository categoryRepository;
+    private final EventRepository eventRepository;
+    private final CategoryIndexes categoryIndexes;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // Suma de todos los cambios y la parte ya escrita en la tabla; flushed solo lo toca flush
+    private static final class Counter {
+        private final LongAdder changes = new LongAdder();
+        private long flushed;
+    }
+
+    @Autowired
+    public CategoryEventCounters(EventCategoryRepository categoryRepository, EventRepository eventRepository,
+                                 CategoryIndexes categoryIndexes, CacheManager cacheManager,
+                                 PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.eventRepository = eventRepository;
+        this.categoryIndexes = categoryIndexes;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Un evento nuevo en la categoría (0 si no tiene)
+    public void increment(long categoryId) {
+        add(categoryId, 1);
+    }
+
+    // Un evento menos en la categoría (0 si no tiene)
+    public void decrement(long categoryId) {
+        add(categoryId, -1);
+    }
+
+    // Un evento pasa de una categoría a otra
+    public void move(long fromCategoryId, long toCategoryId) {
+        if (fromCategoryId != toCategoryId) {
+            decrement(fromCategoryId);
+            increment(toCategoryId);
+        }
+    }
+
+    // Escribe en la tabla lo acumulado desde la última vez; si falla, se reintenta en la siguiente
+    @Scheduled(fixedDelayString = "${apievents.category-counters.flush-interval:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<Integer, List<Long>> idsByDelta = new HashMap<>();
+        Map<Long, Long> totals = new HashMap<>();
+        counters.forEach((categoryId, counter) -> {
+            long total = counter.changes.sum();
+            if (total != counter.flushed) {
+                idsByDelta.computeIfAbsent((int) (total - counter.flushed), delta -> new ArrayList<>()).add(categoryId);
+                totals.put(categoryId, total);
+            }
+        });
+        if (totals.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                idsByDelta.forEach((delta, ids) -> categoryRepository.addNumberEvents(delta, ids)));
+        totals.forEach((categoryId, total) -> counters.get(categoryId).flushed = total);
+        refresh(totals.keySet());
+        logger.debug("Flushed event counters of {} categories in {} updates", totals.size(), idsByDelta.size());
+    }
+
+    // Corrige la tabla con el recuento real. Los cambios acumulados se dan por contados cuando el recuento
+    // ya ha terminado: el servidor ya atiende peticiones, y un evento guardado mientras se cuenta está en el
+    // recuento, así que si su cambio quedara pendiente el siguiente flush lo sumaría otra vez
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconcile() {
+        logger.info("BEGIN reconcile - Counting events per category");
+        Map<Long, Long> counts = new HashMap<>();
+        eventRepository.countGroupByCategory().forEach(row -> counts.put(row.getCategoryId(), row.getEvents()));
+        counters.values().forEach(counter -> counter.flushed = counter.changes.sum());
+
+        Map<Integer, List<Long>> idsByCount = new HashMap<>();
+        for (EventCategory category : categoryRepository.findAll()) {
+            int count = counts.getOrDefault(category.getId(), 0L).intValue();
+            if (category.getNumberEvents() != count) {
+                idsByCount.computeIfAbsent(count, key -> new ArrayList<>()).add(category.getId());
+            }
+        }
+        if (!idsByCount.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    idsByCount.forEach((count, ids) -> categoryRepository.setNumberEvents(count, ids)));
+            refresh(idsByCount.values().stream().flatMap(List::stream).toList());
+        }
+        logger.info("END reconcile - Categories corrected: {}",
+                idsByCount.values().stream().mapToInt(List::size).sum());
+    }
+
+    private void add(long categoryId, long delta) {
+        if (categoryId != 0) {
+            counters.computeIfAbsent(categoryId, id -> new Counter()).changes.add(delta);
+        }
+    }
+
+    // Los índices, las versiones y las cachés de categorías y de eventos pasan a ver el contador nuevo.
+    // Los eventos en caché llevan su categoría dentro y no se sabe cuáles son, así que se vacía entera
+    private void refresh(Iterable<Long> categoryIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.EVENT_CATEGORIES);
+        categoryRepository.findAllById(categoryIds).forEach(category -> {
+            categoryIndexes.put(category);
+            if (cache != null) {
+                cache.evict(category.getId());
+            }
+        });
+        Cache events = cacheManager.getCache(CacheConfig.EVENTS);
+        if (events != null) {
+            events.clear();
+        }
+    }
+}
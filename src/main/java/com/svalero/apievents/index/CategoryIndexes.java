@@ -0,0 +1,26 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.repository.EventCategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Índices en memoria de categorías, mantenidos desde EventCategoryService
+@Component
+public class CategoryIndexes extends EntityIndexes<EventCategory> {
+
+    private final EventCategoryRepository categoryRepository;
+
+    @Autowired
+    public CategoryIndexes(EventCategoryRepository categoryRepository, List<EntityIndex<EventCategory>> indexes) {
+        super(indexes);
+        this.categoryRepository = categoryRepository;
+    }
+
+    @Override
+    protected List<EventCategory> loadAll() {
+        return categoryRepository.findAll();
+    }
+}
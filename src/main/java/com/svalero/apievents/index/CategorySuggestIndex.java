@@ -0,0 +1,72 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.SuggestionDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Autocompletado de nombres de categoría sobre un PrefixTrie; las categorías con más eventos van primero
+@Component
+public class CategorySuggestIndex implements EntityIndex<EventCategory> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PrefixTrie names = new PrefixTrie();
+
+    @Override
+    public void rebuild(Collection<EventCategory> entities) {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            entities.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(EventCategory category) {
+        lock.writeLock().lock();
+        try {
+            insert(category);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            names.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Categorías con alguna palabra del nombre que empieza por el prefijo, hasta limit
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return names.top(prefix, limit).stream()
+                    .map(entry -> new SuggestionDto(entry.id(), entry.name()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sugerencias sobre unas categorías cualquiera (por ejemplo, leídas de la base de datos en el arranque en frío)
+    public static List<SuggestionDto> suggest(Collection<EventCategory> categories, String prefix, int limit) {
+        CategorySuggestIndex snapshot = new CategorySuggestIndex();
+        snapshot.rebuild(categories);
+        return snapshot.suggest(prefix, limit);
+    }
+
+    private void insert(EventCategory category) {
+        names.put(category.getId(), category.getName(), -category.getNumberEvents());
+    }
+}
@@ -0,0 +1,97 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.EventCategory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice de texto sobre nombre y descripción de las categorías
+@Component
+public class CategoryTextIndex implements EntityIndex<EventCategory> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, EventCategory> categories = new HashMap<>();
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex descriptions = new TrigramIndex();
+
+    @Override
+    public void rebuild(Collection<EventCategory> entities) {
+        lock.writeLock().lock();
+        try {
+            categories.clear();
+            names.clear();
+            descriptions.clear();
+            entities.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(EventCategory category) {
+        lock.writeLock().lock();
+        try {
+            insert(category);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            categories.remove(id);
+            names.remove(id);
+            descriptions.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<EventCategory> findByNameContaining(String name) {
+        return find(names, name);
+    }
+
+    public List<EventCategory> findByDescriptionContaining(String description) {
+        return find(descriptions, description);
+    }
+
+    // Categorías cuyo nombre o descripción contiene un término ya normalizado
+    public Set<Long> matching(String normalizedTerm) {
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new HashSet<>(names.containing(normalizedTerm));
+            ids.addAll(descriptions.containing(normalizedTerm));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<EventCategory> find(TrigramIndex field, String term) {
+        lock.readLock().lock();
+        try {
+            return field.containing(TextNormalizer.normalize(term)).stream()
+                    .map(categories::get)
+                    .sorted(Comparator.comparingLong(EventCategory::getId))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(EventCategory category) {
+        categories.put(category.getId(), category);
+        names.put(category.getId(), category.getName());
+        descriptions.put(category.getId(), category.getDescription());
+    }
+}
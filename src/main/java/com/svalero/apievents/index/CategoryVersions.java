@@ -0,0 +1,18 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.EventCategory;
+import org.springframework.stereotype.Component;
+
+// Versiones de las categorías para las respuestas condicionales de /event-categories
+@Component
+public class CategoryVersions extends EntityVersions<EventCategory> {
+
+    public CategoryVersions() {
+        super(null);
+    }
+
+    @Override
+    protected long idOf(EventCategory category) {
+        return category.getId();
+    }
+}
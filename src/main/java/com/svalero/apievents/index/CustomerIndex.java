@@ -0,0 +1,155 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.repository.EntityStreams;
+import com.svalero.apievents.repository.PaymentRepository;
+import com.svalero.apievents.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Búsqueda aproximada de clientes sobre el nombre y el email de las reservas y el nombre del
+ * cliente de los pagos, para /reservations/customer y /payments/customer: encuentra nombres
+ * escritos a medias o con erratas y devuelve los ids del más parecido al menos parecido, de
+ * modo que los servicios solo leen esas filas. Se carga al arrancar recorriendo las dos tablas
+ * en streaming y después lo mantienen ReservationService y PaymentService en cada escritura;
+ * hasta que termina la carga las búsquedas van a la base de datos.
+ */
+@Component
+public class CustomerIndex {
+
+    private final Logger logger = LoggerFactory.getLogger(CustomerIndex.class);
+
+    private final ReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FuzzyIndex reservationNames = new FuzzyIndex();
+    private final FuzzyIndex reservationEmails = new FuzzyIndex();
+    private final FuzzyIndex paymentNames = new FuzzyIndex();
+    private volatile boolean loaded;
+
+    @Autowired
+    public CustomerIndex(ReservationRepository reservationRepository, PaymentRepository paymentRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.paymentRepository = paymentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    // Carga el índice con una lectura en streaming de cada tabla. Las escrituras que lleguen
+    // mientras tanto esperan al cerrojo y se aplican después de la foto inicial
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        logger.info("BEGIN load - Building customer index");
+        lock.writeLock().lock();
+        try {
+            reservationNames.clear();
+            reservationEmails.clear();
+            paymentNames.clear();
+            transactionTemplate.executeWithoutResult(status -> {
+                EntityStreams.forEach(reservationRepository.streamAll(), reservation ->
+                        insertReservation(reservation.getId(), reservation.getCustomerName(), reservation.getEmail()));
+                EntityStreams.forEach(paymentRepository.streamAll(), payment ->
+                        paymentNames.put(payment.getId(), payment.getCustomerName()));
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("END load - Reservations indexed: {}, payments indexed: {}", reservationNames.size(),
+                paymentNames.size());
+    }
+
+    // Hasta que termina la carga inicial las búsquedas tienen que ir a la base de datos
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Inserta o actualiza una reserva ya guardada
+    public void putReservation(long id, String customerName, String email) {
+        lock.writeLock().lock();
+        try {
+            insertReservation(id, customerName, email);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeReservation(long id) {
+        lock.writeLock().lock();
+        try {
+            reservationNames.remove(id);
+            reservationEmails.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Inserta o actualiza un pago ya guardado
+    public void putPayment(long id, String customerName) {
+        lock.writeLock().lock();
+        try {
+            paymentNames.put(id, customerName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePayment(long id) {
+        lock.writeLock().lock();
+        try {
+            paymentNames.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids de las reservas cuyo nombre o email se parece al término, de la más cercana a la más lejana
+    public List<Long> findReservations(String term, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> distances = reservationNames.matching(term);
+            reservationEmails.matching(term).forEach((id, distance) -> distances.merge(id, distance, Math::min));
+            return ranked(distances, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids de los pagos cuyo nombre de cliente se parece al término, del más cercano al más lejano
+    public List<Long> findPayments(String term, int limit) {
+        lock.readLock().lock();
+        try {
+            return ranked(paymentNames.matching(term), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insertReservation(long id, String customerName, String email) {
+        reservationNames.put(id, customerName);
+        reservationEmails.put(id, email);
+    }
+
+    // A igual distancia, por id
+    private static List<Long> ranked(Map<Long, Integer> distances, int limit) {
+        return distances.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -0,0 +1,19 @@
+package com.svalero.apievents.index;
+
+import java.util.Collection;
+
+/**
+ * Índice en memoria mantenido a partir de las escrituras de los servicios.
+ * Se reconstruye entero al arrancar y después se actualiza entidad a entidad.
+ */
+public interface EntityIndex<T> {
+
+    // Sustituye el contenido del índice por las entidades dadas
+    void rebuild(Collection<T> entities);
+
+    // Inserta o actualiza una entidad ya guardada
+    void put(T entity);
+
+    // Elimina una entidad borrada
+    void remove(long id);
+}
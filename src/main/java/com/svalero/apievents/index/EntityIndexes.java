@@ -0,0 +1,51 @@
+package com.svalero.apievents.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+
+/**
+ * Reparte las escrituras de un tipo de entidad entre todos sus índices en memoria.
+ * La carga inicial y las actualizaciones se serializan con el mismo monitor, así una
+ * escritura concurrente con la carga se aplica siempre después de la foto inicial.
+ */
+public abstract class EntityIndexes<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final List<EntityIndex<T>> indexes;
+    private volatile boolean loaded;
+
+    protected EntityIndexes(List<EntityIndex<T>> indexes) {
+        this.indexes = indexes;
+    }
+
+    // Lectura completa de la tabla que alimenta la carga inicial
+    protected abstract List<T> loadAll();
+
+    // Carga todos los índices con una sola lectura de la tabla
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        logger.info("BEGIN load - Building {} indexes", indexes.size());
+        List<T> entities = loadAll();
+        indexes.forEach(index -> index.rebuild(entities));
+        loaded = true;
+        logger.info("END load - Entities indexed: {}", entities.size());
+    }
+
+    public synchronized void put(T entity) {
+        indexes.forEach(index -> index.put(entity));
+    }
+
+    public synchronized void remove(long id) {
+        indexes.forEach(index -> index.remove(id));
+    }
+
+    // Hasta que termina la carga inicial las consultas tienen que ir a la base de datos
+    public boolean isLoaded() {
+        return loaded;
+    }
+}
@@ -0,0 +1,81 @@
+package com.svalero.apievents.index;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versiones en memoria de una tabla: un contador que sube con cada escritura y, para cada
+ * entidad, el valor del contador en su última escritura. Con ellas se calculan ETag y
+ * Last-Modified de las respuestas GET sin ir a la base de datos.
+ * Si las entidades se serializan con otra entidad dentro (un evento con su categoría),
+ * su versión incluye también la de esa otra tabla.
+ */
+public abstract class EntityVersions<T> implements EntityIndex<T> {
+
+    // Los contadores vuelven a empezar en cada arranque; el instante de arranque distingue sus ETag
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong tableVersion = new AtomicLong();
+    private volatile long tableModified = System.currentTimeMillis();
+    private final ConcurrentMap<Long, Stamp> stamps = new ConcurrentHashMap<>();
+    private final EntityVersions<?> embedded;
+
+    // ETag fuerte (entre comillas) y fecha de última modificación en milisegundos
+    public record Version(String etag, long lastModified) {
+    }
+
+    private record Stamp(long version, long modified) {
+    }
+
+    protected EntityVersions(EntityVersions<?> embedded) {
+        this.embedded = embedded;
+    }
+
+    protected abstract long idOf(T entity);
+
+    @Override
+    public void rebuild(Collection<T> entities) {
+        Stamp stamp = touch();
+        stamps.clear();
+        entities.forEach(entity -> stamps.put(idOf(entity), stamp));
+    }
+
+    @Override
+    public void put(T entity) {
+        stamps.put(idOf(entity), touch());
+    }
+
+    @Override
+    public void remove(long id) {
+        stamps.remove(id);
+        touch();
+    }
+
+    // Versión de una entidad, o null si no se conoce (no existe o aún no se han cargado los índices)
+    public Version of(long id) {
+        Stamp stamp = stamps.get(id);
+        if (stamp == null) {
+            return null;
+        }
+        String tag = epoch + "-" + stamp.version();
+        long modified = stamp.modified();
+        if (embedded != null) {
+            tag += "-" + embedded.tableVersion.get();
+            modified = Math.max(modified, embedded.tableModified);
+        }
+        return new Version("\"" + tag + "\"", modified);
+    }
+
+    // Versión de la tabla entera, para los listados
+    public Version ofTable() {
+        return new Version("\"" + epoch + "-" + tableVersion.get() + "\"", tableModified);
+    }
+
+    private Stamp touch() {
+        long now = System.currentTimeMillis();
+        long version = tableVersion.incrementAndGet();
+        tableModified = now;
+        return new Stamp(version, now);
+    }
+}
@@ -0,0 +1,152 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.EventCursor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Calendario de eventos: para cada día, los ids de sus eventos en un array ordenado.
+ * Un rango de fechas se resuelve con una búsqueda binaria en el árbol de días y un
+ * recorrido secuencial de los arrays, ya en el orden (eventDate, id) de la paginación.
+ * Los eventos sin fecha no entran en el calendario.
+ */
+@Component
+public class EventCalendarIndex implements EntityIndex<Event> {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<LocalDate, long[]> days = new TreeMap<>();
+    private final Map<Long, Event> events = new HashMap<>();
+    // Fecha con la que se indexó cada evento, por si la instancia cambia después
+    private final Map<Long, LocalDate> indexedDates = new HashMap<>();
+
+    @Override
+    public void rebuild(Collection<Event> entities) {
+        lock.writeLock().lock();
+        try {
+            days.clear();
+            events.clear();
+            indexedDates.clear();
+            // Se agrupa por día y se ordena una sola vez en lugar de insertar uno a uno
+            Map<LocalDate, List<Long>> byDay = new HashMap<>();
+            for (Event event : entities) {
+                if (event.getEventDate() != null) {
+                    events.put(event.getId(), event);
+                    indexedDates.put(event.getId(), event.getEventDate());
+                    byDay.computeIfAbsent(event.getEventDate(), key -> new ArrayList<>()).add(event.getId());
+                }
+            }
+            byDay.forEach((day, ids) -> {
+                long[] sorted = ids.stream().mapToLong(Long::longValue).toArray();
+                Arrays.sort(sorted);
+                days.put(day, sorted);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Event event) {
+        lock.writeLock().lock();
+        try {
+            delete(event.getId());
+            if (event.getEventDate() != null) {
+                events.put(event.getId(), event);
+                indexedDates.put(event.getId(), event.getEventDate());
+                long[] ids = days.getOrDefault(event.getEventDate(), EMPTY);
+                int position = -Arrays.binarySearch(ids, event.getId()) - 1;
+                long[] updated = new long[ids.length + 1];
+                System.arraycopy(ids, 0, updated, 0, position);
+                updated[position] = event.getId();
+                System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+                days.put(event.getEventDate(), updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Todos los eventos entre dos fechas (ambas incluidas)
+    public List<Event> findBetween(LocalDate startDate, LocalDate endDate) {
+        return findBetween(startDate, endDate, EventCursor.FIRST, Integer.MAX_VALUE);
+    }
+
+    // Hasta limit eventos entre dos fechas posteriores al cursor, en orden (eventDate, id)
+    public List<Event> findBetween(LocalDate startDate, LocalDate endDate, EventCursor after, int limit) {
+        List<Event> result = new ArrayList<>();
+        if (startDate.isAfter(endDate)) {
+            return result;
+        }
+        LocalDate from = startDate;
+        if (after.getEventDate() != null && after.getEventDate().isAfter(startDate)) {
+            from = after.getEventDate();
+        }
+        if (from.isAfter(endDate)) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<LocalDate, long[]> day : days.subMap(from, true, endDate, true).entrySet()) {
+                long[] ids = day.getValue();
+                int start = 0;
+                if (day.getKey().equals(after.getEventDate())) {
+                    // Dentro del día del cursor se continúa por el primer id mayor que el suyo
+                    int position = Arrays.binarySearch(ids, after.getId());
+                    start = position >= 0 ? position + 1 : -position - 1;
+                }
+                for (int i = start; i < ids.length; i++) {
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                    result.add(events.get(ids[i]));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void delete(long id) {
+        events.remove(id);
+        LocalDate day = indexedDates.remove(id);
+        if (day == null) {
+            return;
+        }
+        long[] ids = days.get(day);
+        int position = Arrays.binarySearch(ids, id);
+        if (ids.length == 1) {
+            days.remove(day);
+            return;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+        days.put(day, updated);
+    }
+}
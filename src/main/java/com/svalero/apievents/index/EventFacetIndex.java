@@ -0,0 +1,260 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.EventFacetsDto;
+import com.svalero.apievents.domain.dto.EventMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copia en columnas de los campos filtrables de los eventos: un array por campo, una
+ * posición por evento. Los filtros y los recuentos de todas las facetas se resuelven en
+ * una sola pasada secuencial por los arrays. Las ubicaciones se guardan como códigos de
+ * un diccionario, así el filtro de texto se evalúa una vez por ubicación distinta y no
+ * una vez por evento.
+ */
+@Component
+public class EventFacetIndex implements EntityIndex<Event> {
+
+    // Límites superiores de los tramos de capacidad; lo que pasa del último va al tramo final
+    private static final int[] CAPACITY_LIMITS = {50, 100, 500, 1000};
+    private static final String[] CAPACITY_BUCKETS = {"<=50", "51-100", "101-500", "501-1000", ">1000"};
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int INITIAL_SLOTS = 64;
+
+    private static final Comparator<Event> EVENT_ORDER = Comparator
+            .comparing(Event::getEventDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(Event::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columnas; una posición con id 0 es un hueco libre
+    private long[] ids = new long[INITIAL_SLOTS];
+    private Event[] events = new Event[INITIAL_SLOTS];
+    private long[] categoryIds = new long[INITIAL_SLOTS];
+    private int[] epochDays = new int[INITIAL_SLOTS];
+    private int[] months = new int[INITIAL_SLOTS];
+    private int[] capacities = new int[INITIAL_SLOTS];
+    private int[] ubications = new int[INITIAL_SLOTS];
+    private int used;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private int[] freeSlots = new int[INITIAL_SLOTS];
+    private int freeCount;
+
+    // Diccionario de ubicaciones: código -> texto original y texto normalizado
+    private final Map<String, Integer> ubicationCodes = new HashMap<>();
+    private final List<String> ubicationNames = new ArrayList<>();
+    private final List<String> normalizedUbications = new ArrayList<>();
+
+    // Filtros de la búsqueda por facetas; los null no filtran
+    public record FacetFilter(LocalDate startDate, LocalDate endDate, Integer maxCapacity, String ubication,
+                              Long categoryId) {
+    }
+
+    @Override
+    public void rebuild(Collection<Event> entities) {
+        lock.writeLock().lock();
+        try {
+            int capacity = Math.max(INITIAL_SLOTS, entities.size());
+            ids = new long[capacity];
+            events = new Event[capacity];
+            categoryIds = new long[capacity];
+            epochDays = new int[capacity];
+            months = new int[capacity];
+            capacities = new int[capacity];
+            ubications = new int[capacity];
+            used = 0;
+            slots.clear();
+            freeCount = 0;
+            ubicationCodes.clear();
+            ubicationNames.clear();
+            normalizedUbications.clear();
+            entities.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Event event) {
+        lock.writeLock().lock();
+        try {
+            delete(event.getId());
+            insert(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Eventos que cumplen el filtro, en orden (eventDate, id) y limitados a limit, con los recuentos por faceta
+    public EventFacetsDto facets(FacetFilter filter, int limit) {
+        int from = filter.startDate() != null ? (int) filter.startDate().toEpochDay() : NO_DATE;
+        int to = filter.endDate() != null ? (int) filter.endDate().toEpochDay() : Integer.MAX_VALUE;
+        boolean byDate = filter.startDate() != null || filter.endDate() != null;
+        int maxCapacity = filter.maxCapacity() != null ? filter.maxCapacity() : Integer.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            boolean[] ubicationMatches = filter.ubication() != null ? matchUbications(filter.ubication()) : null;
+            long[] ubicationCounts = new long[ubicationNames.size()];
+            long[] capacityCounts = new long[CAPACITY_BUCKETS.length];
+            Map<Long, Long> categoryCounts = new HashMap<>();
+            Map<Integer, Long> monthCounts = new TreeMap<>();
+            List<Event> matches = new ArrayList<>();
+
+            for (int slot = 0; slot < used; slot++) {
+                if (ids[slot] == 0
+                        || byDate && (epochDays[slot] == NO_DATE || epochDays[slot] < from || epochDays[slot] > to)
+                        || capacities[slot] > maxCapacity
+                        || ubicationMatches != null && !ubicationMatches[ubications[slot]]
+                        || filter.categoryId() != null && categoryIds[slot] != filter.categoryId()) {
+                    continue;
+                }
+                matches.add(events[slot]);
+                categoryCounts.merge(categoryIds[slot], 1L, Long::sum);
+                if (months[slot] != NO_DATE) {
+                    monthCounts.merge(months[slot], 1L, Long::sum);
+                }
+                capacityCounts[capacityBucket(capacities[slot])]++;
+                ubicationCounts[ubications[slot]]++;
+            }
+
+            matches.sort(EVENT_ORDER);
+            List<Event> page = matches.subList(0, Math.min(limit, matches.size()));
+            return new EventFacetsDto(matches.size(), page.stream().map(EventMapper::toOutDto).toList(),
+                    categoryCounts, monthFacet(monthCounts), capacityFacet(capacityCounts),
+                    ubicationFacet(ubicationCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Facetas sobre unos eventos cualquiera (por ejemplo, leídos de la base de datos en el arranque en frío)
+    public static EventFacetsDto facets(Collection<Event> events, FacetFilter filter, int limit) {
+        EventFacetIndex snapshot = new EventFacetIndex();
+        snapshot.rebuild(events);
+        return snapshot.facets(filter, limit);
+    }
+
+    private boolean[] matchUbications(String ubication) {
+        String query = TextNormalizer.normalize(ubication);
+        boolean[] matches = new boolean[normalizedUbications.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = normalizedUbications.get(code).contains(query);
+        }
+        return matches;
+    }
+
+    private static int capacityBucket(int capacity) {
+        int bucket = 0;
+        while (bucket < CAPACITY_LIMITS.length && capacity > CAPACITY_LIMITS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static Map<String, Long> monthFacet(Map<Integer, Long> monthCounts) {
+        Map<String, Long> facet = new LinkedHashMap<>();
+        monthCounts.forEach((month, count) -> facet.put(YearMonth.of(month / 12, month % 12 + 1).toString(), count));
+        return facet;
+    }
+
+    private static Map<String, Long> capacityFacet(long[] capacityCounts) {
+        Map<String, Long> facet = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < capacityCounts.length; bucket++) {
+            if (capacityCounts[bucket] > 0) {
+                facet.put(CAPACITY_BUCKETS[bucket], capacityCounts[bucket]);
+            }
+        }
+        return facet;
+    }
+
+    private Map<String, Long> ubicationFacet(long[] ubicationCounts) {
+        Integer[] codes = new Integer[ubicationCounts.length];
+        for (int code = 0; code < codes.length; code++) {
+            codes[code] = code;
+        }
+        Arrays.sort(codes, Comparator.<Integer>comparingLong(code -> ubicationCounts[code]).reversed()
+                .thenComparing(ubicationNames::get));
+        Map<String, Long> facet = new LinkedHashMap<>();
+        for (int code : codes) {
+            if (ubicationCounts[code] > 0) {
+                facet.put(ubicationNames.get(code), ubicationCounts[code]);
+            }
+        }
+        return facet;
+    }
+
+    private void insert(Event event) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot();
+        slots.put(event.getId(), slot);
+        ids[slot] = event.getId();
+        events[slot] = event;
+        categoryIds[slot] = event.getCategory() != null ? event.getCategory().getId() : 0;
+        LocalDate date = event.getEventDate();
+        epochDays[slot] = date != null ? (int) date.toEpochDay() : NO_DATE;
+        months[slot] = date != null ? date.getYear() * 12 + date.getMonthValue() - 1 : NO_DATE;
+        capacities[slot] = event.getCapacity();
+        ubications[slot] = ubicationCode(event.getUbication());
+    }
+
+    private void delete(long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        ids[slot] = 0;
+        events[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int nextSlot() {
+        if (used == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            events = Arrays.copyOf(events, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            months = Arrays.copyOf(months, capacity);
+            capacities = Arrays.copyOf(capacities, capacity);
+            ubications = Arrays.copyOf(ubications, capacity);
+        }
+        return used++;
+    }
+
+    private int ubicationCode(String ubication) {
+        String name = ubication != null ? ubication : "";
+        return ubicationCodes.computeIfAbsent(name, key -> {
+            ubicationNames.add(key);
+            normalizedUbications.add(TextNormalizer.normalize(key));
+            return ubicationNames.size() - 1;
+        });
+    }
+}
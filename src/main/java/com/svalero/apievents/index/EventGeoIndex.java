@@ -0,0 +1,217 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Rejilla de celdas de 0.1º x 0.1º sobre latitud/longitud de los eventos.
+ * Una búsqueda por radio solo recorre las celdas que cubren la caja del círculo,
+ * así que el coste depende de los eventos cercanos y no del total.
+ * Los eventos en (0, 0) se consideran sin coordenadas (es el valor por defecto de la columna).
+ */
+@Component
+public class EventGeoIndex implements EntityIndex<Event> {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double CELL_DEGREES = 0.1;
+    private static final int LAT_CELLS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, GeoEntry> entries = new HashMap<>();
+    private final Map<Long, List<GeoEntry>> cells = new HashMap<>();
+
+    // Evento encontrado con su distancia al punto de búsqueda
+    public record GeoHit(Event event, double distanceKm) {
+    }
+
+    private record GeoEntry(Event event, double latitude, double longitude, long cell) {
+    }
+
+    @Override
+    public void rebuild(Collection<Event> events) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            cells.clear();
+            events.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Event event) {
+        lock.writeLock().lock();
+        try {
+            delete(event.getId());
+            insert(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Eventos a menos de radiusKm del punto, ordenados por distancia y limitados a limit
+    public List<GeoHit> findNear(double latitude, double longitude, double radiusKm, int limit) {
+        PriorityQueue<GeoHit> nearest = new PriorityQueue<>(Comparator.comparingDouble(GeoHit::distanceKm).reversed());
+
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        int minLatCell = latCell(Math.max(-90, latitude - latDelta));
+        int maxLatCell = latCell(Math.min(90, latitude + latDelta));
+        // Cerca de los polos la caja cubre todas las longitudes
+        double cosLat = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + latDelta)));
+        double lonDelta = cosLat < 1e-6 ? 360 : radiusKm / (KM_PER_DEGREE * cosLat);
+        int minLonCell = (int) Math.floor((longitude - lonDelta + 180) / CELL_DEGREES);
+        int maxLonCell = (int) Math.floor((longitude + lonDelta + 180) / CELL_DEGREES);
+        boolean allLongitudes = maxLonCell - minLonCell + 1 >= LON_CELLS;
+        if (allLongitudes) {
+            minLonCell = 0;
+            maxLonCell = LON_CELLS - 1;
+        }
+
+        lock.readLock().lock();
+        try {
+            long boxCells = (long) (maxLatCell - minLatCell + 1) * (maxLonCell - minLonCell + 1);
+            if (boxCells > cells.size()) {
+                // Radio muy grande: sale más barato recorrer solo las celdas ocupadas
+                for (List<GeoEntry> cell : cells.values()) {
+                    collect(cell, latitude, longitude, radiusKm, limit, nearest);
+                }
+            } else {
+                for (int latIndex = minLatCell; latIndex <= maxLatCell; latIndex++) {
+                    for (int lonIndex = minLonCell; lonIndex <= maxLonCell; lonIndex++) {
+                        List<GeoEntry> cell = cells.get(cellKey(latIndex, Math.floorMod(lonIndex, LON_CELLS)));
+                        if (cell != null) {
+                            collect(cell, latitude, longitude, radiusKm, limit, nearest);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<GeoHit> hits = new ArrayList<>(nearest);
+        hits.sort(Comparator.comparingDouble(GeoHit::distanceKm));
+        return hits;
+    }
+
+    // Ordena por distancia unos candidatos ya filtrados (por ejemplo, leídos de la base de datos)
+    public static List<GeoHit> rank(Collection<Event> candidates, double latitude, double longitude,
+                                    double radiusKm, int limit) {
+        return candidates.stream()
+                .filter(EventGeoIndex::hasCoordinates)
+                .map(event -> new GeoHit(event, distanceKm(latitude, longitude, event.getLatitude(), event.getLongitude())))
+                .filter(hit -> hit.distanceKm() <= radiusKm)
+                .sorted(Comparator.comparingDouble(GeoHit::distanceKm))
+                .limit(limit)
+                .toList();
+    }
+
+    // Caja {minLat, maxLat, minLon, maxLon} que contiene el círculo; si cruza el antimeridiano cubre todas las longitudes
+    public static double[] boundingBox(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + latDelta)));
+        double lonDelta = cosLat < 1e-6 ? 360 : radiusKm / (KM_PER_DEGREE * cosLat);
+        double minLon = longitude - lonDelta;
+        double maxLon = longitude + lonDelta;
+        if (minLon < -180 || maxLon > 180) {
+            minLon = -180;
+            maxLon = 180;
+        }
+        return new double[]{Math.max(-90, latitude - latDelta), Math.min(90, latitude + latDelta), minLon, maxLon};
+    }
+
+    // Distancia de círculo máximo (haversine) en kilómetros
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public static boolean hasCoordinates(Event event) {
+        return event.getLatitude() != 0 || event.getLongitude() != 0;
+    }
+
+    private void collect(List<GeoEntry> cell, double latitude, double longitude, double radiusKm, int limit,
+                         PriorityQueue<GeoHit> nearest) {
+        for (GeoEntry entry : cell) {
+            double distance = distanceKm(latitude, longitude, entry.latitude(), entry.longitude());
+            if (distance > radiusKm) {
+                continue;
+            }
+            if (nearest.size() < limit) {
+                nearest.add(new GeoHit(entry.event(), distance));
+            } else if (distance < nearest.peek().distanceKm()) {
+                nearest.poll();
+                nearest.add(new GeoHit(entry.event(), distance));
+            }
+        }
+    }
+
+    private void insert(Event event) {
+        if (!hasCoordinates(event)) {
+            return;
+        }
+        long cell = cellKey(latCell(event.getLatitude()), lonCell(event.getLongitude()));
+        GeoEntry entry = new GeoEntry(event, event.getLatitude(), event.getLongitude(), cell);
+        entries.put(event.getId(), entry);
+        cells.computeIfAbsent(cell, key -> new ArrayList<>()).add(entry);
+    }
+
+    private void delete(long id) {
+        GeoEntry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        List<GeoEntry> cell = cells.get(entry.cell());
+        // Búsqueda por identidad: equals de Event compararía también su categoría.
+        // Se borra intercambiando con el último para no desplazar la lista.
+        int position = 0;
+        while (cell.get(position) != entry) {
+            position++;
+        }
+        int last = cell.size() - 1;
+        cell.set(position, cell.get(last));
+        cell.remove(last);
+        if (cell.isEmpty()) {
+            cells.remove(entry.cell());
+        }
+    }
+
+    private static int latCell(double latitude) {
+        return Math.min(LAT_CELLS - 1, Math.max(0, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private static long cellKey(int latIndex, int lonIndex) {
+        return (long) latIndex * LON_CELLS + lonIndex;
+    }
+}
@@ -0,0 +1,26 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Índices en memoria de eventos, mantenidos desde EventService
+@Component
+public class EventIndexes extends EntityIndexes<Event> {
+
+    private final EventRepository eventRepository;
+
+    @Autowired
+    public EventIndexes(EventRepository eventRepository, List<EntityIndex<Event>> indexes) {
+        super(indexes);
+        this.eventRepository = eventRepository;
+    }
+
+    @Override
+    protected List<Event> loadAll() {
+        return eventRepository.findAll();
+    }
+}
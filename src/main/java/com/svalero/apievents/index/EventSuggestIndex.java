@@ -0,0 +1,117 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.SuggestionDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocompletado de nombres de evento sobre un PrefixTrie. Primero van los eventos próximos
+ * (el más cercano antes), luego los que no tienen fecha y al final los pasados (el más
+ * reciente antes). Lo que es "próximo" cambia con el día, así que la primera consulta de
+ * cada día vuelve a ordenar el índice.
+ */
+@Component
+public class EventSuggestIndex implements EntityIndex<Event> {
+
+    private static final long NO_DATE = 1L << 40;
+    private static final long PAST = 1L << 41;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Event> events = new HashMap<>();
+    private final PrefixTrie names = new PrefixTrie();
+    private volatile LocalDate rankedOn = LocalDate.now();
+
+    @Override
+    public void rebuild(Collection<Event> entities) {
+        lock.writeLock().lock();
+        try {
+            events.clear();
+            names.clear();
+            rankedOn = LocalDate.now();
+            entities.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Event event) {
+        lock.writeLock().lock();
+        try {
+            insert(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            events.remove(id);
+            names.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Eventos con alguna palabra del nombre que empieza por el prefijo, hasta limit
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        rerankIfStale();
+        lock.readLock().lock();
+        try {
+            return names.top(prefix, limit).stream()
+                    .map(entry -> new SuggestionDto(entry.id(), entry.name()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sugerencias sobre unos eventos cualquiera (por ejemplo, leídos de la base de datos en el arranque en frío)
+    public static List<SuggestionDto> suggest(Collection<Event> events, String prefix, int limit) {
+        EventSuggestIndex snapshot = new EventSuggestIndex();
+        snapshot.rebuild(events);
+        return snapshot.suggest(prefix, limit);
+    }
+
+    private void rerankIfStale() {
+        if (LocalDate.now().equals(rankedOn)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            LocalDate today = LocalDate.now();
+            if (!today.equals(rankedOn)) {
+                rankedOn = today;
+                names.clear();
+                events.values().forEach(event -> names.put(event.getId(), event.getEventName(), score(event)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(Event event) {
+        events.put(event.getId(), event);
+        names.put(event.getId(), event.getEventName(), score(event));
+    }
+
+    // Días hasta el evento si es hoy o después; los eventos sin fecha y los pasados van detrás
+    private long score(Event event) {
+        LocalDate date = event.getEventDate();
+        if (date == null) {
+            return NO_DATE;
+        }
+        long days = date.toEpochDay() - rankedOn.toEpochDay();
+        return days >= 0 ? days : PAST - days;
+    }
+}
@@ -0,0 +1,212 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.EventCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de texto sobre nombre, descripción y ubicación de los eventos.
+ * Sirve las búsquedas por subcadena de /events/name y /events/ubication y la
+ * búsqueda por relevancia de /events/search, que además puntúa los eventos
+ * cuya categoría coincide con el término.
+ */
+@Component
+public class EventTextIndex implements EntityIndex<Event> {
+
+    // Peso de cada campo en la puntuación de relevancia
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double UBICATION_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double CATEGORY_WEIGHT = 1.0;
+
+    private final CategoryTextIndex categoryTextIndex;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Event> events = new HashMap<>();
+    private final Map<Long, Set<Long>> eventsByCategory = new HashMap<>();
+    // Categoría con la que se indexó cada evento, por si la instancia cambia después
+    private final Map<Long, Long> indexedCategories = new HashMap<>();
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex descriptions = new TrigramIndex();
+    private final TrigramIndex ubications = new TrigramIndex();
+
+    @Autowired
+    public EventTextIndex(CategoryTextIndex categoryTextIndex) {
+        this.categoryTextIndex = categoryTextIndex;
+    }
+
+    @Override
+    public void rebuild(Collection<Event> entities) {
+        lock.writeLock().lock();
+        try {
+            events.clear();
+            eventsByCategory.clear();
+            indexedCategories.clear();
+            names.clear();
+            descriptions.clear();
+            ubications.clear();
+            entities.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Event event) {
+        lock.writeLock().lock();
+        try {
+            delete(event.getId());
+            insert(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Eventos cuyo nombre contiene el término, en el orden (eventDate, id) de la paginación
+    public List<Event> findByEventNameContaining(String eventName) {
+        return find(names, eventName);
+    }
+
+    // Eventos cuya ubicación contiene el término, en el orden (eventDate, id) de la paginación
+    public List<Event> findByUbicationContaining(String ubication) {
+        return find(ubications, ubication);
+    }
+
+    // Página de eventos cuyo nombre contiene el término, los limit primeros tras el cursor en el orden (eventDate, id)
+    public List<Event> findPageByEventNameContaining(String eventName, EventCursor after, int limit) {
+        return findPage(names, eventName, after, limit);
+    }
+
+    // Página de eventos cuya ubicación contiene el término, los limit primeros tras el cursor en el orden (eventDate, id)
+    public List<Event> findPageByUbicationContaining(String ubication, EventCursor after, int limit) {
+        return findPage(ubications, ubication, after, limit);
+    }
+
+    // Eventos ordenados por relevancia: cada término suma el peso del campo por su rareza (idf)
+    public List<Event> search(String query, int limit) {
+        List<String> terms = TextNormalizer.tokenize(query);
+        List<Set<Long>> categoryMatches = terms.stream().map(categoryTextIndex::matching).toList();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                score(scores, names.containing(term), NAME_WEIGHT);
+                score(scores, ubications.containing(term), UBICATION_WEIGHT);
+                score(scores, descriptions.containing(term), DESCRIPTION_WEIGHT);
+
+                Set<Long> byCategory = new HashSet<>();
+                for (Long categoryId : categoryMatches.get(i)) {
+                    byCategory.addAll(eventsByCategory.getOrDefault(categoryId, Set.of()));
+                }
+                score(scores, byCategory, CATEGORY_WEIGHT);
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(entry -> events.get(entry.getKey()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(Map<Long, Double> scores, Set<Long> ids, double weight) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        double idf = Math.log(1 + (double) events.size() / ids.size());
+        for (Long id : ids) {
+            scores.merge(id, weight * idf, Double::sum);
+        }
+    }
+
+    private List<Event> find(TrigramIndex field, String term) {
+        lock.readLock().lock();
+        try {
+            return field.containing(TextNormalizer.normalize(term)).stream()
+                    .map(events::get)
+                    .sorted(EventCursor.ORDER)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Se quedan los limit primeros en un montículo acotado: no se ordenan todos los que contienen el término
+    // en cada página, solo los de la página
+    private List<Event> findPage(TrigramIndex field, String term, EventCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Event> page = new PriorityQueue<>(limit + 1, EventCursor.ORDER.reversed());
+            for (Long id : field.containing(TextNormalizer.normalize(term))) {
+                Event event = events.get(id);
+                if (after.isBefore(event)) {
+                    page.add(event);
+                    if (page.size() > limit) {
+                        page.poll();
+                    }
+                }
+            }
+            List<Event> sorted = new ArrayList<>(page);
+            sorted.sort(EventCursor.ORDER);
+            return sorted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(Event event) {
+        long id = event.getId();
+        events.put(id, event);
+        names.put(id, event.getEventName());
+        descriptions.put(id, event.getDescription());
+        ubications.put(id, event.getUbication());
+        if (event.getCategory() != null) {
+            indexedCategories.put(id, event.getCategory().getId());
+            eventsByCategory.computeIfAbsent(event.getCategory().getId(), key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void delete(long id) {
+        if (events.remove(id) == null) {
+            return;
+        }
+        names.remove(id);
+        descriptions.remove(id);
+        ubications.remove(id);
+        Long categoryId = indexedCategories.remove(id);
+        if (categoryId != null) {
+            Set<Long> ids = eventsByCategory.get(categoryId);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                eventsByCategory.remove(categoryId);
+            }
+        }
+    }
+}
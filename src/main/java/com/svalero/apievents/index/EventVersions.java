@@ -0,0 +1,20 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Versiones de los eventos para las respuestas condicionales de /events; un evento se sirve con su categoría
+@Component
+public class EventVersions extends EntityVersions<Event> {
+
+    @Autowired
+    public EventVersions(CategoryVersions categoryVersions) {
+        super(categoryVersions);
+    }
+
+    @Override
+    protected long idOf(Event event) {
+        return event.getId();
+    }
+}
@@ -0,0 +1,219 @@
+package com.svalero.apievents.index;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de búsqueda aproximada sobre un campo de texto. Un texto casa con el término si cada
+ * palabra del término está dentro de alguna de sus palabras (un nombre a medias) o se parece a
+ * ella: a distancia de edición de Damerau-Levenshtein de como mucho MAX_DISTANCE, menos en
+ * palabras cortas. Las búsquedas miran el diccionario de palabras distintas, mucho más pequeño
+ * que el número de textos: las que contienen el trozo salen de un índice de trigramas sobre el
+ * diccionario, y las parecidas del método SymSpell, que guarda las variantes del prefijo de cada
+ * palabra con hasta MAX_DISTANCE letras borradas; buscar es borrar letras del término y leer
+ * esas variantes, sin recorrer el diccionario.
+ * No es thread-safe: lo protege el índice que lo contiene.
+ */
+public class FuzzyIndex {
+
+    public static final int MAX_DISTANCE = 2;
+    // Solo se borran letras del principio de la palabra: la memoria por palabra queda acotada
+    private static final int PREFIX_LENGTH = 7;
+    // Ningún término de búsqueda llega a variantes más cortas, así que no se guardan
+    private static final int MIN_VARIANT_LENGTH = 2;
+
+    // Palabra del diccionario: su número en el índice de trigramas y los textos en los que aparece
+    private static final class Word {
+        private final long id;
+        private final String text;
+        private final Set<Long> ids = new HashSet<>();
+
+        private Word(long id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    private final Map<Long, String> texts = new HashMap<>();
+    private final Map<String, Word> words = new HashMap<>();
+    private final Map<Long, Word> wordsById = new HashMap<>();
+    private final TrigramIndex wordTrigrams = new TrigramIndex();
+    // Palabras del diccionario que dan cada variante con letras borradas
+    private final Map<String, Set<String>> variants = new HashMap<>();
+    private long nextWordId;
+
+    public void put(long id, String text) {
+        remove(id);
+        String normalized = TextNormalizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        texts.put(id, normalized);
+        for (String word : TextNormalizer.tokenize(normalized)) {
+            words.computeIfAbsent(word, this::addWord).ids.add(id);
+        }
+    }
+
+    public void remove(long id) {
+        String normalized = texts.remove(id);
+        if (normalized == null) {
+            return;
+        }
+        for (String text : TextNormalizer.tokenize(normalized)) {
+            Word word = words.get(text);
+            word.ids.remove(id);
+            if (word.ids.isEmpty()) {
+                removeWord(word);
+            }
+        }
+    }
+
+    public void clear() {
+        texts.clear();
+        words.clear();
+        wordsById.clear();
+        wordTrigrams.clear();
+        variants.clear();
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    // Distancia al término de cada texto que casa: la suma de lo que se aleja cada palabra, 0 si todas están dentro
+    public Map<Long, Integer> matching(String term) {
+        List<String> termWords = TextNormalizer.tokenize(term);
+        if (termWords.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<Long, Integer> distances = closest(termWords.get(0));
+        for (String word : termWords.subList(1, termWords.size())) {
+            if (distances.isEmpty()) {
+                break;
+            }
+            Map<Long, Integer> byWord = closest(word);
+            distances.keySet().retainAll(byWord.keySet());
+            distances.replaceAll((id, distance) -> distance + byWord.get(id));
+        }
+        return distances;
+    }
+
+    private Word addWord(String text) {
+        Word word = new Word(nextWordId++, text);
+        wordsById.put(word.id, word);
+        wordTrigrams.put(word.id, text);
+        for (String variant : variants(text, MAX_DISTANCE)) {
+            variants.computeIfAbsent(variant, key -> new HashSet<>()).add(text);
+        }
+        return word;
+    }
+
+    private void removeWord(Word word) {
+        words.remove(word.text);
+        wordsById.remove(word.id);
+        wordTrigrams.remove(word.id);
+        for (String variant : variants(word.text, MAX_DISTANCE)) {
+            Set<String> sameVariant = variants.get(variant);
+            sameVariant.remove(word.text);
+            if (sameVariant.isEmpty()) {
+                variants.remove(variant);
+            }
+        }
+    }
+
+    // Textos con alguna palabra que contiene la dada o se parece a ella, y la distancia de la más parecida
+    private Map<Long, Integer> closest(String word) {
+        Map<Long, Integer> distances = new HashMap<>();
+        for (Long wordId : wordTrigrams.containing(word)) {
+            wordsById.get(wordId).ids.forEach(id -> distances.put(id, 0));
+        }
+
+        int maxDistance = maxDistance(word);
+        Set<String> checked = new HashSet<>();
+        for (String variant : variants(word, maxDistance)) {
+            for (String candidate : variants.getOrDefault(variant, Set.of())) {
+                if (!checked.add(candidate)) {
+                    continue;
+                }
+                int distance = distance(word, candidate, maxDistance);
+                if (distance <= maxDistance) {
+                    for (Long id : words.get(candidate).ids) {
+                        distances.merge(id, distance, Math::min);
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+
+    // En palabras cortas una errata cambia casi toda la palabra: hasta 2 letras exactas, hasta 4 una errata
+    private static int maxDistance(String word) {
+        if (word.length() <= 2) {
+            return 0;
+        }
+        return word.length() <= 4 ? 1 : MAX_DISTANCE;
+    }
+
+    // El prefijo de la palabra y lo que queda de él al borrarle de 1 a maxDistance letras
+    private static Set<String> variants(String word, int maxDistance) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> variants = new HashSet<>();
+        variants.add(prefix);
+        Set<String> previous = Set.of(prefix);
+        for (int deleted = 1; deleted <= maxDistance; deleted++) {
+            Set<String> next = new HashSet<>();
+            for (String variant : previous) {
+                if (variant.length() <= MIN_VARIANT_LENGTH) {
+                    continue;
+                }
+                for (int i = 0; i < variant.length(); i++) {
+                    String shorter = variant.substring(0, i) + variant.substring(i + 1);
+                    if (variants.add(shorter)) {
+                        next.add(shorter);
+                    }
+                }
+            }
+            previous = next;
+        }
+        return variants;
+    }
+
+    // Distancia de Damerau-Levenshtein con trasposición de letras contiguas, o max + 1 si pasa de max
+    private static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            // Ninguna fila siguiente puede bajar del mínimo de esta
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Importe pagado de cada evento, la suma de los pagos de sus reservas. PaymentService suma o
+ * resta cada pago que guarda, cambia o borra, y ReservationService mueve los pagos de una reserva
+ * que cambia de evento. Se siembra al arrancar con una suma agrupada de los pagos; un evento que
+ * aún no está en memoria se lee de la base de datos la primera vez que se consulta, y hasta
+ * entonces sus pagos no se apuntan porque ya los trae esa lectura.
+ */
+@Component
+public class PaidAmounts implements EntityIndex<Event> {
+
+    private final PaymentRepository paymentRepository;
+    private final ConcurrentMap<Long, DoubleAdder> paid = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PaidAmounts(PaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    @Override
+    public void rebuild(Collection<Event> events) {
+        Map<Long, Double> amounts = new HashMap<>();
+        paymentRepository.sumAmountGroupByEvent().forEach(row -> amounts.put(row.getEventId(), row.getPaid()));
+        Set<Long> ids = new HashSet<>();
+        for (Event event : events) {
+            ids.add(event.getId());
+            paid.computeIfAbsent(event.getId(), id -> adder(amounts.getOrDefault(id, 0.0)));
+        }
+        paid.keySet().retainAll(ids);
+    }
+
+    @Override
+    public void put(Event event) {
+        // Los pagos no dependen de los datos del evento
+    }
+
+    @Override
+    public void remove(long id) {
+        paid.remove(id);
+    }
+
+    // Suma amount al importe pagado del evento; negativo si un pago se borra o deja de contar en él
+    public void add(long eventId, double amount) {
+        DoubleAdder current = paid.get(eventId);
+        if (current != null && amount != 0) {
+            current.add(amount);
+        }
+    }
+
+    // Pasa el importe pagado de una reserva de un evento a otro
+    public void moveReservation(long reservationId, long fromEventId, long toEventId) {
+        if (fromEventId == toEventId) {
+            return;
+        }
+        double amount = paymentRepository.sumAmountByReservationId(reservationId);
+        add(fromEventId, -amount);
+        add(toEventId, amount);
+    }
+
+    // Importe pagado del evento
+    public double paid(long eventId) {
+        DoubleAdder current = paid.get(eventId);
+        if (current == null) {
+            DoubleAdder loaded = adder(paymentRepository.sumAmountByEventId(eventId));
+            DoubleAdder raced = paid.putIfAbsent(eventId, loaded);
+            current = raced != null ? raced : loaded;
+        }
+        return current.sum();
+    }
+
+    private static DoubleAdder adder(double amount) {
+        DoubleAdder adder = new DoubleAdder();
+        adder.add(amount);
+        return adder;
+    }
+}
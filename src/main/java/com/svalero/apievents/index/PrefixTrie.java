@@ -0,0 +1,338 @@
+package com.svalero.apievents.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trie comprimido (radix) para autocompletar nombres. Cada nombre se indexa por el comienzo
+ * de cada una de sus palabras normalizadas, así "fest" encuentra "Gran Festival".
+ * Los nodos con más de TOP_K entradas en su subárbol guardan sus TOP_K mejores entradas
+ * (menor score primero); una consulta baja por el prefijo y devuelve esa lista sin recorrer
+ * el subárbol. Los nodos pequeños, que son la mayoría, no guardan lista y se recorren enteros.
+ * No es thread-safe: lo protege el índice que lo contiene.
+ */
+public class PrefixTrie {
+
+    public static final int TOP_K = 20;
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    // Menor score primero; a igual score, orden alfabético
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::score)
+            .thenComparing(Entry::name)
+            .thenComparingLong(Entry::id);
+
+    public record Entry(long id, String name, long score) {
+    }
+
+    private static final class Node {
+        private String label;
+        private char[] firsts = NO_CHARS;
+        private Node[] children = NO_NODES;
+        private Entry[] entries = NO_ENTRIES;
+        private int count;
+        private Entry[] top;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private final Node root = new Node("");
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    public void put(long id, String name, long score) {
+        remove(id);
+        Entry entry = new Entry(id, name, score);
+        entries.put(id, entry);
+        for (String key : keys(name)) {
+            insert(key, entry);
+        }
+    }
+
+    public void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : keys(entry.name())) {
+            delete(key, entry);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        root.firsts = NO_CHARS;
+        root.children = NO_NODES;
+        root.entries = NO_ENTRIES;
+        root.count = 0;
+        root.top = null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Mejores entradas (hasta limit, como mucho TOP_K) con alguna palabra que empieza por el prefijo
+    public List<Entry> top(String prefix, int limit) {
+        String key = TextNormalizer.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = child(node, key.charAt(depth));
+            if (child == null) {
+                return List.of();
+            }
+            int matched = common(child.label, key, depth);
+            if (depth + matched < key.length() && matched < child.label.length()) {
+                return List.of();
+            }
+            depth += matched;
+            node = child;
+        }
+        Entry[] best = node.top != null ? node.top : collect(node);
+        return Arrays.asList(best).subList(0, Math.max(0, Math.min(Math.min(limit, TOP_K), best.length)));
+    }
+
+    // Comienzo de cada palabra del nombre normalizado hasta el final del nombre
+    private static Set<String> keys(String name) {
+        String normalized = TextNormalizer.normalize(name);
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private void insert(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = child(node, key.charAt(depth));
+            if (child == null) {
+                child = new Node(key.substring(depth));
+                addChild(node, child);
+                path.add(child);
+                node = child;
+                break;
+            }
+            int matched = common(child.label, key, depth);
+            if (matched < child.label.length()) {
+                child = split(node, child, matched);
+            }
+            depth += matched;
+            path.add(child);
+            node = child;
+        }
+        node.entries = append(node.entries, entry);
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            current.count++;
+            if (current.top != null) {
+                current.top = offer(current.top, entry);
+            } else if (current.count > TOP_K) {
+                current.top = collect(current);
+            }
+        }
+    }
+
+    private void delete(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            node = child(node, key.charAt(depth));
+            depth += node.label.length();
+            path.add(node);
+        }
+        node.entries = without(node.entries, entry);
+
+        // De abajo arriba: la lista de un nodo se recalcula con las de sus hijos ya actualizadas
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            current.count--;
+            if (current.count <= TOP_K) {
+                current.top = null;
+            } else if (contains(current.top, entry)) {
+                current.top = recompute(current);
+            }
+            if (i > 0) {
+                prune(path.get(i - 1), current);
+            }
+        }
+    }
+
+    // Quita un nodo vacío o lo fusiona con su único hijo para que el trie siga comprimido
+    private static void prune(Node parent, Node node) {
+        if (node.entries.length > 0) {
+            return;
+        }
+        if (node.children.length == 0) {
+            removeChild(parent, node);
+        } else if (node.children.length == 1) {
+            Node child = node.children[0];
+            node.label = node.label + child.label;
+            node.firsts = child.firsts;
+            node.children = child.children;
+            node.entries = child.entries;
+            node.count = child.count;
+            node.top = child.top;
+        }
+    }
+
+    // Parte la etiqueta de child tras matched caracteres con un nodo intermedio que hereda su subárbol
+    private static Node split(Node parent, Node child, int matched) {
+        Node middle = new Node(child.label.substring(0, matched));
+        middle.count = child.count;
+        middle.top = child.top != null ? child.top.clone() : null;
+        child.label = child.label.substring(matched);
+        middle.firsts = new char[]{child.label.charAt(0)};
+        middle.children = new Node[]{child};
+        int index = Arrays.binarySearch(parent.firsts, middle.label.charAt(0));
+        parent.children[index] = middle;
+        return middle;
+    }
+
+    // Mejores TOP_K a partir de las entradas del nodo y las listas (o el recorrido) de sus hijos
+    private static Entry[] recompute(Node node) {
+        List<Entry> candidates = new ArrayList<>(Arrays.asList(node.entries));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top != null ? child.top : collect(child)));
+        }
+        return best(candidates);
+    }
+
+    // Recorrido completo de un subárbol, solo para subárboles con pocas entradas
+    private static Entry[] collect(Node node) {
+        List<Entry> candidates = new ArrayList<>(node.count);
+        List<Node> pending = new ArrayList<>();
+        pending.add(node);
+        while (!pending.isEmpty()) {
+            Node current = pending.remove(pending.size() - 1);
+            candidates.addAll(Arrays.asList(current.entries));
+            pending.addAll(Arrays.asList(current.children));
+        }
+        return best(candidates);
+    }
+
+    // Las TOP_K mejores entradas sin repetir id (un nombre aparece una vez por palabra)
+    private static Entry[] best(List<Entry> candidates) {
+        candidates.sort(ORDER);
+        List<Entry> best = new ArrayList<>(Math.min(candidates.size(), TOP_K));
+        Set<Long> ids = new HashSet<>();
+        for (Entry candidate : candidates) {
+            if (best.size() == TOP_K) {
+                break;
+            }
+            if (ids.add(candidate.id())) {
+                best.add(candidate);
+            }
+        }
+        return best.toArray(NO_ENTRIES);
+    }
+
+    private static Entry[] offer(Entry[] top, Entry entry) {
+        if (contains(top, entry)) {
+            return top;
+        }
+        int index = Arrays.binarySearch(top, entry, ORDER);
+        int position = index >= 0 ? index : -index - 1;
+        if (position >= TOP_K) {
+            return top;
+        }
+        Entry[] result = new Entry[Math.min(top.length + 1, TOP_K)];
+        System.arraycopy(top, 0, result, 0, position);
+        result[position] = entry;
+        System.arraycopy(top, position, result, position + 1, result.length - position - 1);
+        return result;
+    }
+
+    private static boolean contains(Entry[] top, Entry entry) {
+        if (top == null) {
+            return false;
+        }
+        for (Entry candidate : top) {
+            if (candidate.id() == entry.id()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Node child(Node node, char first) {
+        int index = Arrays.binarySearch(node.firsts, first);
+        return index >= 0 ? node.children[index] : null;
+    }
+
+    private static void addChild(Node node, Node child) {
+        int position = -Arrays.binarySearch(node.firsts, child.label.charAt(0)) - 1;
+        char[] firsts = new char[node.firsts.length + 1];
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.firsts, 0, firsts, 0, position);
+        System.arraycopy(node.children, 0, children, 0, position);
+        firsts[position] = child.label.charAt(0);
+        children[position] = child;
+        System.arraycopy(node.firsts, position, firsts, position + 1, node.firsts.length - position);
+        System.arraycopy(node.children, position, children, position + 1, node.children.length - position);
+        node.firsts = firsts;
+        node.children = children;
+    }
+
+    private static void removeChild(Node node, Node child) {
+        int position = Arrays.binarySearch(node.firsts, child.label.charAt(0));
+        char[] firsts = new char[node.firsts.length - 1];
+        Node[] children = new Node[node.children.length - 1];
+        System.arraycopy(node.firsts, 0, firsts, 0, position);
+        System.arraycopy(node.children, 0, children, 0, position);
+        System.arraycopy(node.firsts, position + 1, firsts, position, firsts.length - position);
+        System.arraycopy(node.children, position + 1, children, position, children.length - position);
+        node.firsts = firsts;
+        node.children = children;
+    }
+
+    private static int common(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] result = Arrays.copyOf(entries, entries.length + 1);
+        result[entries.length] = entry;
+        return result;
+    }
+
+    private static Entry[] without(Entry[] entries, Entry entry) {
+        if (entries.length == 1) {
+            return NO_ENTRIES;
+        }
+        Entry[] result = new Entry[entries.length - 1];
+        int i = 0;
+        for (Entry candidate : entries) {
+            if (candidate != entry) {
+                result[i++] = candidate;
+            }
+        }
+        return result;
+    }
+}
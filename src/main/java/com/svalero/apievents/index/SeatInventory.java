@@ -0,0 +1,131 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.exception.EventNotFoundException;
+import com.svalero.apievents.repository.EventRepository;
+import com.svalero.apievents.repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inventario de plazas: capacidad y entradas reservadas de cada evento.
+ * Cada reserva se admite o se rechaza con un bucle CAS sobre el contador de su evento,
+ * sin bloqueos, así que reservas concurrentes nunca superan la capacidad entre todas.
+ * Se siembra con la capacidad de los eventos y una suma agrupada de las reservas; un
+ * evento que aún no está en memoria se lee de la base de datos la primera vez que se usa.
+ */
+@Component
+public class SeatInventory implements EntityIndex<Event> {
+
+    private final EventRepository eventRepository;
+    private final ReservationRepository reservationRepository;
+    private final ConcurrentMap<Long, Seats> seats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SeatInventory(EventRepository eventRepository, ReservationRepository reservationRepository) {
+        this.eventRepository = eventRepository;
+        this.reservationRepository = reservationRepository;
+    }
+
+    @Override
+    public void rebuild(Collection<Event> events) {
+        Map<Long, Long> reserved = new HashMap<>();
+        reservationRepository.sumQuantityGroupByEvent()
+                .forEach(row -> reserved.put(row.getEventId(), row.getReservedSeats()));
+        Set<Long> ids = new HashSet<>();
+        for (Event event : events) {
+            ids.add(event.getId());
+            // Un evento sembrado antes de la carga ya cuenta las reservas admitidas desde entonces
+            seats.computeIfAbsent(event.getId(), id -> new Seats(event.getCapacity(), reserved.getOrDefault(id, 0L)))
+                    .capacity = event.getCapacity();
+        }
+        seats.keySet().retainAll(ids);
+    }
+
+    @Override
+    public void put(Event event) {
+        // Solo cambia la capacidad; un evento nuevo no tiene reservas y se siembra al reservar
+        Seats current = seats.get(event.getId());
+        if (current != null) {
+            current.capacity = event.getCapacity();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        seats.remove(id);
+    }
+
+    // Reserva quantity entradas del evento si caben. Devolver entradas es cosa de release, así que una
+    // cantidad menor que 1 no se admite: liberaría plazas que otros podrían reservar por encima del aforo
+    public boolean tryReserve(long eventId, long quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1: " + quantity);
+        }
+        Seats current = seatsOf(eventId);
+        while (true) {
+            long reserved = current.reserved.get();
+            if (reserved + quantity > current.capacity) {
+                return false;
+            }
+            if (current.reserved.compareAndSet(reserved, reserved + quantity)) {
+                return true;
+            }
+        }
+    }
+
+    // Devuelve entradas de una reserva borrada, cambiada o que no se ha llegado a guardar
+    public void release(long eventId, long quantity) {
+        Seats current = seats.get(eventId);
+        if (current != null) {
+            current.reserved.addAndGet(-quantity);
+        }
+    }
+
+    // Plazas del evento
+    public int capacity(long eventId) {
+        return seatsOf(eventId).capacity;
+    }
+
+    // Entradas reservadas del evento
+    public long reserved(long eventId) {
+        return seatsOf(eventId).reserved.get();
+    }
+
+    // Entradas que quedan libres en el evento
+    public long remaining(long eventId) {
+        Seats current = seatsOf(eventId);
+        return Math.max(0, current.capacity - current.reserved.get());
+    }
+
+    private Seats seatsOf(long eventId) {
+        Seats current = seats.get(eventId);
+        if (current != null) {
+            return current;
+        }
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new EventNotFoundException("Event not found with id: " + eventId));
+        Seats loaded = new Seats(event.getCapacity(), reservationRepository.sumQuantityByEventId(eventId));
+        Seats raced = seats.putIfAbsent(eventId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private static final class Seats {
+        private volatile int capacity;
+        private final AtomicLong reserved;
+
+        private Seats(int capacity, long reserved) {
+            this.capacity = capacity;
+            this.reserved = new AtomicLong(reserved);
+        }
+    }
+}
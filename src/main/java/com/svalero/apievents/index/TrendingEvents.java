@@ -0,0 +1,257 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.dto.ReservationOutDto;
+import com.svalero.apievents.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Ranking de eventos con más entradas reservadas en las últimas 24 horas y 7 días.
+ * Las reservas se apuntan en cubos de una hora; cada ventana tiene su ranking (un mapa de
+ * totales y un árbol ordenado por total) y, cuando un cubo sale de la ventana, sus cantidades
+ * se restan. Cada reserva o cubo caducado cuesta O(log n) por evento; no se recorre la tabla.
+ * Se recuerda en qué hora se apuntó cada reserva que aún cuenta: sus cambios y su borrado se
+ * aplican en el cubo de esa hora y solo en las ventanas que todavía lo incluyen, así una reserva
+ * de hace días no resta nada del ranking de 24 horas. Al arrancar se siembra con las reservas de
+ * los últimos 7 días por fecha de reserva, que solo tiene precisión de día.
+ */
+@Component
+public class TrendingEvents {
+
+    public enum Window {
+        DAY(24), WEEK(24 * 7);
+
+        private final int hours;
+
+        Window(int hours) {
+            this.hours = hours;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(TrendingEvents.class);
+
+    private final ReservationRepository reservationRepository;
+    private final Map<Window, Ranking> rankings = new HashMap<>();
+    // Cubos que aún cuentan en cada ventana, del más antiguo al más reciente
+    private final Map<Window, Deque<Hour>> hours = new HashMap<>();
+    // Reservas que cuentan en alguna ventana, por id
+    private final Map<Long, Counted> counted = new HashMap<>();
+
+    public record Score(long eventId, long quantity) {
+    }
+
+    // Entradas reservadas por evento en una hora (horas desde la época)
+    private record Hour(long hour, Map<Long, Long> quantities) {
+    }
+
+    // Hora en que se apuntó una reserva, con su evento y sus entradas
+    private record Counted(long hour, long eventId, long quantity) {
+    }
+
+    @Autowired
+    public TrendingEvents(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+        for (Window window : Window.values()) {
+            rankings.put(window, new Ranking());
+            hours.put(window, new ArrayDeque<>());
+        }
+    }
+
+    // Siembra las ventanas con las reservas de los últimos 7 días que ya hay en la base de datos
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        logger.info("BEGIN load - Seeding trending events");
+        rankings.values().forEach(Ranking::clear);
+        hours.values().forEach(Deque::clear);
+        counted.clear();
+        long current = hourOf(Instant.now());
+        LocalDate today = LocalDate.now();
+        List<ReservationOutDto> rows = reservationRepository.findSummariesByReservationDateSince(today.minusDays(6));
+        for (ReservationOutDto row : rows) {
+            // Las de hoy (o con fecha futura) cuentan en la hora actual; las de otros días al principio de su día
+            long hour = !row.getReservationDate().isBefore(today) ? current
+                    : hourOf(row.getReservationDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
+            add(row.getId(), row.getEventId(), row.getQuantity(), hour, current);
+        }
+        logger.info("END load - Reservations seeded: {}", rows.size());
+    }
+
+    // Apunta una reserva nueva en este momento
+    public void record(long reservationId, long eventId, long quantity) {
+        record(reservationId, eventId, quantity, Instant.now());
+    }
+
+    public synchronized void record(long reservationId, long eventId, long quantity, Instant at) {
+        long current = hourOf(at);
+        expire(current);
+        subtract(reservationId, current);
+        add(reservationId, eventId, quantity, current, current);
+    }
+
+    // Cambia el evento o las entradas de una reserva en la hora en que se apuntó. Una reserva que ya no
+    // cuenta en ninguna ventana sigue sin contar
+    public void change(long reservationId, long eventId, long quantity) {
+        change(reservationId, eventId, quantity, Instant.now());
+    }
+
+    public synchronized void change(long reservationId, long eventId, long quantity, Instant now) {
+        long current = hourOf(now);
+        expire(current);
+        Counted previous = subtract(reservationId, current);
+        if (previous != null) {
+            add(reservationId, eventId, quantity, previous.hour(), current);
+        }
+    }
+
+    // Quita una reserva borrada de las ventanas en las que todavía cuenta
+    public void remove(long reservationId) {
+        remove(reservationId, Instant.now());
+    }
+
+    public synchronized void remove(long reservationId, Instant now) {
+        long current = hourOf(now);
+        expire(current);
+        subtract(reservationId, current);
+    }
+
+    // Los limit eventos con más entradas reservadas en la ventana, de más a menos
+    public List<Score> top(Window window, int limit) {
+        return top(window, limit, Instant.now());
+    }
+
+    public synchronized List<Score> top(Window window, int limit, Instant now) {
+        expire(hourOf(now));
+        return rankings.get(window).top(limit);
+    }
+
+    // Apunta la reserva en el cubo de su hora de cada ventana que aún la incluye; las ventanas ya caducadas con expire
+    private void add(long reservationId, long eventId, long quantity, long hour, long current) {
+        boolean counts = false;
+        for (Window window : Window.values()) {
+            if (hour <= current - window.hours) {
+                continue;
+            }
+            bucket(hours.get(window), hour).quantities().merge(eventId, quantity, Long::sum);
+            rankings.get(window).add(eventId, quantity);
+            counts = true;
+        }
+        if (counts) {
+            counted.put(reservationId, new Counted(hour, eventId, quantity));
+        }
+    }
+
+    // Resta la reserva de las ventanas en las que aún cuenta y devuelve dónde se había apuntado (null si en ninguna)
+    private Counted subtract(long reservationId, long current) {
+        Counted previous = counted.remove(reservationId);
+        if (previous == null) {
+            return null;
+        }
+        for (Window window : Window.values()) {
+            if (previous.hour() <= current - window.hours) {
+                continue;
+            }
+            bucket(hours.get(window), previous.hour()).quantities()
+                    .merge(previous.eventId(), -previous.quantity(), Long::sum);
+            rankings.get(window).add(previous.eventId(), -previous.quantity());
+        }
+        return previous;
+    }
+
+    // Cubo de una hora: una hora posterior al último abre uno nuevo y una que no tiene cubo (el reloj ha
+    // retrocedido) se apunta en el último
+    private static Hour bucket(Deque<Hour> windowHours, long hour) {
+        Hour last = windowHours.peekLast();
+        if (last == null || last.hour() < hour) {
+            last = new Hour(hour, new HashMap<>());
+            windowHours.addLast(last);
+            return last;
+        }
+        for (Iterator<Hour> iterator = windowHours.descendingIterator(); iterator.hasNext(); ) {
+            Hour bucket = iterator.next();
+            if (bucket.hour() == hour) {
+                return bucket;
+            }
+        }
+        return last;
+    }
+
+    // Resta de cada ventana los cubos que ya han salido de ella y olvida las reservas que ya no cuentan en ninguna
+    private void expire(long currentHour) {
+        for (Window window : Window.values()) {
+            Deque<Hour> windowHours = hours.get(window);
+            Ranking ranking = rankings.get(window);
+            boolean expired = false;
+            while (!windowHours.isEmpty() && windowHours.peekFirst().hour() <= currentHour - window.hours) {
+                windowHours.pollFirst().quantities().forEach((eventId, quantity) -> ranking.add(eventId, -quantity));
+                expired = true;
+            }
+            // Como mucho una vez por hora, al caducar algún cubo de la ventana más larga
+            if (expired && window == Window.WEEK) {
+                counted.values().removeIf(reservation -> reservation.hour() <= currentHour - window.hours);
+            }
+        }
+    }
+
+    private static long hourOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 3600);
+    }
+
+    // Totales por evento y el mismo contenido ordenado por total descendente
+    private static final class Ranking {
+        private static final Comparator<Score> ORDER = Comparator.comparingLong(Score::quantity).reversed()
+                .thenComparingLong(Score::eventId);
+
+        private final Map<Long, Long> totals = new HashMap<>();
+        private final NavigableSet<Score> ordered = new TreeSet<>(ORDER);
+
+        private void add(long eventId, long quantity) {
+            Long previous = totals.get(eventId);
+            long total = quantity;
+            if (previous != null) {
+                ordered.remove(new Score(eventId, previous));
+                total += previous;
+            }
+            if (total == 0) {
+                totals.remove(eventId);
+            } else {
+                totals.put(eventId, total);
+                ordered.add(new Score(eventId, total));
+            }
+        }
+
+        private List<Score> top(int limit) {
+            List<Score> top = new ArrayList<>(Math.min(limit, ordered.size()));
+            for (Score score : ordered) {
+                // Un saldo negativo (más devoluciones que reservas en la ventana) no es tendencia
+                if (top.size() == limit || score.quantity() <= 0) {
+                    break;
+                }
+                top.add(score);
+            }
+            return top;
+        }
+
+        private void clear() {
+            totals.clear();
+            ordered.clear();
+        }
+    }
+}
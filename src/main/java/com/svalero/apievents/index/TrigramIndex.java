@@ -0,0 +1,92 @@
+package com.svalero.apievents.index;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice invertido de trigramas sobre un campo de texto normalizado.
+ * Resuelve búsquedas de subcadena (el equivalente a LIKE '%x%') partiendo de la
+ * lista de trigramas más corta del término y verificando solo esos candidatos.
+ * No es thread-safe: lo protege el índice que lo contiene.
+ */
+public class TrigramIndex {
+
+    private final Map<Long, String> texts = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    public void put(long id, String text) {
+        remove(id);
+        String normalized = TextNormalizer.normalize(text);
+        texts.put(id, normalized);
+        for (String trigram : trigrams(normalized)) {
+            postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    public void remove(long id) {
+        String normalized = texts.remove(id);
+        if (normalized == null) {
+            return;
+        }
+        for (String trigram : trigrams(normalized)) {
+            Set<Long> ids = postings.get(trigram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    public void clear() {
+        texts.clear();
+        postings.clear();
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    // Identificadores cuyo texto contiene el término (ya normalizado)
+    public Set<Long> containing(String term) {
+        if (term.isEmpty()) {
+            return new HashSet<>(texts.keySet());
+        }
+
+        Set<Long> result = new HashSet<>();
+        if (term.length() < 3) {
+            // Sin trigramas que consultar: se recorre el texto en memoria
+            texts.forEach((id, text) -> {
+                if (text.contains(term)) {
+                    result.add(id);
+                }
+            });
+            return result;
+        }
+
+        Set<Long> candidates = null;
+        for (String trigram : trigrams(term)) {
+            Set<Long> ids = postings.getOrDefault(trigram, Collections.emptySet());
+            if (candidates == null || ids.size() < candidates.size()) {
+                candidates = ids;
+            }
+        }
+        for (Long id : candidates) {
+            if (texts.get(id).contains(term)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            trigrams.add(normalized.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,35 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.EventCategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+// Lleva a la vista de próximos eventos los cambios de nombre de las categorías
+@Component
+public class UpcomingCategoryNames implements EntityIndex<EventCategory> {
+
+    private final UpcomingEventsView upcomingEventsView;
+
+    @Autowired
+    public UpcomingCategoryNames(UpcomingEventsView upcomingEventsView) {
+        this.upcomingEventsView = upcomingEventsView;
+    }
+
+    @Override
+    public void rebuild(Collection<EventCategory> categories) {
+        upcomingEventsView.annotate(categories);
+    }
+
+    @Override
+    public void put(EventCategory category) {
+        upcomingEventsView.annotate(List.of(category));
+    }
+
+    @Override
+    public void remove(long id) {
+        // Una categoría con eventos no se puede borrar (clave ajena), así que no hay filas que cambiar
+    }
+}
@@ -0,0 +1,200 @@
+package com.svalero.apievents.index;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.UpcomingEventDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Vista materializada de los próximos eventos: las filas de los eventos de hoy en adelante,
+ * ya ordenadas por (eventDate, id) y con el nombre de la categoría. Las lecturas devuelven
+ * una porción de la lista publicada de la ventana (los próximos days días) sin bloqueos ni
+ * copias. Cada escritura actualiza las filas afectadas y, si cae dentro de la ventana, publica
+ * una lista nueva; a medianoche la ventana avanza un día con los eventos que ya tiene en memoria.
+ */
+@Component
+public class UpcomingEventsView implements EntityIndex<Event> {
+
+    private static final Comparator<UpcomingEventDto> ORDER = Comparator.comparing(UpcomingEventDto::getEventDate)
+            .thenComparingLong(UpcomingEventDto::getId);
+
+    private final int days;
+
+    // Filas de hoy en adelante, también las que aún no entran en la ventana; solo se tocan con el monitor
+    private final NavigableSet<UpcomingEventDto> rows = new TreeSet<>(ORDER);
+    private final Map<Long, UpcomingEventDto> rowsById = new HashMap<>();
+    private LocalDate today = LocalDate.now();
+
+    private volatile Window window = new Window(today, List.of());
+
+    private record Window(LocalDate from, List<UpcomingEventDto> rows) {
+    }
+
+    @Autowired
+    public UpcomingEventsView(@Value("${apievents.upcoming.days:30}") int days) {
+        this.days = days;
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Event> entities) {
+        rows.clear();
+        rowsById.clear();
+        today = LocalDate.now();
+        for (Event event : entities) {
+            if (isUpcoming(event.getEventDate())) {
+                insert(toRow(event));
+            }
+        }
+        publish();
+    }
+
+    @Override
+    public synchronized void put(Event event) {
+        UpcomingEventDto previous = delete(event.getId());
+        boolean changed = previous != null && inWindow(previous.getEventDate());
+        if (isUpcoming(event.getEventDate())) {
+            insert(toRow(event));
+            changed |= inWindow(event.getEventDate());
+        }
+        if (changed) {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized void remove(long id) {
+        UpcomingEventDto previous = delete(id);
+        if (previous != null && inWindow(previous.getEventDate())) {
+            publish();
+        }
+    }
+
+    // Pone el nombre actual de estas categorías en las filas de sus eventos
+    public synchronized void annotate(Collection<EventCategory> categories) {
+        Map<Long, String> names = new HashMap<>();
+        categories.forEach(category -> names.put(category.getId(), category.getName()));
+        boolean changed = false;
+        for (UpcomingEventDto row : List.copyOf(rows)) {
+            String name = names.get(row.getCategoryId());
+            if (names.containsKey(row.getCategoryId()) && !Objects.equals(name, row.getCategoryName())) {
+                // Las filas publicadas no se modifican: se sustituyen por una copia
+                delete(row.getId());
+                insert(new UpcomingEventDto(row.getId(), row.getEventName(), row.getEventDate(), row.getCapacity(),
+                        row.getUbication(), row.getCategoryId(), name));
+                changed |= inWindow(row.getEventDate());
+            }
+        }
+        if (changed) {
+            publish();
+        }
+    }
+
+    // Eventos de los próximos days días (hoy incluido, como mucho los de la ventana), hasta limit
+    public List<UpcomingEventDto> find(int days, int limit) {
+        Window current = window;
+        if (!current.from().equals(LocalDate.now())) {
+            // La tarea de medianoche aún no ha pasado; la primera lectura del día avanza la ventana
+            rollForward();
+            current = window;
+        }
+        LocalDate until = current.from().plusDays(Math.min(Math.max(days, 1), this.days));
+        int end = firstOnOrAfter(current.rows(), until);
+        return current.rows().subList(0, Math.min(end, limit));
+    }
+
+    // Próximos eventos de unos eventos cualquiera (por ejemplo, leídos de la base de datos en el arranque en frío)
+    public static List<UpcomingEventDto> find(Collection<Event> events, int days, int limit) {
+        UpcomingEventsView snapshot = new UpcomingEventsView(days);
+        snapshot.rebuild(events);
+        return snapshot.find(days, limit);
+    }
+
+    // Avanza la ventana al día actual: descarta los eventos pasados y publica los que entran
+    @Scheduled(cron = "0 0 0 * * *")
+    public synchronized void rollForward() {
+        LocalDate now = LocalDate.now();
+        if (now.equals(today)) {
+            return;
+        }
+        today = now;
+        while (!rows.isEmpty() && rows.first().getEventDate().isBefore(today)) {
+            rowsById.remove(rows.pollFirst().getId());
+        }
+        publish();
+    }
+
+    // Ventana de la vista en días, hoy incluido
+    public int days() {
+        return days;
+    }
+
+    // Fila de la vista para un evento, con la categoría que trae cargada
+    public static UpcomingEventDto toRow(Event event) {
+        EventCategory category = event.getCategory();
+        return new UpcomingEventDto(event.getId(), event.getEventName(), event.getEventDate(), event.getCapacity(),
+                event.getUbication(), category != null ? category.getId() : 0,
+                category != null ? category.getName() : null);
+    }
+
+    private void publish() {
+        LocalDate until = today.plusDays(days);
+        List<UpcomingEventDto> visible = List.copyOf(rows.headSet(bound(until), false));
+        window = new Window(today, visible);
+    }
+
+    private static int firstOnOrAfter(List<UpcomingEventDto> rows, LocalDate date) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rows.get(middle).getEventDate().isBefore(date)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private boolean isUpcoming(LocalDate date) {
+        return date != null && !date.isBefore(today);
+    }
+
+    private boolean inWindow(LocalDate date) {
+        return !date.isBefore(today) && date.isBefore(today.plusDays(days));
+    }
+
+    private void insert(UpcomingEventDto row) {
+        rows.add(row);
+        rowsById.put(row.getId(), row);
+    }
+
+    private UpcomingEventDto delete(long id) {
+        UpcomingEventDto row = rowsById.remove(id);
+        if (row != null) {
+            rows.remove(row);
+        }
+        return row;
+    }
+
+    // Primera fila posible de un día, para cortar el conjunto ordenado por fecha
+    private static UpcomingEventDto bound(LocalDate date) {
+        UpcomingEventDto bound = new UpcomingEventDto();
+        bound.setId(Long.MIN_VALUE);
+        bound.setEventDate(date);
+        return bound;
+    }
+}
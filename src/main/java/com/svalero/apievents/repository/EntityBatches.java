@@ -0,0 +1,59 @@
+package com.svalero.apievents.repository;
+
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Lectura de muchas entidades por id con consultas IN de como mucho MAX_IN_LIST ids,
+ * en lugar de una consulta por id. Los ids repetidos se piden una sola vez.
+ */
+public final class EntityBatches {
+
+    public static final int MAX_IN_LIST = 1000;
+
+    private EntityBatches() {
+    }
+
+    // Devuelve las entidades en el orden de ids y los ids que no se han encontrado
+    public static <T> MultiGetDto<T> findAllById(CrudRepository<T, Long> repository, Collection<Long> ids,
+                                                 ToLongFunction<T> idOf) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, T> found = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += MAX_IN_LIST) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + MAX_IN_LIST, distinctIds.size()));
+            repository.findAllById(chunk).forEach(entity -> found.put(idOf.applyAsLong(entity), entity));
+        }
+
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            T entity = found.get(id);
+            if (entity != null) {
+                items.add(entity);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetDto<>(items, missing);
+    }
+
+    // Lee las filas de los ids con finder en consultas IN y las devuelve en el orden de ids, sin las que ya no existen
+    public static <T> List<T> findInOrder(List<Long> ids, Function<Collection<Long>, List<T>> finder,
+                                          ToLongFunction<T> idOf) {
+        Map<Long, T> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            finder.apply(ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size())))
+                    .forEach(row -> found.put(idOf.applyAsLong(row), row));
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+}
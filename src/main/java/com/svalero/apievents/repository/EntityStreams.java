@@ -0,0 +1,48 @@
+package com.svalero.apievents.repository;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Recorrido de consultas que devuelven un Stream sin cargar la tabla entera en memoria.
+ * El driver JDBC trae las filas de FETCH_SIZE en FETCH_SIZE y el contexto de persistencia
+ * se vacía cada FETCH_SIZE filas para que las entidades ya escritas puedan liberarse.
+ */
+public final class EntityStreams {
+
+    public static final int FETCH_SIZE = 500;
+
+    private EntityStreams() {
+    }
+
+    // Igual que forEachDetached para proyecciones (DTO), que no entran en el contexto de persistencia
+    public static <T> long forEach(Stream<T> rows, Consumer<T> action) {
+        long count = 0;
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Aplica action a cada fila y devuelve cuántas se han recorrido; cierra el stream al terminar
+    public static <T> long forEachDetached(Stream<T> rows, EntityManager entityManager, Consumer<T> action) {
+        long count = 0;
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -1,11 +1,20 @@
 package com.svalero.apievents.repository;
 
 import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CategoryStatsDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface EventCategoryRepository extends CrudRepository<EventCategory, Long> {
@@ -16,6 +25,9 @@ public interface EventCategoryRepository extends CrudRepository<EventCategory, L
     // Método para buscar categorías por nombre (parcial o completo)
     List<EventCategory> findByNameContaining(String name);
 
+    // Método para buscar categorías por nombre sin distinguir mayúsculas (candidatos del autocompletado en frío)
+    List<EventCategory> findByNameContainingIgnoreCase(String name);
+
     // Método para buscar categorías por descripcion
     List<EventCategory> findByDescriptionContaining(String description);
     // Método para buscar categorías activas
@@ -38,4 +50,30 @@ public interface EventCategoryRepository extends CrudRepository<EventCategory, L
 
     // Método para buscar categorías con más de un cierto número de eventos
     List<EventCategory> findByNumberEventsGreaterThanEqual(int numberEvents);
+
+    // Suma delta al contador de eventos de varias categorías con una sola sentencia
+    @Modifying
+    @Query("update EventCategory c set c.numberEvents = c.numberEvents + :delta where c.id in :ids")
+    int addNumberEvents(@Param("delta") int delta, @Param("ids") Collection<Long> ids);
+
+    // Fija el contador de eventos de varias categorías con una sola sentencia
+    @Modifying
+    @Query("update EventCategory c set c.numberEvents = :numberEvents where c.id in :ids")
+    int setNumberEvents(@Param("numberEvents") int numberEvents, @Param("ids") Collection<Long> ids);
+
+    // Estadísticas de todas las categorías en una sola consulta. Cada agregado es una subconsulta
+    // correlacionada para que los eventos no se multipliquen por sus reservas ni las reservas por sus pagos
+    @Query("select new com.svalero.apievents.domain.dto.CategoryStatsDto(c.id, c.name,"
+            + " (select count(e) from Event e where e.category = c),"
+            + " (select coalesce(sum(e.capacity), 0) from Event e where e.category = c),"
+            + " (select coalesce(sum(r.quantity), 0) from Reservation r where r.event.category = c),"
+            + " (select coalesce(sum(p.amount), 0.0) from Payment p where p.reservation.event.category = c),"
+            + " (select min(e.eventDate) from Event e where e.category = c and e.eventDate >= :today))"
+            + " from EventCategory c order by c.id")
+    List<CategoryStatsDto> findStats(@Param("today") LocalDate today);
+
+    // Método para recorrer todas las categorías en streaming
+    @Query("select c from EventCategory c order by c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EntityStreams.FETCH_SIZE))
+    Stream<EventCategory> streamAll();
 }
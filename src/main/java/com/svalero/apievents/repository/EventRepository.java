@@ -1,14 +1,41 @@
 package com.svalero.apievents.repository;
 
 import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.CategoryEventCountDto;
+import com.svalero.apievents.domain.dto.EventOutDto;
+import com.svalero.apievents.domain.dto.TopEventDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface EventRepository extends CrudRepository<Event, Long> {
+public interface EventRepository extends CrudRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+
+    // Condición de keyset: eventos con fecha posteriores a (afterDate, afterId) en el orden (eventDate, id).
+    // Escrita como comparación de filas, H2 empieza a leer idx_events_date_id en el cursor en lugar de
+    // recorrerlo desde el principio, así que una página profunda cuesta lo mismo que la primera
+    String KEYSET_AFTER = "(e.eventDate, e.id) > (:afterDate, :afterId)";
+
+    // Los eventos sin fecha van primero en la paginación y se leen con su propia consulta
+    String UNDATED_AFTER = "e.eventDate is null and e.id > :afterId";
+
+    // También para los eventos sin fecha: con el orden del índice, H2 no tiene que ordenar nada
+    String KEYSET_ORDER = " order by e.eventDate asc, e.id asc";
+
+    // Resumen del evento con la categoría como id (0 si no tiene), sin descripción ni categoría cargada
+    String SUMMARY = "select new com.svalero.apievents.domain.dto.EventOutDto(e.id, e.eventName, e.eventDate,"
+            + " e.capacity, e.ubication, coalesce(e.category.id, 0L), e.latitude, e.longitude) from Event e";
 
     // Método para obtener todos los eventos
     List<Event> findAll();
@@ -16,6 +43,23 @@ public interface EventRepository extends CrudRepository<Event, Long> {
     // Método para buscar eventos por nombre
     List<Event> findByEventNameContaining(String eventName);
 
+    // Método para buscar eventos por nombre sin distinguir mayúsculas (candidatos del autocompletado en frío)
+    List<Event> findByEventNameContainingIgnoreCase(String eventName);
+
+    // Método para saber qué nombres de una lista ya están en uso (el nombre es único)
+    @Query("select e.eventName from Event e where e.eventName in :names")
+    List<String> findEventNamesIn(@Param("names") Collection<String> names);
+
+    // Nombres de una lista de eventos para el ranking, sin cargar las entidades (las entradas van a 0)
+    @Query("select new com.svalero.apievents.domain.dto.TopEventDto(e.id, e.eventName, 0L) from Event e"
+            + " where e.id in :ids")
+    List<TopEventDto> findEventNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Eventos de cada categoría que tiene alguno
+    @Query("select new com.svalero.apievents.domain.dto.CategoryEventCountDto(e.category.id, count(e))"
+            + " from Event e where e.category is not null group by e.category.id")
+    List<CategoryEventCountDto> countGroupByCategory();
+
     // Método para buscar eventos con capacidad menor o igual a un valor dado
     List<Event> findByCapacityLessThanEqual(int capacity);
 
@@ -27,4 +71,71 @@ public interface EventRepository extends CrudRepository<Event, Long> {
 
     // Método para buscar eventos por ubicación
     List<Event> findByUbicationContaining(String ubication);
+
+    // Método para buscar el resumen de los eventos con un texto en nombre, descripción o ubicación
+    @Query(SUMMARY + " where e.eventName like concat('%', :text, '%') or e.description like concat('%', :text, '%')"
+            + " or e.ubication like concat('%', :text, '%') order by e.id")
+    List<EventOutDto> findSummariesContaining(@Param("text") String text, Limit limit);
+
+    // Método para buscar eventos dentro de una caja de coordenadas
+    List<Event> findByLatitudeBetweenAndLongitudeBetween(double minLatitude, double maxLatitude,
+                                                         double minLongitude, double maxLongitude);
+
+    // Página de todos los eventos con fecha a partir de un cursor
+    @Query(SUMMARY + " where " + KEYSET_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findPage(@Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId, Limit limit);
+
+    // Página de todos los eventos sin fecha a partir de un id
+    @Query(SUMMARY + " where " + UNDATED_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findUndatedPage(@Param("afterId") long afterId, Limit limit);
+
+    // Página de eventos con fecha por nombre a partir de un cursor
+    @Query(SUMMARY + " where e.eventName like concat('%', :eventName, '%') and " + KEYSET_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findPageByEventNameContaining(@Param("eventName") String eventName,
+                                                    @Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId,
+                                                    Limit limit);
+
+    // Página de eventos sin fecha por nombre a partir de un id
+    @Query(SUMMARY + " where e.eventName like concat('%', :eventName, '%') and " + UNDATED_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findUndatedPageByEventNameContaining(@Param("eventName") String eventName,
+                                                           @Param("afterId") long afterId, Limit limit);
+
+    // Página de eventos con fecha y capacidad menor o igual a un valor dado a partir de un cursor
+    @Query(SUMMARY + " where e.capacity <= :capacity and " + KEYSET_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findPageByCapacityLessThanEqual(@Param("capacity") int capacity,
+                                                      @Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId,
+                                                      Limit limit);
+
+    // Página de eventos sin fecha con capacidad menor o igual a un valor dado a partir de un id
+    @Query(SUMMARY + " where e.capacity <= :capacity and " + UNDATED_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findUndatedPageByCapacityLessThanEqual(@Param("capacity") int capacity,
+                                                             @Param("afterId") long afterId, Limit limit);
+
+    // Página de eventos de una fecha a partir de un cursor
+    @Query(SUMMARY + " where e.eventDate = :eventDate and " + KEYSET_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findPageByEventDate(@Param("eventDate") LocalDate eventDate,
+                                          @Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId,
+                                          Limit limit);
+
+    // Página de eventos entre dos fechas a partir de un cursor
+    @Query(SUMMARY + " where e.eventDate between :startDate and :endDate and " + KEYSET_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findPageByEventDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                                 @Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId,
+                                                 Limit limit);
+
+    // Página de eventos con fecha por ubicación a partir de un cursor
+    @Query(SUMMARY + " where e.ubication like concat('%', :ubication, '%') and " + KEYSET_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findPageByUbicationContaining(@Param("ubication") String ubication,
+                                                    @Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId,
+                                                    Limit limit);
+
+    // Página de eventos sin fecha por ubicación a partir de un id
+    @Query(SUMMARY + " where e.ubication like concat('%', :ubication, '%') and " + UNDATED_AFTER + KEYSET_ORDER)
+    List<EventOutDto> findUndatedPageByUbicationContaining(@Param("ubication") String ubication,
+                                                           @Param("afterId") long afterId, Limit limit);
+
+    // Método para recorrer el resumen de todos los eventos en streaming
+    @Query(SUMMARY + " order by e.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EntityStreams.FETCH_SIZE))
+    Stream<EventOutDto> streamAll();
 }
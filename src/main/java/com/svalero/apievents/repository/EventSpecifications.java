@@ -0,0 +1,56 @@
+package com.svalero.apievents.repository;
+
+import com.svalero.apievents.domain.Event;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consulta de eventos por cualquier combinación de filtros, resuelta en una sola sentencia SQL.
+ * Las combinaciones habituales (categoría y fechas, fechas solas) tienen índice en la tabla events.
+ */
+public final class EventSpecifications {
+
+    public static final Set<String> SORTABLE = Set.of("id", "eventName", "eventDate", "capacity", "ubication");
+    public static final String DEFAULT_SORT = "eventDate";
+
+    private EventSpecifications() {
+    }
+
+    // Filtros de la consulta; los null no filtran y los textos se buscan como subcadena
+    public record Filter(String name, LocalDate startDate, LocalDate endDate, Integer minCapacity,
+                         Integer maxCapacity, String ubication, Long categoryId) {
+    }
+
+    public static Specification<Event> matching(Filter filter) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.name() != null) {
+                predicates.add(builder.like(root.get("eventName"), "%" + filter.name() + "%"));
+            }
+            if (filter.startDate() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("eventDate"), filter.startDate()));
+            }
+            if (filter.endDate() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("eventDate"), filter.endDate()));
+            }
+            if (filter.minCapacity() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("capacity"), filter.minCapacity()));
+            }
+            if (filter.maxCapacity() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("capacity"), filter.maxCapacity()));
+            }
+            if (filter.ubication() != null) {
+                predicates.add(builder.like(root.get("ubication"), "%" + filter.ubication() + "%"));
+            }
+            if (filter.categoryId() != null) {
+                predicates.add(builder.equal(root.get("category").get("id"), filter.categoryId()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
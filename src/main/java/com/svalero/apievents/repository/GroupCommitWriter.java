@@ -0,0 +1,267 @@
+package com.svalero.apievents.repository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escrituras agrupadas (group commit), activables con apievents.group-commit.enabled. Con el modo
+ * activado, los save de los servicios no abren cada uno su transacción: se encolan y un único hilo
+ * escritor los guarda juntos en una sola transacción, con un solo commit y una sola escritura en
+ * disco, cuando reúne max-batch escrituras o pasan max-delay milisegundos desde la primera. Cada
+ * llamada espera a que su lote esté confirmado, así que al volver la escritura ya es durable. Un
+ * max-delay mayor da lotes más grandes y más escrituras por segundo a cambio de más latencia; con
+ * 0 solo se agrupa lo que ya estaba en cola. Si el lote falla, nada de él queda guardado y sus
+ * escrituras se repiten una a una, para que solo falle la que tiene el problema.
+ * Con el modo desactivado, o si quien llama ya está en una transacción, save guarda directamente.
+ */
+@Component
+public class GroupCommitWriter {
+
+    private final Logger logger = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    // Entidad pendiente de guardar y el aviso a quien la espera
+    private static final class Write<T> {
+        private final CrudRepository<T, ?> repository;
+        private final T entity;
+        private final CompletableFuture<T> saved = new CompletableFuture<>();
+        private T result;
+
+        private Write(CrudRepository<T, ?> repository, T entity) {
+            this.repository = repository;
+            this.entity = entity;
+        }
+
+        private void save() {
+            result = repository.save(entity);
+        }
+
+        private void complete() {
+            saved.complete(result);
+        }
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Write<?>> queue;
+    private final ConcurrentMap<Class<?>, Field> idFields = new ConcurrentHashMap<>();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public GroupCommitWriter(PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                             @Value("${apievents.group-commit.enabled:false}") boolean enabled,
+                             @Value("${apievents.group-commit.max-batch:64}") int maxBatch,
+                             @Value("${apievents.group-commit.max-delay:2}") long maxDelayMillis) {
+        this.transactionTemplate = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        // Con la cola llena quien escribe espera: el escritor marca el ritmo y la memoria no crece sin límite
+        this.queue = new ArrayBlockingQueue<>(this.maxBatch * 16);
+        if (enabled) {
+            running = true;
+            writer = new Thread(this::run, "group-commit-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    // Escritor sin agrupar: cada save va directo al repositorio
+    public static GroupCommitWriter disabled() {
+        return new GroupCommitWriter(null, null, false, 1, 0);
+    }
+
+    // Guarda la entidad y devuelve lo que devuelve el repositorio, cuando ya está confirmada
+    public <T> T save(CrudRepository<T, ?> repository, T entity) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return repository.save(entity);
+        }
+        return await(submit(repository, entity));
+    }
+
+    // Encola la entidad sin esperar; el futuro se completa cuando su lote está confirmado
+    public <T> CompletableFuture<T> submit(CrudRepository<T, ?> repository, T entity) {
+        Write<T> write = new Write<>(repository, entity);
+        if (!running) {
+            saveDirectly(write);
+            return write.saved;
+        }
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.saved.completeExceptionally(e);
+            return write.saved;
+        }
+        // stop puede haber llegado entre la comprobación y el put, con el escritor ya terminado. Quitar la
+        // escritura de la cola es atómico: si se consigue, nadie más la va a guardar; si no, ya la tiene el
+        // escritor o el vaciado de stop y la completarán ellos
+        if (!running && queue.remove(write)) {
+            saveDirectly(write);
+        }
+        return write.saved;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Escrituras guardadas y commits hechos por el escritor; su cociente es el tamaño medio de lote
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    // Al parar se guarda lo que quede en cola antes de cerrar la conexión. El escritor no termina mientras
+    // quede algo en cola; solo cuando ha terminado se vacía aquí lo que haya podido quedar, para no
+    // confirmar a la vez que él
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (writer.isAlive()) {
+            logger.warn("Group commit writer still busy after 10 s, leaving {} queued writes to it", queue.size());
+            return;
+        }
+        List<Write<?>> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        if (!pending.isEmpty()) {
+            commit(pending);
+        }
+    }
+
+    private void run() {
+        List<Write<?>> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Write<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    long left = deadline - System.nanoTime();
+                    Write<?> next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Se para sin volver a marcar la interrupción: H2 cierra el fichero si un hilo interrumpido escribe
+                running = false;
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    commit(batch);
+                } catch (RuntimeException | Error e) {
+                    // El hilo sigue vivo y nadie se queda esperando una escritura que no va a llegar
+                    batch.forEach(write -> write.saved.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void saveDirectly(Write<?> write) {
+        try {
+            write.save();
+            write.complete();
+        } catch (RuntimeException e) {
+            write.saved.completeExceptionally(e);
+        }
+    }
+
+    private void commit(List<Write<?>> batch) {
+        List<Object> ids = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Write<?> write : batch) {
+                    ids.add(idOf(write.entity));
+                    write.save();
+                }
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).saved.completeExceptionally(e);
+                return;
+            }
+            logger.debug("Group commit of {} writes failed, saving them one by one - {}", batch.size(), e.getMessage());
+            // El rollback no devuelve los ids que persist asignó a las entidades nuevas: se quitan antes de repetir
+            for (int i = 0; i < ids.size(); i++) {
+                setId(batch.get(i).entity, ids.get(i));
+            }
+            batch.forEach(write -> commit(List.of(write)));
+            return;
+        }
+        commits.increment();
+        writes.add(batch.size());
+        batch.forEach(Write::complete);
+    }
+
+    private Object idOf(Object entity) {
+        return ReflectionUtils.getField(idField(entity.getClass()), entity);
+    }
+
+    private void setId(Object entity, Object id) {
+        ReflectionUtils.setField(idField(entity.getClass()), entity, id);
+    }
+
+    private Field idField(Class<?> type) {
+        return idFields.computeIfAbsent(type, key -> {
+            EntityType<?> entityType = entityManagerFactory.getMetamodel().entity(key);
+            Field field = (Field) entityType.getId(entityType.getIdType().getJavaType()).getJavaMember();
+            ReflectionUtils.makeAccessible(field);
+            return field;
+        });
+    }
+
+    // Espera al lote; si la escritura ha fallado, el error es el mismo que daría el save directo
+    private static <T> T await(CompletableFuture<T> saved) {
+        try {
+            return saved.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
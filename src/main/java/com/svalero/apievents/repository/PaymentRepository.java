@@ -1,14 +1,28 @@
 package com.svalero.apievents.repository;
 
 import com.svalero.apievents.domain.Payment;
+import com.svalero.apievents.domain.dto.PaidAmountDto;
+import com.svalero.apievents.domain.dto.PaymentOutDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRepository extends CrudRepository<Payment, Long> {
+public interface PaymentRepository extends CrudRepository<Payment, Long>, JpaSpecificationExecutor<Payment> {
+
+    // Resumen del pago con la reserva como id, sin cargar la reserva, su evento ni su categoría
+    String SUMMARY = "select new com.svalero.apievents.domain.dto.PaymentOutDto(p.id, p.name, p.customerName,"
+            + " p.paymentDate, p.amount, p.status, p.reservation.id) from Payment p";
 
     // Obtener todos los pagos
     List<Payment> findAll();
@@ -27,4 +41,51 @@ public interface PaymentRepository extends CrudRepository<Payment, Long> {
 
     // Buscar pagos relacionados a una reserva específica
     List<Payment> findByReservationId(Long reservationId);
+
+    // Resumen de los pagos por nombre del cliente
+    @Query(SUMMARY + " where p.customerName like concat('%', :customerName, '%')")
+    List<PaymentOutDto> findSummariesByCustomerNameContaining(@Param("customerName") String customerName);
+
+    // Resumen de los pagos con los ids dados, sin orden
+    @Query(SUMMARY + " where p.id in :ids")
+    List<PaymentOutDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Resumen de los pagos de una fecha
+    @Query(SUMMARY + " where p.paymentDate = :paymentDate")
+    List<PaymentOutDto> findSummariesByPaymentDate(@Param("paymentDate") LocalDate paymentDate);
+
+    // Resumen de los pagos entre dos fechas
+    @Query(SUMMARY + " where p.paymentDate between :startDate and :endDate")
+    List<PaymentOutDto> findSummariesByPaymentDateBetween(@Param("startDate") LocalDate startDate,
+                                                          @Param("endDate") LocalDate endDate);
+
+    // Resumen de los pagos por estado
+    @Query(SUMMARY + " where p.status = :status")
+    List<PaymentOutDto> findSummariesByStatus(@Param("status") String status);
+
+    // Resumen de los pagos por cantidad mayor o igual a un monto
+    @Query(SUMMARY + " where p.amount >= :amount")
+    List<PaymentOutDto> findSummariesByAmountGreaterThanEqual(@Param("amount") double amount);
+
+    // Resumen de los pagos de una reserva
+    @Query(SUMMARY + " where p.reservation.id = :reservationId")
+    List<PaymentOutDto> findSummariesByReservationId(@Param("reservationId") Long reservationId);
+
+    // Importe pagado de cada evento con algún pago
+    @Query("select new com.svalero.apievents.domain.dto.PaidAmountDto(p.reservation.event.id, sum(p.amount))"
+            + " from Payment p group by p.reservation.event.id")
+    List<PaidAmountDto> sumAmountGroupByEvent();
+
+    // Importe pagado de un evento (0 si no tiene pagos)
+    @Query("select coalesce(sum(p.amount), 0.0) from Payment p where p.reservation.event.id = :eventId")
+    double sumAmountByEventId(@Param("eventId") long eventId);
+
+    // Importe pagado de una reserva (0 si no tiene pagos)
+    @Query("select coalesce(sum(p.amount), 0.0) from Payment p where p.reservation.id = :reservationId")
+    double sumAmountByReservationId(@Param("reservationId") long reservationId);
+
+    // Recorrer el resumen de todos los pagos en streaming
+    @Query(SUMMARY + " order by p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EntityStreams.FETCH_SIZE))
+    Stream<PaymentOutDto> streamAll();
 }
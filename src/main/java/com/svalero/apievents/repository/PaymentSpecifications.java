@@ -0,0 +1,56 @@
+package com.svalero.apievents.repository;
+
+import com.svalero.apievents.domain.Payment;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consulta de pagos por cualquier combinación de filtros, resuelta en una sola sentencia SQL.
+ * Las combinaciones habituales (estado y fechas, fechas solas) tienen índice en la tabla payments.
+ */
+public final class PaymentSpecifications {
+
+    public static final Set<String> SORTABLE = Set.of("id", "customerName", "paymentDate", "amount", "status");
+    public static final String DEFAULT_SORT = "paymentDate";
+
+    private PaymentSpecifications() {
+    }
+
+    // Filtros de la consulta; los null no filtran y el nombre del cliente se busca como subcadena
+    public record Filter(String customerName, String status, LocalDate startDate, LocalDate endDate,
+                         Double minAmount, Double maxAmount, Long reservationId) {
+    }
+
+    public static Specification<Payment> matching(Filter filter) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.customerName() != null) {
+                predicates.add(builder.like(root.get("customerName"), "%" + filter.customerName() + "%"));
+            }
+            if (filter.status() != null) {
+                predicates.add(builder.equal(root.get("status"), filter.status()));
+            }
+            if (filter.startDate() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("paymentDate"), filter.startDate()));
+            }
+            if (filter.endDate() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("paymentDate"), filter.endDate()));
+            }
+            if (filter.minAmount() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("amount"), filter.minAmount()));
+            }
+            if (filter.maxAmount() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("amount"), filter.maxAmount()));
+            }
+            if (filter.reservationId() != null) {
+                predicates.add(builder.equal(root.get("reservation").get("id"), filter.reservationId()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
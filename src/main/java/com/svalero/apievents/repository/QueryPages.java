@@ -0,0 +1,58 @@
+package com.svalero.apievents.repository;
+
+import com.svalero.apievents.domain.dto.PageDto;
+import com.svalero.apievents.exception.InvalidQueryException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Paginación y orden de las consultas por filtros. El orden llega como "campo" o
+ * "campo,desc" y solo se admiten los campos de la lista de cada entidad, que son los
+ * que tienen columna propia; el id se añade siempre al final para que el orden sea
+ * estable entre páginas.
+ */
+public final class QueryPages {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private QueryPages() {
+    }
+
+    public static Pageable of(int page, int size, String sort, Set<String> sortable) {
+        if (page < 0) {
+            throw new InvalidQueryException("Page must not be negative: " + page);
+        }
+        return PageRequest.of(page, pageSize(size), sortOf(sort, sortable));
+    }
+
+    // Tamaño pedido dentro de los límites: el de por defecto si no es positivo y como mucho MAX_PAGE_SIZE
+    public static int pageSize(int size) {
+        return size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    public static <T, R> PageDto<R> toDto(Page<T> page, Function<T, R> mapper) {
+        return new PageDto<>(page.getContent().stream().map(mapper).toList(), page.getNumber(), page.getSize(),
+                page.getTotalElements());
+    }
+
+    private static Sort sortOf(String sort, Set<String> sortable) {
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!sortable.contains(property) || parts.length > 2) {
+            throw new InvalidQueryException("Invalid sort: " + sort + " (sortable fields: " + sortable + ")");
+        }
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (parts.length == 2) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new InvalidQueryException("Invalid sort direction: " + sort));
+        }
+        Sort order = Sort.by(direction, property);
+        return "id".equals(property) ? order : order.and(Sort.by(Sort.Direction.ASC, "id"));
+    }
+}
@@ -1,14 +1,29 @@
 package com.svalero.apievents.repository;
 
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.ReservationOutDto;
+import com.svalero.apievents.domain.dto.ReservedSeatsDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ReservationRepository extends CrudRepository<Reservation, Long> {
+public interface ReservationRepository extends CrudRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation> {
+
+    // Resumen de la reserva con el evento como id, sin cargar el evento ni su categoría
+    String SUMMARY = "select new com.svalero.apievents.domain.dto.ReservationOutDto(r.id, r.name, r.customerName,"
+            + " r.email, r.reservationDate, r.quantity, r.event.id) from Reservation r";
 
     // Método para obtener todas las reservas
     List<Reservation> findAll();
@@ -27,4 +42,56 @@ public interface ReservationRepository extends CrudRepository<Reservation, Long>
 
     // Método para buscar reservas asociadas a un evento específico
     List<Reservation> findByEventId(Long eventId);
+
+    // Resumen de las reservas por nombre del cliente
+    @Query(SUMMARY + " where r.customerName like concat('%', :customerName, '%')")
+    List<ReservationOutDto> findSummariesByCustomerNameContaining(@Param("customerName") String customerName);
+
+    // Resumen de las reservas con los ids dados, sin orden
+    @Query(SUMMARY + " where r.id in :ids")
+    List<ReservationOutDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Resumen de las reservas de una fecha exacta
+    @Query(SUMMARY + " where r.reservationDate = :reservationDate")
+    List<ReservationOutDto> findSummariesByReservationDate(@Param("reservationDate") LocalDate reservationDate);
+
+    // Resumen de las reservas entre dos fechas
+    @Query(SUMMARY + " where r.reservationDate between :startDate and :endDate")
+    List<ReservationOutDto> findSummariesByReservationDateBetween(@Param("startDate") LocalDate startDate,
+                                                                  @Param("endDate") LocalDate endDate);
+
+    // Resumen de las reservas con una cantidad exacta de entradas
+    @Query(SUMMARY + " where r.quantity = :quantity")
+    List<ReservationOutDto> findSummariesByQuantity(@Param("quantity") int quantity);
+
+    // Resumen de las reservas de un evento
+    @Query(SUMMARY + " where r.event.id = :eventId")
+    List<ReservationOutDto> findSummariesByEventId(@Param("eventId") Long eventId);
+
+    // Entradas reservadas de cada evento con alguna reserva
+    @Query("select new com.svalero.apievents.domain.dto.ReservedSeatsDto(r.event.id, sum(r.quantity))"
+            + " from Reservation r group by r.event.id")
+    List<ReservedSeatsDto> sumQuantityGroupByEvent();
+
+    // Reservas desde una fecha (incluida), de la fecha más antigua a la más reciente
+    @Query(SUMMARY + " where r.reservationDate >= :since order by r.reservationDate, r.id")
+    List<ReservationOutDto> findSummariesByReservationDateSince(@Param("since") LocalDate since);
+
+    // Evento de una reserva, sin cargar la reserva ni el evento
+    @Query("select r.event.id from Reservation r where r.id = :id")
+    Optional<Long> findEventIdById(@Param("id") long id);
+
+    // Entradas reservadas de un evento (0 si no tiene reservas)
+    @Query("select coalesce(sum(r.quantity), 0) from Reservation r where r.event.id = :eventId")
+    long sumQuantityByEventId(@Param("eventId") long eventId);
+
+    // Entradas reservadas de un evento sin contar una reserva (0 si no tiene otras)
+    @Query("select coalesce(sum(r.quantity), 0) from Reservation r where r.event.id = :eventId"
+            + " and r.id <> :reservationId")
+    long sumQuantityByEventIdExcluding(@Param("eventId") long eventId, @Param("reservationId") long reservationId);
+
+    // Método para recorrer el resumen de todas las reservas en streaming
+    @Query(SUMMARY + " order by r.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EntityStreams.FETCH_SIZE))
+    Stream<ReservationOutDto> streamAll();
 }
@@ -0,0 +1,53 @@
+package com.svalero.apievents.repository;
+
+import com.svalero.apievents.domain.Reservation;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consulta de reservas por cualquier combinación de filtros, resuelta en una sola sentencia SQL.
+ * Las combinaciones habituales (evento y fechas, fechas solas) tienen índice en la tabla reservations.
+ */
+public final class ReservationSpecifications {
+
+    public static final Set<String> SORTABLE = Set.of("id", "customerName", "reservationDate", "quantity");
+    public static final String DEFAULT_SORT = "reservationDate";
+
+    private ReservationSpecifications() {
+    }
+
+    // Filtros de la consulta; los null no filtran y los textos se buscan como subcadena
+    public record Filter(String customerName, LocalDate startDate, LocalDate endDate, Integer minQuantity,
+                         Integer maxQuantity, Long eventId) {
+    }
+
+    public static Specification<Reservation> matching(Filter filter) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.customerName() != null) {
+                predicates.add(builder.like(root.get("customerName"), "%" + filter.customerName() + "%"));
+            }
+            if (filter.startDate() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("reservationDate"), filter.startDate()));
+            }
+            if (filter.endDate() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("reservationDate"), filter.endDate()));
+            }
+            if (filter.minQuantity() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("quantity"), filter.minQuantity()));
+            }
+            if (filter.maxQuantity() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("quantity"), filter.maxQuantity()));
+            }
+            if (filter.eventId() != null) {
+                predicates.add(builder.equal(root.get("event").get("id"), filter.eventId()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -1,10 +1,15 @@
 package com.svalero.apievents.repository;
 
 import com.svalero.apievents.domain.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository  extends CrudRepository<User, Long> {
@@ -17,4 +22,9 @@ public interface UserRepository  extends CrudRepository<User, Long> {
 
     // Método para buscar todos los usuarios activos
     List<User> findByActiveTrue();
-}
\ No newline at end of file
+
+    // Método para recorrer todos los usuarios en streaming
+    @Query("select u from User u order by u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EntityStreams.FETCH_SIZE))
+    Stream<User> streamAll();
+}
@@ -0,0 +1,144 @@
+package com.svalero.apievents.service;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.exception.BookingConflictException;
+import com.svalero.apievents.exception.EventNotFoundException;
+import com.svalero.apievents.exception.InvalidQuantityException;
+import com.svalero.apievents.exception.NotEnoughSeatsException;
+import com.svalero.apievents.exception.ReservationNotFoundException;
+import com.svalero.apievents.repository.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Escritura de reservas con el aforo comprobado en la base de datos. Cada intento es una
+ * transacción corta: lee el evento pidiendo que su versión se incremente al confirmar, suma
+ * las entradas ya reservadas, comprueba que caben las nuevas y guarda la reserva. Dos reservas
+ * simultáneas del mismo evento incrementan la misma versión y una de las dos falla al confirmar,
+ * así ninguna da por bueno un aforo que la otra acaba de ocupar. Los conflictos de versión se
+ * reintentan desde el principio con una espera exponencial aleatoria, hasta un número máximo de intentos.
+ */
+@Service
+public class BookingService {
+
+    // Reserva guardada, con el evento y las entradas que tenía antes (0 si es nueva) y los intentos que ha costado
+    public record Booking(Reservation reservation, long previousEventId, int previousQuantity, int attempts) {
+    }
+
+    private final ReservationRepository reservationRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    @Autowired
+    public BookingService(ReservationRepository reservationRepository, EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${apievents.booking.max-attempts:5}") int maxAttempts,
+                          @Value("${apievents.booking.backoff:5}") long backoffMillis) {
+        this.reservationRepository = reservationRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    // Guarda una reserva nueva; con el id de una reserva existente la sustituye y devuelve lo que tenía
+    public Booking book(Reservation reservation) {
+        long id = reservation.getId();
+        return withRetries(() -> {
+            Reservation existing = id != 0 ? reservationRepository.findById(id).orElse(null) : null;
+            long previousEventId = existing != null ? eventId(existing) : 0;
+            int previousQuantity = existing != null ? existing.getQuantity() : 0;
+            // Un id inexistente, o el que dejó un intento fallido, no cuenta: la reserva se da de alta
+            reservation.setId(existing != null ? id : 0);
+            reservation.setVersion(existing != null ? existing.getVersion() : 0);
+            checkSeats(reservation);
+            return new Booking(reservationRepository.save(reservation), previousEventId, previousQuantity, 0);
+        });
+    }
+
+    // Aplica changes sobre la reserva leída en cada intento y la guarda
+    public Booking rebook(long id, Consumer<Reservation> changes) {
+        return withRetries(() -> {
+            Reservation reservation = reservationRepository.findById(id)
+                    .orElseThrow(() -> new ReservationNotFoundException("Reservation not found with id: " + id));
+            long previousEventId = eventId(reservation);
+            int previousQuantity = reservation.getQuantity();
+            changes.accept(reservation);
+            checkSeats(reservation);
+            return new Booking(reservationRepository.save(reservation), previousEventId, previousQuantity, 0);
+        });
+    }
+
+    private Booking withRetries(Supplier<Booking> attempt) {
+        for (int attempts = 1; ; attempts++) {
+            try {
+                Booking booking = transactionTemplate.execute(status -> attempt.get());
+                return new Booking(booking.reservation(), booking.previousEventId(), booking.previousQuantity(),
+                        attempts);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempts == maxAttempts) {
+                    throw new BookingConflictException("Reservation could not be saved after " + attempts
+                            + " attempts: the event or the reservation kept changing");
+                }
+                backoff(attempts);
+            }
+        }
+    }
+
+    // Espera aleatoria entre 0 y backoffMillis * 2^(attempts - 1) para que los reintentos no vuelvan a chocar
+    private void backoff(int attempts) {
+        long bound = backoffMillis << Math.min(attempts - 1, 10);
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingConflictException("Interrupted while retrying the reservation");
+        }
+    }
+
+    // Comprueba el aforo con las entradas ya guardadas, sin contar la fila de la propia reserva: la
+    // consulta vuelca antes los cambios de la reserva gestionada y los contaría dos veces
+    private void checkSeats(Reservation reservation) {
+        checkQuantity(reservation.getQuantity());
+        long eventId = eventId(reservation);
+        if (eventId == 0) {
+            // Sin evento no hay aforo que comprobar; la base de datos rechaza la reserva
+            return;
+        }
+        Event event = entityManager.find(Event.class, eventId, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        if (event == null) {
+            throw new EventNotFoundException("Event not found with id: " + eventId);
+        }
+        long reserved = reservationRepository.sumQuantityByEventIdExcluding(eventId, reservation.getId());
+        if (reserved + reservation.getQuantity() > event.getCapacity()) {
+            throw new NotEnoughSeatsException("Not enough seats left in event " + eventId + " for "
+                    + reservation.getQuantity() + " tickets");
+        }
+        reservation.setEvent(event);
+    }
+
+    // Una reserva tiene al menos una entrada: una cantidad negativa restaría entradas a las ya reservadas
+    static void checkQuantity(int quantity) {
+        if (quantity < 1) {
+            throw new InvalidQuantityException("Quantity must be at least 1, got " + quantity);
+        }
+    }
+
+    private long eventId(Reservation reservation) {
+        return reservation.getEvent() != null ? reservation.getEvent().getId() : 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.svalero.apievents.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.svalero.apievents.domain.dto.CacheStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CacheStatsService(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // Obtener aciertos, fallos y tamaño de cada cache
+    public List<CacheStatsDto> getCacheStats() {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .filter(CaffeineCache.class::isInstance)
+                .map(CaffeineCache.class::cast)
+                .map(this::toDto)
+                .toList();
+    }
+
+    private CacheStatsDto toDto(CaffeineCache cache) {
+        CacheStats stats = cache.getNativeCache().stats();
+        return new CacheStatsDto(cache.getName(), cache.getNativeCache().estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
@@ -1,25 +1,52 @@
 package com.svalero.apievents.service;
 
+import com.svalero.apievents.config.CacheConfig;
 import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CategoryStatsDto;
+import com.svalero.apievents.domain.dto.MultiGetDto;
 import com.svalero.apievents.exception.EventCategoryNotFoundException;
+import com.svalero.apievents.index.CategoryCatalog;
+import com.svalero.apievents.index.CategoryIndexes;
+import com.svalero.apievents.index.CategoryTextIndex;
+import com.svalero.apievents.repository.EntityBatches;
+import com.svalero.apievents.repository.EntityStreams;
 import com.svalero.apievents.repository.EventCategoryRepository;
+import com.svalero.apievents.repository.GroupCommitWriter;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class EventCategoryService {
 
     private final EventCategoryRepository categoryRepository;
+    private final CategoryIndexes categoryIndexes;
+    private final CategoryTextIndex categoryTextIndex;
+    private final CategoryCatalog categoryCatalog;
+    private final EntityManager entityManager;
+    private final GroupCommitWriter groupCommitWriter;
 
     @Autowired
-    public EventCategoryService(EventCategoryRepository categoryRepository) {
+    public EventCategoryService(EventCategoryRepository categoryRepository, CategoryIndexes categoryIndexes,
+                                CategoryTextIndex categoryTextIndex, CategoryCatalog categoryCatalog,
+                                EntityManager entityManager, GroupCommitWriter groupCommitWriter) {
         this.categoryRepository = categoryRepository;
+        this.categoryIndexes = categoryIndexes;
+        this.categoryTextIndex = categoryTextIndex;
+        this.categoryCatalog = categoryCatalog;
+        this.entityManager = entityManager;
+        this.groupCommitWriter = groupCommitWriter;
     }
 
     // Obtener todas las categorías
@@ -27,63 +54,121 @@ public class EventCategoryService {
         return categoryRepository.findAll();
     }
 
+    // Recorrer todas las categorías en streaming: las filas se entregan una a una sin cargar la tabla en memoria
+    @Transactional(readOnly = true)
+    public long streamAllCategories(Consumer<EventCategory> action) {
+        return EntityStreams.forEachDetached(categoryRepository.streamAll(), entityManager, action);
+    }
+
     // Buscar categorías por nombre
     public List<EventCategory> getCategoriesByName(String name) {
+        if (categoryIndexes.isLoaded()) {
+            return categoryTextIndex.findByNameContaining(name);
+        }
         return categoryRepository.findByNameContaining(name);
     }
 
     // Buscar categorías por descripción
     public List<EventCategory> getCategoriesByDescription(String description) {
+        if (categoryIndexes.isLoaded()) {
+            return categoryTextIndex.findByDescriptionContaining(description);
+        }
         return categoryRepository.findByDescriptionContaining(description);
     }
 
     // Buscar categorías activas
     public List<EventCategory> getActiveCategories() {
+        if (categoryIndexes.isLoaded()) {
+            return categoryCatalog.findByActiveTrue();
+        }
         return categoryRepository.findByActiveTrue();
     }
 
     // Buscar categorías inactivas
     public List<EventCategory> getInactiveCategories() {
+        if (categoryIndexes.isLoaded()) {
+            return categoryCatalog.findByActiveFalse();
+        }
         return categoryRepository.findByActiveFalse();
     }
 
     // Buscar categorías por fecha de creación
     public List<EventCategory> getCategoriesByCreationDate(LocalDate date) {
+        if (categoryIndexes.isLoaded()) {
+            return categoryCatalog.findByCreationDate(date);
+        }
         return categoryRepository.findByCreationDate(date);
     }
 
     // Buscar categorías creadas después de una fecha específica
     public List<EventCategory> getCategoriesCreatedAfter(LocalDate date) {
+        if (categoryIndexes.isLoaded()) {
+            return categoryCatalog.findByCreationDateAfter(date);
+        }
         return categoryRepository.findByCreationDateAfter(date);
     }
 
     // Buscar categorías creadas antes de una fecha específica
     public List<EventCategory> getCategoriesCreatedBefore(LocalDate date) {
+        if (categoryIndexes.isLoaded()) {
+            return categoryCatalog.findByCreationDateBefore(date);
+        }
         return categoryRepository.findByCreationDateBefore(date);
     }
 
     // Buscar categorías por número de eventos
     public List<EventCategory> getCategoriesByNumberOfEvents(int numberOfEvents) {
+        if (categoryIndexes.isLoaded()) {
+            return categoryCatalog.findByNumberEvents(numberOfEvents);
+        }
         return categoryRepository.findByNumberEvents(numberOfEvents);
     }
 
     // Buscar categorías con un número mínimo de eventos
     public List<EventCategory> getCategoriesWithMinEvents(int minEvents) {
+        if (categoryIndexes.isLoaded()) {
+            return categoryCatalog.findByNumberEventsGreaterThanEqual(minEvents);
+        }
         return categoryRepository.findByNumberEventsGreaterThanEqual(minEvents);
     }
 
+    // Estadísticas de todas las categorías en una sola consulta, con el próximo evento desde hoy
+    public List<CategoryStatsDto> getCategoryStats() {
+        return categoryRepository.findStats(LocalDate.now());
+    }
+
     // Guardar una nueva categoría
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENT_CATEGORIES, key = "#category.id"),
+            @CacheEvict(cacheNames = {CacheConfig.EVENTS, CacheConfig.RESERVATIONS, CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public EventCategory saveCategory(EventCategory category) {
-        return categoryRepository.save(category);
+        // El número de eventos no lo fija el cliente: una categoría nueva empieza en 0 y una existente conserva el suyo
+        category.setNumberEvents(category.getId() != 0
+                ? categoryRepository.findById(category.getId()).map(EventCategory::getNumberEvents).orElse(0)
+                : 0);
+        EventCategory savedCategory = groupCommitWriter.save(categoryRepository, category);
+        categoryIndexes.put(savedCategory);
+        return savedCategory;
     }
 
     // Obtener una categoría por ID
+    @Cacheable(cacheNames = CacheConfig.EVENT_CATEGORIES, key = "#id")
     public EventCategory getCategoryById(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new EventCategoryNotFoundException("Category not found with id: " + id));
     }
 
+    // Obtener varias categorías por ID en una sola consulta, en el orden pedido y con los ids que no existen
+    public MultiGetDto<EventCategory> getCategoriesByIds(List<Long> ids) {
+        return EntityBatches.findAllById(categoryRepository, ids, EventCategory::getId);
+    }
+
     // Actualizar una categoría por ID
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENT_CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.EVENTS, CacheConfig.RESERVATIONS, CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public EventCategory updateCategory(Long id, EventCategory categoryDetails) {
         EventCategory existingCategory = categoryRepository.findById(id)
                 .orElseThrow(() -> new EventCategoryNotFoundException("Category not found with id: " + id));
@@ -92,32 +177,45 @@ public class EventCategoryService {
         existingCategory.setName(categoryDetails.getName());
         existingCategory.setDescription(categoryDetails.getDescription());
         existingCategory.setCreationDate(categoryDetails.getCreationDate());
-        existingCategory.setNumberEvents(categoryDetails.getNumberEvents());
         existingCategory.setActive(categoryDetails.getActive());
 
-        return categoryRepository.save(existingCategory);
+        EventCategory updatedCategory = groupCommitWriter.save(categoryRepository, existingCategory);
+        categoryIndexes.put(updatedCategory);
+        return updatedCategory;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENT_CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.EVENTS, CacheConfig.RESERVATIONS, CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public EventCategory updateEventCategoryPartial(Long id, Map<String, Object> updates) {
         EventCategory existingCategory = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event Category not found with id: " + id));
 
         updates.forEach((key, value) -> {
             Field field = ReflectionUtils.findField(EventCategory.class, key);
-            if (field != null) {
+            // numberEvents lo mantiene el servidor
+            if (field != null && !"numberEvents".equals(key)) {
                 field.setAccessible(true);
                 ReflectionUtils.setField(field, existingCategory, value);
             }
         });
 
-        return categoryRepository.save(existingCategory);
+        EventCategory updatedCategory = groupCommitWriter.save(categoryRepository, existingCategory);
+        categoryIndexes.put(updatedCategory);
+        return updatedCategory;
     }
 
     // Eliminar una categoría por ID
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENT_CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.EVENTS, CacheConfig.RESERVATIONS, CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public void deleteCategory(Long id) {
         if (!categoryRepository.existsById(id)) {
             throw new EventCategoryNotFoundException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        categoryIndexes.remove(id);
     }
 }
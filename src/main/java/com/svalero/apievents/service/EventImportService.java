@@ -0,0 +1,164 @@
+package com.svalero.apievents.service;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.BulkEventResultDto;
+import com.svalero.apievents.domain.dto.EventMapper;
+import com.svalero.apievents.domain.dto.EventRegistrationDto;
+import com.svalero.apievents.index.CategoryEventCounters;
+import com.svalero.apievents.index.EventIndexes;
+import com.svalero.apievents.repository.EventCategoryRepository;
+import com.svalero.apievents.repository.EventRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de eventos. Las filas se procesan en lotes de batchSize: cada lote resuelve
+ * sus categorías y nombres repetidos con una consulta, inserta con batching JDBC y se
+ * confirma en su propia transacción, así que un fallo no deshace los lotes anteriores.
+ * Las filas inválidas se rechazan una a una sin afectar al resto del lote.
+ */
+@Service
+public class EventImportService {
+
+    private final EventRepository eventRepository;
+    private final EventCategoryRepository eventCategoryRepository;
+    private final EventIndexes eventIndexes;
+    private final CategoryEventCounters categoryEventCounters;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public EventImportService(EventRepository eventRepository, EventCategoryRepository eventCategoryRepository,
+                              EventIndexes eventIndexes, CategoryEventCounters categoryEventCounters,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${apievents.bulk.batch-size:1000}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.eventCategoryRepository = eventCategoryRepository;
+        this.eventIndexes = eventIndexes;
+        this.categoryEventCounters = categoryEventCounters;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    // Dar de alta todos los eventos de la lista, devolviendo el resultado de cada fila en orden
+    public List<BulkEventResultDto> addAll(Iterator<EventRegistrationDto> rows) {
+        List<BulkEventResultDto> results = new ArrayList<>();
+        List<EventRegistrationDto> batch = new ArrayList<>(batchSize);
+        while (rows.hasNext()) {
+            batch.add(rows.next());
+            if (batch.size() == batchSize) {
+                results.addAll(importBatch(batch, results.size()));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            results.addAll(importBatch(batch, results.size()));
+        }
+        return results;
+    }
+
+    private List<BulkEventResultDto> importBatch(List<EventRegistrationDto> batch, int firstIndex) {
+        List<Event> created = new ArrayList<>();
+        List<BulkEventResultDto> results = transactionTemplate.execute(status -> {
+            Map<Long, EventCategory> categories = findCategories(batch);
+            Set<String> takenNames = findTakenNames(batch);
+
+            List<BulkEventResultDto> batchResults = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                EventRegistrationDto row = batch.get(i);
+                String error = validate(row, categories, takenNames);
+                if (error != null) {
+                    batchResults.add(BulkEventResultDto.rejected(firstIndex + i, error));
+                    continue;
+                }
+                takenNames.add(row.getEventName());
+                Event event = toEvent(row, categories.get(row.getCategoryId()));
+                // Con ids de secuencia el id se asigna aquí y el INSERT espera al flush del lote
+                entityManager.persist(event);
+                created.add(event);
+                batchResults.add(BulkEventResultDto.created(firstIndex + i, event.getId()));
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return batchResults;
+        });
+        // Los índices en memoria y los contadores de las categorías solo ven el lote una vez confirmado
+        created.forEach(eventIndexes::put);
+        created.forEach(event -> categoryEventCounters.increment(event.getCategory().getId()));
+        return results;
+    }
+
+    private Map<Long, EventCategory> findCategories(List<EventRegistrationDto> batch) {
+        Set<Long> categoryIds = batch.stream()
+                .filter(Objects::nonNull)
+                .map(EventRegistrationDto::getCategoryId)
+                .collect(Collectors.toSet());
+        Map<Long, EventCategory> categories = new HashMap<>();
+        eventCategoryRepository.findAllById(categoryIds)
+                .forEach(category -> categories.put(category.getId(), category));
+        return categories;
+    }
+
+    private Set<String> findTakenNames(List<EventRegistrationDto> batch) {
+        Set<String> names = batch.stream()
+                .filter(Objects::nonNull)
+                .map(EventRegistrationDto::getEventName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (names.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(eventRepository.findEventNamesIn(names));
+    }
+
+    private String validate(EventRegistrationDto row, Map<Long, EventCategory> categories, Set<String> takenNames) {
+        if (row == null) {
+            return "Event is required";
+        }
+        if (row.getEventName() == null) {
+            return "Event name is required";
+        }
+        if (row.getUbication() == null) {
+            return "Ubication is required";
+        }
+        if (row.getCapacity() < 1) {
+            return "Capacity must be at least 1";
+        }
+        if (!categories.containsKey(row.getCategoryId())) {
+            return "Category " + row.getCategoryId() + " not found";
+        }
+        if (takenNames.contains(row.getEventName())) {
+            return "Event name already exists: " + row.getEventName();
+        }
+        return null;
+    }
+
+    private Event toEvent(EventRegistrationDto row, EventCategory category) {
+        Event event = EventMapper.toEvent(row);
+        // Sin fecha se toma la de hoy, como en el alta individual
+        if (event.getEventDate() == null) {
+            event.setEventDate(LocalDate.now());
+        }
+        event.setCategory(category);
+        return event;
+    }
+}
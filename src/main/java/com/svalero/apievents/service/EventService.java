@@ -1,39 +1,117 @@
 package com.svalero.apievents.service;
 
+import com.svalero.apievents.config.CacheConfig;
 import com.svalero.apievents.domain.Event;
 import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CursorPage;
+import com.svalero.apievents.domain.dto.EventCursor;
+import com.svalero.apievents.domain.dto.EventFacetsDto;
+import com.svalero.apievents.domain.dto.EventMapper;
+import com.svalero.apievents.domain.dto.EventOccupancyDto;
 import com.svalero.apievents.domain.dto.EventOutDto;
 import com.svalero.apievents.domain.dto.EventRegistrationDto;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.domain.dto.NearbyEventOutDto;
+import com.svalero.apievents.domain.dto.PageDto;
+import com.svalero.apievents.domain.dto.TopEventDto;
+import com.svalero.apievents.domain.dto.UpcomingEventDto;
 import com.svalero.apievents.exception.EventCategoryNotFoundException;
 import com.svalero.apievents.exception.EventNotFoundException;
+import com.svalero.apievents.exception.InvalidQueryException;
+import com.svalero.apievents.index.CategoryCatalog;
+import com.svalero.apievents.index.CategoryEventCounters;
+import com.svalero.apievents.index.EventCalendarIndex;
+import com.svalero.apievents.index.EventFacetIndex;
+import com.svalero.apievents.index.EventGeoIndex;
+import com.svalero.apievents.index.EventIndexes;
+import com.svalero.apievents.index.EventTextIndex;
+import com.svalero.apievents.index.PaidAmounts;
+import com.svalero.apievents.index.SeatInventory;
+import com.svalero.apievents.index.TrendingEvents;
+import com.svalero.apievents.index.UpcomingEventsView;
+import com.svalero.apievents.repository.EntityBatches;
+import com.svalero.apievents.repository.EntityStreams;
 import com.svalero.apievents.repository.EventCategoryRepository;
 import com.svalero.apievents.repository.EventRepository;
-import org.modelmapper.ModelMapper;
+import com.svalero.apievents.repository.EventSpecifications;
+import com.svalero.apievents.repository.GroupCommitWriter;
+import com.svalero.apievents.repository.QueryPages;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 @Service
 public class EventService {
 
+    // Tamaño de página por defecto y máximo para los listados paginados por cursor
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
 
     private EventRepository eventRepository;
 
     private EventCategoryRepository eventCategoryRepository;
 
-    private ModelMapper modelMapper;
+    private EventIndexes eventIndexes;
+
+    private EventGeoIndex eventGeoIndex;
+
+    private EventTextIndex eventTextIndex;
+
+    private EventCalendarIndex eventCalendarIndex;
+
+    private EventFacetIndex eventFacetIndex;
+
+    private UpcomingEventsView upcomingEventsView;
+
+    private TrendingEvents trendingEvents;
+
+    private CategoryEventCounters categoryEventCounters;
+
+    private CategoryCatalog categoryCatalog;
+
+    private GroupCommitWriter groupCommitWriter;
+
+    private SeatInventory seatInventory;
+
+    private PaidAmounts paidAmounts;
 
    // private final EventRepository eventRepository;
     @Autowired
-    public EventService(EventRepository eventRepository, EventCategoryRepository eventCategoryRepository, ModelMapper modelMapper) {
+    public EventService(EventRepository eventRepository, EventCategoryRepository eventCategoryRepository,
+                        EventIndexes eventIndexes, EventGeoIndex eventGeoIndex, EventTextIndex eventTextIndex,
+                        EventCalendarIndex eventCalendarIndex, EventFacetIndex eventFacetIndex,
+                        UpcomingEventsView upcomingEventsView, TrendingEvents trendingEvents,
+                        CategoryEventCounters categoryEventCounters, CategoryCatalog categoryCatalog,
+                        GroupCommitWriter groupCommitWriter, SeatInventory seatInventory, PaidAmounts paidAmounts) {
         this.eventRepository = eventRepository;
         this.eventCategoryRepository = eventCategoryRepository;
-        this.modelMapper = modelMapper;
+        this.eventIndexes = eventIndexes;
+        this.eventGeoIndex = eventGeoIndex;
+        this.eventTextIndex = eventTextIndex;
+        this.eventCalendarIndex = eventCalendarIndex;
+        this.eventFacetIndex = eventFacetIndex;
+        this.upcomingEventsView = upcomingEventsView;
+        this.trendingEvents = trendingEvents;
+        this.categoryEventCounters = categoryEventCounters;
+        this.categoryCatalog = categoryCatalog;
+        this.groupCommitWriter = groupCommitWriter;
+        this.seatInventory = seatInventory;
+        this.paidAmounts = paidAmounts;
     }
 
     // Obtener todos los eventos
@@ -41,8 +119,17 @@ public class EventService {
         return eventRepository.findAll();
     }
 
+    // Recorrer todos los eventos en streaming: las filas se entregan una a una sin cargar la tabla en memoria
+    @Transactional(readOnly = true)
+    public long streamAllEvents(Consumer<EventOutDto> action) {
+        return EntityStreams.forEach(eventRepository.streamAll(), action);
+    }
+
     // Buscar eventos por nombre
     public List<Event> getEventsByName(String name) {
+        if (eventIndexes.isLoaded()) {
+            return eventTextIndex.findByEventNameContaining(name);
+        }
         return eventRepository.findByEventNameContaining(name);
     }
 
@@ -53,50 +140,238 @@ public class EventService {
 
     // Buscar eventos por fecha
     public List<Event> getEventsByDate(LocalDate date) {
+        if (eventIndexes.isLoaded()) {
+            return eventCalendarIndex.findBetween(date, date);
+        }
         return eventRepository.findByEventDate(date);
     }
 
     // Buscar eventos entre dos fechas
     public List<Event> getEventsBetweenDates(LocalDate startDate, LocalDate endDate) {
+        if (eventIndexes.isLoaded()) {
+            return eventCalendarIndex.findBetween(startDate, endDate);
+        }
         return eventRepository.findByEventDateBetween(startDate, endDate);
     }
 
     // Buscar eventos por ubicación
     public List<Event> getEventsByUbication(String ubication) {
+        if (eventIndexes.isLoaded()) {
+            return eventTextIndex.findByUbicationContaining(ubication);
+        }
         return eventRepository.findByUbicationContaining(ubication);
     }
 
+    // Buscar eventos por texto en nombre, descripción, ubicación y categoría, ordenados por relevancia
+    public List<EventOutDto> searchEvents(String query, int limit) {
+        int size = pageSize(limit);
+        if (eventIndexes.isLoaded()) {
+            return eventTextIndex.search(query, size).stream().map(EventMapper::toOutDto).toList();
+        }
+        // Arranque en frío: coincidencia literal de la consulta completa, sin ranking
+        return eventRepository.findSummariesContaining(query, Limit.of(size));
+    }
+
+    // Obtener una página de eventos a partir de un cursor
+    public CursorPage<EventOutDto> getAllEvents(EventCursor after, int limit) {
+        return keysetPage(after, pageSize(limit), eventRepository::findUndatedPage,
+                (cursor, rows) -> eventRepository.findPage(cursor.getEventDate(), cursor.getId(), rows));
+    }
+
+    // Buscar una página de eventos por nombre
+    public CursorPage<EventOutDto> getEventsByName(String name, EventCursor after, int limit) {
+        int size = pageSize(limit);
+        if (eventIndexes.isLoaded()) {
+            return toPage(toOutDtos(eventTextIndex.findPageByEventNameContaining(name, after, size + 1)), size);
+        }
+        return keysetPage(after, size,
+                (afterId, rows) -> eventRepository.findUndatedPageByEventNameContaining(name, afterId, rows),
+                (cursor, rows) -> eventRepository.findPageByEventNameContaining(name, cursor.getEventDate(),
+                        cursor.getId(), rows));
+    }
+
+    // Buscar una página de eventos con capacidad máxima
+    public CursorPage<EventOutDto> getEventsByCapacity(int capacity, EventCursor after, int limit) {
+        return keysetPage(after, pageSize(limit),
+                (afterId, rows) -> eventRepository.findUndatedPageByCapacityLessThanEqual(capacity, afterId, rows),
+                (cursor, rows) -> eventRepository.findPageByCapacityLessThanEqual(capacity, cursor.getEventDate(),
+                        cursor.getId(), rows));
+    }
+
+    // Buscar una página de eventos por fecha
+    public CursorPage<EventOutDto> getEventsByDate(LocalDate date, EventCursor after, int limit) {
+        int size = pageSize(limit);
+        if (eventIndexes.isLoaded()) {
+            return toPage(toOutDtos(eventCalendarIndex.findBetween(date, date, after, size + 1)), size);
+        }
+        EventCursor from = dated(after);
+        return toPage(eventRepository.findPageByEventDate(date, from.getEventDate(), from.getId(),
+                Limit.of(size + 1)), size);
+    }
+
+    // Buscar una página de eventos entre dos fechas
+    public CursorPage<EventOutDto> getEventsBetweenDates(LocalDate startDate, LocalDate endDate, EventCursor after, int limit) {
+        int size = pageSize(limit);
+        if (eventIndexes.isLoaded()) {
+            return toPage(toOutDtos(eventCalendarIndex.findBetween(startDate, endDate, after, size + 1)), size);
+        }
+        EventCursor from = dated(after);
+        return toPage(eventRepository.findPageByEventDateBetween(startDate, endDate, from.getEventDate(), from.getId(),
+                Limit.of(size + 1)), size);
+    }
+
+    // Buscar una página de eventos por ubicación
+    public CursorPage<EventOutDto> getEventsByUbication(String ubication, EventCursor after, int limit) {
+        int size = pageSize(limit);
+        if (eventIndexes.isLoaded()) {
+            return toPage(toOutDtos(eventTextIndex.findPageByUbicationContaining(ubication, after, size + 1)), size);
+        }
+        return keysetPage(after, size,
+                (afterId, rows) -> eventRepository.findUndatedPageByUbicationContaining(ubication, afterId, rows),
+                (cursor, rows) -> eventRepository.findPageByUbicationContaining(ubication, cursor.getEventDate(),
+                        cursor.getId(), rows));
+    }
+
+    // Buscar eventos combinando cualquier subconjunto de filtros en una sola consulta, paginada y ordenada
+    public PageDto<EventOutDto> queryEvents(EventSpecifications.Filter filter, int page, int size, String sort) {
+        Pageable pageable = QueryPages.of(page, size, sort, EventSpecifications.SORTABLE);
+        return QueryPages.toDto(eventRepository.findAll(EventSpecifications.matching(filter), pageable),
+                EventMapper::toOutDto);
+    }
+
+    // Buscar eventos con varios filtros a la vez, con los recuentos por categoría, mes, capacidad y ubicación
+    public EventFacetsDto getEventFacets(EventFacetIndex.FacetFilter filter, int limit) {
+        int size = pageSize(limit);
+        if (eventIndexes.isLoaded()) {
+            return eventFacetIndex.facets(filter, size);
+        }
+        // Arranque en frío: misma pasada sobre una copia en columnas de la tabla
+        return EventFacetIndex.facets(eventRepository.findAll(), filter, size);
+    }
+
+    // Eventos de los próximos días (hoy incluido) con su categoría, servidos desde la vista materializada
+    public List<UpcomingEventDto> getUpcomingEvents(int days, int limit) {
+        int size = pageSize(limit);
+        if (eventIndexes.isLoaded()) {
+            return upcomingEventsView.find(days, size);
+        }
+        // Arranque en frío: los eventos de la ventana desde la base de datos
+        int window = Math.min(Math.max(days, 1), upcomingEventsView.days());
+        LocalDate today = LocalDate.now();
+        List<Event> events = eventRepository.findByEventDateBetween(today, today.plusDays(window - 1));
+        return UpcomingEventsView.find(events, window, size);
+    }
+
+    // Eventos con más entradas reservadas en la ventana (24h o 7d), de más a menos, con su nombre
+    public List<TopEventDto> getTopEvents(String window, int limit) {
+        TrendingEvents.Window trendingWindow = switch (window) {
+            case "24h" -> TrendingEvents.Window.DAY;
+            case "7d" -> TrendingEvents.Window.WEEK;
+            default -> throw new InvalidQueryException("Invalid window: " + window + " (use 24h or 7d)");
+        };
+        List<TrendingEvents.Score> scores = trendingEvents.top(trendingWindow, pageSize(limit));
+        // Los nombres de todo el ranking en una sola consulta que solo lee id y nombre
+        Map<Long, String> names = new HashMap<>();
+        EntityBatches.findInOrder(scores.stream().map(TrendingEvents.Score::eventId).toList(),
+                        eventRepository::findEventNamesByIdIn, TopEventDto::getEventId)
+                .forEach(row -> names.put(row.getEventId(), row.getEventName()));
+        return scores.stream()
+                .map(score -> new TopEventDto(score.eventId(), names.get(score.eventId()), score.quantity()))
+                .toList();
+    }
+
+    // Buscar eventos cercanos a un punto, ordenados por distancia
+    public List<NearbyEventOutDto> getEventsNear(double latitude, double longitude, double radiusKm, int limit) {
+        int size = pageSize(limit);
+        List<EventGeoIndex.GeoHit> hits;
+        if (eventIndexes.isLoaded()) {
+            hits = eventGeoIndex.findNear(latitude, longitude, radiusKm, size);
+        } else {
+            // Arranque en frío: caja de coordenadas en base de datos y distancia exacta en memoria
+            double[] box = EventGeoIndex.boundingBox(latitude, longitude, radiusKm);
+            List<Event> candidates = eventRepository.findByLatitudeBetweenAndLongitudeBetween(box[0], box[1], box[2], box[3]);
+            hits = EventGeoIndex.rank(candidates, latitude, longitude, radiusKm, size);
+        }
+
+        return hits.stream()
+                .map(hit -> EventMapper.toNearbyOutDto(hit.event(), hit.distanceKm()))
+                .toList();
+    }
+
     // Guardar un nuevo evento
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTS, key = "#event.id"),
+            @CacheEvict(cacheNames = {CacheConfig.RESERVATIONS, CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public Event saveEvent(Event event) {
-        return eventRepository.save(event);
+        // Con un id existente save sobrescribe el evento: cuenta como cambio de categoría y parte de su versión actual
+        Event previous = event.getId() != 0 ? eventRepository.findById(event.getId()).orElse(null) : null;
+        Long previousCategoryId = null;
+        if (previous != null) {
+            event.setVersion(previous.getVersion());
+            previousCategoryId = categoryId(previous);
+        }
+        Event savedEvent = groupCommitWriter.save(eventRepository, event);
+        eventIndexes.put(savedEvent);
+        if (previousCategoryId != null) {
+            categoryEventCounters.move(previousCategoryId, categoryId(savedEvent));
+        } else {
+            categoryEventCounters.increment(categoryId(savedEvent));
+        }
+        return savedEvent;
     }
 
     public EventOutDto add(EventRegistrationDto eventInDto) throws EventCategoryNotFoundException {
 
-        EventCategory eventCategory = eventCategoryRepository.findById(eventInDto.getCategoryId())
+        // La categoría sale del catálogo en memoria; solo se consulta la base de datos si aún no está ahí
+        EventCategory eventCategory = categoryCatalog.findById(eventInDto.getCategoryId())
+                .or(() -> eventCategoryRepository.findById(eventInDto.getCategoryId()))
                 .orElseThrow(() -> new EventCategoryNotFoundException("Category" + eventInDto.getCategoryId() + " not found"));
 
 
-        Event event = modelMapper.map(eventInDto, Event.class);
-        event.setEventDate(LocalDate.now()); // Si quieres que la fecha siempre sea "hoy"
+        Event event = EventMapper.toEvent(eventInDto);
+        // Sin fecha se toma la de hoy, igual que en el alta masiva
+        if (event.getEventDate() == null) {
+            event.setEventDate(LocalDate.now());
+        }
         event.setCategory(eventCategory); // Asignar la categoría al evento
 
-        Event newEvent = eventRepository.save(event);
+        Event newEvent = groupCommitWriter.save(eventRepository, event);
+        eventIndexes.put(newEvent);
+        categoryEventCounters.increment(eventCategory.getId());
 
-        return modelMapper.map(newEvent, EventOutDto.class);
+        return EventMapper.toOutDto(newEvent);
     }
 
 
     // Obtener un evento por ID
+    @Cacheable(cacheNames = CacheConfig.EVENTS, key = "#id")
     public Event getEventById(Long id) throws EventNotFoundException {
         return eventRepository.findById(id)
                 .orElseThrow(() -> new EventNotFoundException("Event not found with id: " + id));
     }
 
+    // Ocupación de un evento con los contadores en memoria, sin leer sus reservas ni sus pagos
+    public EventOccupancyDto getEventOccupancy(long id) throws EventNotFoundException {
+        int capacity = seatInventory.capacity(id);
+        long reserved = seatInventory.reserved(id);
+        return new EventOccupancyDto(id, capacity, reserved, paidAmounts.paid(id), Math.max(0, capacity - reserved));
+    }
+
+    // Obtener varios eventos por ID en una sola consulta, en el orden pedido y con los ids que no existen
+    public MultiGetDto<Event> getEventsByIds(List<Long> ids) {
+        return EntityBatches.findAllById(eventRepository, ids, Event::getId);
+    }
+
     // Actualizar un evento por ID
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.RESERVATIONS, CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public Event updateEvent(Long id, Event eventDetails) throws EventNotFoundException {
         Event existingEvent = eventRepository.findById(id)
                 .orElseThrow(() -> new EventNotFoundException("Event not found with id: " + id));
+        long previousCategoryId = categoryId(existingEvent);
 
         // Actualizar los campos del evento existente con los nuevos valores
         existingEvent.setEventName(eventDetails.getEventName());
@@ -106,29 +381,93 @@ public class EventService {
         existingEvent.setUbication(eventDetails.getUbication());
         existingEvent.setCategory(eventDetails.getCategory());
 
-        return eventRepository.save(existingEvent);
+        Event updatedEvent = groupCommitWriter.save(eventRepository, existingEvent);
+        eventIndexes.put(updatedEvent);
+        categoryEventCounters.move(previousCategoryId, categoryId(updatedEvent));
+        return updatedEvent;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.RESERVATIONS, CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public Event updateEventPartial(Long id, Map<String, Object> updates) {
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
+        long previousCategoryId = categoryId(event);
 
         updates.forEach((key, value) -> {
             Field field = ReflectionUtils.findField(Event.class, key);
-            if (field != null) {
+            // La versión la lleva Hibernate
+            if (field != null && !"version".equals(key)) {
                 field.setAccessible(true);
                 ReflectionUtils.setField(field, event, value);
             }
         });
 
-        return eventRepository.save(event);
+        Event updatedEvent = groupCommitWriter.save(eventRepository, event);
+        eventIndexes.put(updatedEvent);
+        categoryEventCounters.move(previousCategoryId, categoryId(updatedEvent));
+        return updatedEvent;
     }
 
     // Eliminar un evento por ID
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.RESERVATIONS, CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public void deleteEvent(Long id) throws EventNotFoundException {
-        if (!eventRepository.existsById(id)) {
-            throw new EventNotFoundException("Event not found with id: " + id);
-        }
+        Event event = eventRepository.findById(id)
+                .orElseThrow(() -> new EventNotFoundException("Event not found with id: " + id));
         eventRepository.deleteById(id);
+        eventIndexes.remove(id);
+        categoryEventCounters.decrement(categoryId(event));
+    }
+
+    private long categoryId(Event event) {
+        return event.getCategory() != null ? event.getCategory().getId() : 0;
+    }
+
+    private int pageSize(int limit) {
+        if (limit < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Página por keyset en base de datos. Los eventos sin fecha van primero y se leen con su propia consulta;
+    // al acabarse, o si el cursor ya tiene fecha, siguen los que tienen fecha. Así ninguna consulta lleva
+    // condiciones con OR y todas leen el índice (eventDate, id) a partir del cursor
+    private CursorPage<EventOutDto> keysetPage(EventCursor after, int size,
+                                               BiFunction<Long, Limit, List<EventOutDto>> undatedAfter,
+                                               BiFunction<EventCursor, Limit, List<EventOutDto>> datedAfter) {
+        int rows = size + 1;
+        if (after.getEventDate() != null) {
+            return toPage(datedAfter.apply(after, Limit.of(rows)), size);
+        }
+        List<EventOutDto> page = new ArrayList<>(undatedAfter.apply(after.getId(), Limit.of(rows)));
+        if (page.size() < rows) {
+            page.addAll(datedAfter.apply(EventCursor.FIRST_DATED, Limit.of(rows - page.size())));
+        }
+        return toPage(page, size);
+    }
+
+    // Las consultas por fecha no devuelven eventos sin fecha: un cursor sin fecha es su principio
+    private EventCursor dated(EventCursor after) {
+        return after.getEventDate() != null ? after : EventCursor.FIRST_DATED;
+    }
+
+    // Las consultas piden una fila de más para saber si existe una página siguiente sin un COUNT
+    private CursorPage<EventOutDto> toPage(List<EventOutDto> rows, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<EventOutDto> items = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(items, EventCursor.of(items.get(size - 1)).encode());
+    }
+
+    // Los índices en memoria devuelven entidades; se resumen igual que las proyecciones del repositorio
+    private List<EventOutDto> toOutDtos(List<Event> events) {
+        return events.stream().map(EventMapper::toOutDto).toList();
     }
 }
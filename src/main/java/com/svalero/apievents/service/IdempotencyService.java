@@ -0,0 +1,191 @@
+package com.svalero.apievents.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.svalero.apievents.domain.IdempotencyRecord;
+import com.svalero.apievents.exception.IdempotencyKeyReusedException;
+import com.svalero.apievents.exception.InvalidQueryException;
+import com.svalero.apievents.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Respuestas de las peticiones con cabecera Idempotency-Key. La primera petición con una clave
+ * se ejecuta y su respuesta se guarda en memoria (con tamaño máximo y caducidad) y en la tabla
+ * idempotency_keys, para que sobreviva a un reinicio. Las repeticiones reciben la respuesta
+ * guardada sin tocar las tablas del dominio, y una repetición que llega mientras la primera
+ * sigue en curso espera su resultado en lugar de ejecutarse otra vez. Si la primera falla, la
+ * clave no queda guardada y el cliente puede reintentar. Con la respuesta se guarda un resumen
+ * SHA-256 del cuerpo de la petición: una repetición con la misma clave y otro cuerpo es un error
+ * del cliente y se rechaza en lugar de recibir la respuesta de una petición distinta.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private record StoredResponse(String requestHash, int status, String body, Instant createdAt) {
+    }
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> responses;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                              @Value("${apievents.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${apievents.idempotency.max-entries:10000}") long maxEntries) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Ejecuta action una sola vez por clave dentro del ámbito; sin clave se ejecuta siempre. request es el
+    // cuerpo de la petición, que se resume antes de ejecutar action porque el servicio puede modificarlo
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Class<T> type,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidQueryException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String requestHash = hash(request);
+        StoredResponse stored = lookup(id);
+        if (stored != null) {
+            return replay(stored, requestHash, type);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return replay(await(running), requestHash, type);
+        }
+        try {
+            // Otra petición con la misma clave puede haber terminado entre la consulta y el registro
+            stored = lookup(id);
+            if (stored != null) {
+                mine.complete(stored);
+                return replay(stored, requestHash, type);
+            }
+            ResponseEntity<T> response = action.get();
+            mine.complete(store(id, requestHash, response));
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    // Borra de la tabla las respuestas caducadas; las de memoria caducan solas
+    @Scheduled(fixedDelayString = "${apievents.idempotency.purge-interval:3600000}")
+    public void purgeExpired() {
+        int deleted = repository.deleteCreatedBefore(Instant.now().minus(ttl));
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private StoredResponse lookup(String id) {
+        StoredResponse stored = responses.getIfPresent(id);
+        if (stored == null) {
+            stored = repository.findById(id)
+                    .map(record -> new StoredResponse(record.getRequestHash(), record.getStatus(), record.getBody(),
+                            record.getCreatedAt()))
+                    .orElse(null);
+            if (stored == null) {
+                return null;
+            }
+            responses.put(id, stored);
+        }
+        return stored.createdAt().isAfter(Instant.now().minus(ttl)) ? stored : null;
+    }
+
+    private StoredResponse store(String id, String requestHash, ResponseEntity<?> response) {
+        StoredResponse stored;
+        try {
+            stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                    objectMapper.writeValueAsString(response.getBody()), Instant.now());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response for idempotency key " + id + " is not serializable", e);
+        }
+        responses.put(id, stored);
+        try {
+            repository.save(new IdempotencyRecord(id, stored.requestHash(), stored.status(), stored.body(),
+                    stored.createdAt()));
+        } catch (DataAccessException e) {
+            // La petición ya está hecha: sin la fila, la clave solo dura en memoria hasta el próximo reinicio
+            logger.warn("Could not persist idempotency key {} - {}", id, e.getMessage());
+        }
+        return stored;
+    }
+
+    // Las filas guardadas antes de que hubiera resumen (requestHash null) se repiten sin comprobarlo
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, Class<T> type) {
+        if (stored.requestHash() != null && !stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(HEADER + " was already used with a different request body");
+        }
+        try {
+            return ResponseEntity.status(stored.status())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(stored.body(), type));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response is not a " + type.getSimpleName(), e);
+        }
+    }
+
+    // SHA-256 del cuerpo tal como lo serializa la aplicación: el orden de los campos o los espacios del JSON
+    // enviado no cuentan, solo su contenido
+    private String hash(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash the request body", e);
+        }
+    }
+
+    // Espera a la petición en curso con la misma clave; si ha fallado, la repetición falla igual
+    private static StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,25 +1,52 @@
 package com.svalero.apievents.service;
 
+import com.svalero.apievents.config.CacheConfig;
 import com.svalero.apievents.domain.Payment;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.domain.dto.PageDto;
+import com.svalero.apievents.domain.dto.PaymentOutDto;
 import com.svalero.apievents.exception.PaymentNotFoundException;
+import com.svalero.apievents.index.CustomerIndex;
+import com.svalero.apievents.index.PaidAmounts;
+import com.svalero.apievents.repository.EntityBatches;
+import com.svalero.apievents.repository.EntityStreams;
+import com.svalero.apievents.repository.GroupCommitWriter;
 import com.svalero.apievents.repository.PaymentRepository;
+import com.svalero.apievents.repository.PaymentSpecifications;
+import com.svalero.apievents.repository.QueryPages;
+import com.svalero.apievents.repository.ReservationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
+    private final GroupCommitWriter groupCommitWriter;
+    private final ReservationRepository reservationRepository;
+    private final PaidAmounts paidAmounts;
+    private final CustomerIndex customerIndex;
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository, GroupCommitWriter groupCommitWriter,
+                          ReservationRepository reservationRepository, PaidAmounts paidAmounts,
+                          CustomerIndex customerIndex) {
         this.paymentRepository = paymentRepository;
+        this.groupCommitWriter = groupCommitWriter;
+        this.reservationRepository = reservationRepository;
+        this.paidAmounts = paidAmounts;
+        this.customerIndex = customerIndex;
     }
 
     // Obtener todos los pagos
@@ -27,21 +54,44 @@ public class PaymentService {
         return paymentRepository.findAll();
     }
 
+    // Recorrer todos los pagos en streaming: las filas se entregan una a una sin cargar la tabla en memoria
+    @Transactional(readOnly = true)
+    public long streamAllPayments(Consumer<PaymentOutDto> action) {
+        return EntityStreams.forEach(paymentRepository.streamAll(), action);
+    }
+
     // Guardar un nuevo pago
+    @CacheEvict(cacheNames = CacheConfig.PAYMENTS, key = "#payment.id")
     public Payment savePayment(Payment payment) {
-        return paymentRepository.save(payment);
+        // Con un id existente save sobrescribe el pago: su importe anterior deja de contar
+        Payment previous = payment.getId() != 0 ? paymentRepository.findById(payment.getId()).orElse(null) : null;
+        long previousEventId = previous != null ? eventId(previous) : 0;
+        double previousAmount = previous != null ? previous.getAmount() : 0;
+        Payment savedPayment = groupCommitWriter.save(paymentRepository, payment);
+        movePaid(previousEventId, previousAmount, savedPayment);
+        customerIndex.putPayment(savedPayment.getId(), savedPayment.getCustomerName());
+        return savedPayment;
     }
 
     // Obtener un pago por ID
+    @Cacheable(cacheNames = CacheConfig.PAYMENTS, key = "#id")
     public Payment getPaymentById(Long id) {
         return paymentRepository.findById(id)
                 .orElseThrow(() -> new PaymentNotFoundException("Payment not found with id: " + id));
     }
 
+    // Obtener varios pagos por ID en una sola consulta, en el orden pedido y con los ids que no existen
+    public MultiGetDto<Payment> getPaymentsByIds(List<Long> ids) {
+        return EntityBatches.findAllById(paymentRepository, ids, Payment::getId);
+    }
+
     // Actualizar un pago por ID
+    @CacheEvict(cacheNames = CacheConfig.PAYMENTS, key = "#id")
     public Payment updatePayment(Long id, Payment paymentDetails) {
         Payment existingPayment = paymentRepository.findById(id)
                 .orElseThrow(() -> new PaymentNotFoundException("Payment not found with id: " + id));
+        long previousEventId = eventId(existingPayment);
+        double previousAmount = existingPayment.getAmount();
 
         // Actualizar los campos necesarios
         existingPayment.setName(paymentDetails.getName());
@@ -50,12 +100,18 @@ public class PaymentService {
         existingPayment.setStatus(paymentDetails.getStatus());
         existingPayment.setReservation(paymentDetails.getReservation());
 
-        return paymentRepository.save(existingPayment);
+        Payment updatedPayment = groupCommitWriter.save(paymentRepository, existingPayment);
+        movePaid(previousEventId, previousAmount, updatedPayment);
+        customerIndex.putPayment(updatedPayment.getId(), updatedPayment.getCustomerName());
+        return updatedPayment;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PAYMENTS, key = "#id")
     public Payment updatePaymentPartial(Long id, Map<String, Object> updates) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
+        long previousEventId = eventId(payment);
+        double previousAmount = payment.getAmount();
 
         updates.forEach((key, value) -> {
             Field field = ReflectionUtils.findField(Payment.class, key);
@@ -65,39 +121,77 @@ public class PaymentService {
             }
         });
 
-        return paymentRepository.save(payment);
+        Payment updatedPayment = groupCommitWriter.save(paymentRepository, payment);
+        movePaid(previousEventId, previousAmount, updatedPayment);
+        customerIndex.putPayment(updatedPayment.getId(), updatedPayment.getCustomerName());
+        return updatedPayment;
+    }
+
+    // Buscar pagos por nombre del cliente, aunque esté a medias o con erratas, del más parecido al menos
+    public List<PaymentOutDto> getPaymentsByCustomerName(String name, int limit) {
+        int size = QueryPages.pageSize(limit);
+        if (customerIndex.isLoaded()) {
+            return EntityBatches.findInOrder(customerIndex.findPayments(name, size),
+                    paymentRepository::findSummariesByIdIn, PaymentOutDto::getId);
+        }
+        // Arranque en frío: solo los nombres que contienen el término tal cual
+        return paymentRepository.findSummariesByCustomerNameContaining(name).stream().limit(size).toList();
     }
 
     // Buscar pagos por fecha
-    public List<Payment> getPaymentsByDate(LocalDate date) {
-        return paymentRepository.findByPaymentDate(date);
+    public List<PaymentOutDto> getPaymentsByDate(LocalDate date) {
+        return paymentRepository.findSummariesByPaymentDate(date);
     }
 
     // Buscar pagos entre dos fechas
-    public List<Payment> getPaymentsBetweenDates(LocalDate startDate, LocalDate endDate) {
-        return paymentRepository.findByPaymentDateBetween(startDate, endDate);
+    public List<PaymentOutDto> getPaymentsBetweenDates(LocalDate startDate, LocalDate endDate) {
+        return paymentRepository.findSummariesByPaymentDateBetween(startDate, endDate);
     }
 
     // Buscar pagos por estado
-    public List<Payment> getPaymentsByStatus(String status) {
-        return paymentRepository.findByStatus(status);
+    public List<PaymentOutDto> getPaymentsByStatus(String status) {
+        return paymentRepository.findSummariesByStatus(status);
     }
 
     // Buscar pagos por monto mayor o igual
-    public List<Payment> getPaymentsByAmount(double amount) {
-        return paymentRepository.findByAmountGreaterThanEqual(amount);
+    public List<PaymentOutDto> getPaymentsByAmount(double amount) {
+        return paymentRepository.findSummariesByAmountGreaterThanEqual(amount);
     }
 
     // Buscar pagos por ID de reserva
-    public List<Payment> getPaymentsByReservation(Long reservationId) {
-        return paymentRepository.findByReservationId(reservationId);
+    public List<PaymentOutDto> getPaymentsByReservation(Long reservationId) {
+        return paymentRepository.findSummariesByReservationId(reservationId);
+    }
+
+    // Buscar pagos combinando cualquier subconjunto de filtros en una sola consulta, paginada y ordenada
+    public PageDto<PaymentOutDto> queryPayments(PaymentSpecifications.Filter filter, int page, int size, String sort) {
+        Pageable pageable = QueryPages.of(page, size, sort, PaymentSpecifications.SORTABLE);
+        return QueryPages.toDto(paymentRepository.findAll(PaymentSpecifications.matching(filter), pageable),
+                payment -> new PaymentOutDto(payment.getId(), payment.getName(), payment.getCustomerName(),
+                        payment.getPaymentDate(), payment.getAmount(), payment.getStatus(),
+                        payment.getReservation() != null ? payment.getReservation().getId() : 0));
     }
 
     // Eliminar un pago
+    @CacheEvict(cacheNames = CacheConfig.PAYMENTS, key = "#id")
     public void deletePayment(Long id) {
-        if (!paymentRepository.existsById(id)) {
-            throw new PaymentNotFoundException("Payment not found with id: " + id);
-        }
+        Payment payment = paymentRepository.findById(id)
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found with id: " + id));
         paymentRepository.deleteById(id);
+        paidAmounts.add(eventId(payment), -payment.getAmount());
+        customerIndex.removePayment(id);
+    }
+
+    // El importe del pago deja de contar en el evento donde estaba (0 si es nuevo) y cuenta en el de su reserva
+    private void movePaid(long previousEventId, double previousAmount, Payment payment) {
+        paidAmounts.add(previousEventId, -previousAmount);
+        paidAmounts.add(eventId(payment), payment.getAmount());
+    }
+
+    // El pago puede traer solo el id de la reserva: el evento se consulta aparte
+    private long eventId(Payment payment) {
+        return payment.getReservation() != null
+                ? reservationRepository.findEventIdById(payment.getReservation().getId()).orElse(0L)
+                : 0;
     }
 }
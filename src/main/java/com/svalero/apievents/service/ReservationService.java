@@ -1,25 +1,56 @@
 package com.svalero.apievents.service;
 
+import com.svalero.apievents.config.CacheConfig;
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.domain.dto.PageDto;
+import com.svalero.apievents.domain.dto.ReservationOutDto;
+import com.svalero.apievents.exception.NotEnoughSeatsException;
 import com.svalero.apievents.exception.ReservationNotFoundException;
+import com.svalero.apievents.index.CustomerIndex;
+import com.svalero.apievents.index.PaidAmounts;
+import com.svalero.apievents.index.SeatInventory;
+import com.svalero.apievents.index.TrendingEvents;
+import com.svalero.apievents.repository.EntityBatches;
+import com.svalero.apievents.repository.EntityStreams;
+import com.svalero.apievents.repository.QueryPages;
 import com.svalero.apievents.repository.ReservationRepository;
+import com.svalero.apievents.repository.ReservationSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class ReservationService {
 
     private final ReservationRepository reservationRepository;
+    private final SeatInventory seatInventory;
+    private final TrendingEvents trendingEvents;
+    private final BookingService bookingService;
+    private final PaidAmounts paidAmounts;
+    private final CustomerIndex customerIndex;
 
     @Autowired
-    public ReservationService(ReservationRepository reservationRepository) {
+    public ReservationService(ReservationRepository reservationRepository, SeatInventory seatInventory,
+                              TrendingEvents trendingEvents, BookingService bookingService,
+                              PaidAmounts paidAmounts, CustomerIndex customerIndex) {
         this.reservationRepository = reservationRepository;
+        this.seatInventory = seatInventory;
+        this.trendingEvents = trendingEvents;
+        this.bookingService = bookingService;
+        this.paidAmounts = paidAmounts;
+        this.customerIndex = customerIndex;
     }
 
     // Obtener todas las reservas
@@ -27,77 +58,177 @@ public class ReservationService {
         return reservationRepository.findAll();
     }
 
-    // Obtener reservas por nombre del cliente
-    public List<Reservation> getReservationsByCustomerName(String name) {
-        return reservationRepository.findByCustomerNameContaining(name);
+    // Recorrer todas las reservas en streaming: las filas se entregan una a una sin cargar la tabla en memoria
+    @Transactional(readOnly = true)
+    public long streamAllReservations(Consumer<ReservationOutDto> action) {
+        return EntityStreams.forEach(reservationRepository.streamAll(), action);
+    }
+
+    // Obtener reservas por nombre o email del cliente, aunque estén a medias o con erratas, de la más parecida a la menos
+    public List<ReservationOutDto> getReservationsByCustomerName(String name, int limit) {
+        int size = QueryPages.pageSize(limit);
+        if (customerIndex.isLoaded()) {
+            return EntityBatches.findInOrder(customerIndex.findReservations(name, size),
+                    reservationRepository::findSummariesByIdIn, ReservationOutDto::getId);
+        }
+        // Arranque en frío: solo los nombres que contienen el término tal cual
+        return reservationRepository.findSummariesByCustomerNameContaining(name).stream().limit(size).toList();
     }
 
     // Obtener reservas por fecha específica
-    public List<Reservation> getReservationsByDate(LocalDate date) {
-        return reservationRepository.findByReservationDate(date);
+    public List<ReservationOutDto> getReservationsByDate(LocalDate date) {
+        return reservationRepository.findSummariesByReservationDate(date);
     }
 
     // Obtener reservas entre dos fechas
-    public List<Reservation> getReservationsBetweenDates(LocalDate startDate, LocalDate endDate) {
-        return reservationRepository.findByReservationDateBetween(startDate, endDate);
+    public List<ReservationOutDto> getReservationsBetweenDates(LocalDate startDate, LocalDate endDate) {
+        return reservationRepository.findSummariesByReservationDateBetween(startDate, endDate);
     }
 
     // Obtener reservas por cantidad de entradas
-    public List<Reservation> getReservationsByQuantity(int quantity) {
-        return reservationRepository.findByQuantity(quantity);
+    public List<ReservationOutDto> getReservationsByQuantity(int quantity) {
+        return reservationRepository.findSummariesByQuantity(quantity);
     }
 
     // Obtener reservas asociadas a un evento
-    public List<Reservation> getReservationsByEvent(Long eventId) {
-        return reservationRepository.findByEventId(eventId);
+    public List<ReservationOutDto> getReservationsByEvent(Long eventId) {
+        return reservationRepository.findSummariesByEventId(eventId);
+    }
+
+    // Buscar reservas combinando cualquier subconjunto de filtros en una sola consulta, paginada y ordenada
+    public PageDto<ReservationOutDto> queryReservations(ReservationSpecifications.Filter filter, int page, int size,
+                                                        String sort) {
+        Pageable pageable = QueryPages.of(page, size, sort, ReservationSpecifications.SORTABLE);
+        return QueryPages.toDto(reservationRepository.findAll(ReservationSpecifications.matching(filter), pageable),
+                reservation -> new ReservationOutDto(reservation.getId(), reservation.getName(),
+                        reservation.getCustomerName(), reservation.getEmail(), reservation.getReservationDate(),
+                        reservation.getQuantity(), eventId(reservation)));
     }
 
     // Guardar una nueva reserva
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RESERVATIONS, key = "#reservation.id"),
+            @CacheEvict(cacheNames = {CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public Reservation saveReservation(Reservation reservation) {
-        return reservationRepository.save(reservation);
+        long eventId = eventId(reservation);
+        int quantity = reservation.getQuantity();
+        BookingService.checkQuantity(quantity);
+        // El inventario en memoria descarta sin ir a la base de datos las reservas que ya no caben
+        reserveSeats(eventId, quantity);
+        BookingService.Booking booking;
+        try {
+            booking = bookingService.book(reservation);
+        } catch (RuntimeException e) {
+            // La reserva no se ha guardado: sus entradas vuelven a estar libres
+            seatInventory.release(eventId, quantity);
+            throw e;
+        }
+        long reservationId = booking.reservation().getId();
+        if (booking.previousQuantity() != 0) {
+            // Ha sustituido a una reserva existente: las entradas que tenía vuelven a estar libres y en
+            // tendencias sigue contando en la hora en que se apuntó
+            seatInventory.release(booking.previousEventId(), booking.previousQuantity());
+            trendingEvents.change(reservationId, eventId, quantity);
+        } else {
+            trendingEvents.record(reservationId, eventId, quantity);
+        }
+        if (booking.previousEventId() != 0) {
+            // Los pagos de la reserva sustituida pasan a contar en el evento nuevo
+            paidAmounts.moveReservation(reservationId, booking.previousEventId(), eventId);
+        }
+        return indexCustomer(booking.reservation());
     }
 
     // Obtener una reserva por ID
+    @Cacheable(cacheNames = CacheConfig.RESERVATIONS, key = "#id")
     public Reservation getReservationById(Long id) {
         return reservationRepository.findById(id)
                 .orElseThrow(() -> new ReservationNotFoundException("Reservation not found with id: " + id));
     }
 
+    // Obtener varias reservas por ID en una sola consulta, en el orden pedido y con los ids que no existen
+    public MultiGetDto<Reservation> getReservationsByIds(List<Long> ids) {
+        return EntityBatches.findAllById(reservationRepository, ids, Reservation::getId);
+    }
+
     // Actualizar una reserva por ID
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RESERVATIONS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public Reservation updateReservation(Long id, Reservation reservationDetails) {
-        Reservation existingReservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new ReservationNotFoundException("Reservation not found with id: " + id));
-
-        // Actualizar los campos de la reserva
-        existingReservation.setCustomerName(reservationDetails.getCustomerName());
-        existingReservation.setEmail(reservationDetails.getEmail());
-        existingReservation.setReservationDate(reservationDetails.getReservationDate());
-        existingReservation.setQuantity(reservationDetails.getQuantity());
-        existingReservation.setEvent(reservationDetails.getEvent());
-
-        return reservationRepository.save(existingReservation);
+        BookingService.Booking booking = bookingService.rebook(id, existingReservation -> {
+            // Actualizar los campos de la reserva
+            existingReservation.setCustomerName(reservationDetails.getCustomerName());
+            existingReservation.setEmail(reservationDetails.getEmail());
+            existingReservation.setReservationDate(reservationDetails.getReservationDate());
+            existingReservation.setQuantity(reservationDetails.getQuantity());
+            existingReservation.setEvent(reservationDetails.getEvent());
+        });
+        return indexCustomer(moveSeats(booking));
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RESERVATIONS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public Reservation updateReservationPartial(Long id, Map<String, Object> updates) {
-        Reservation reservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Reservation not found with id: " + id));
-
-        updates.forEach((key, value) -> {
+        BookingService.Booking booking = bookingService.rebook(id, reservation -> updates.forEach((key, value) -> {
             Field field = ReflectionUtils.findField(Reservation.class, key);
-            if (field != null) {
+            // La versión la lleva Hibernate
+            if (field != null && !"version".equals(key)) {
                 field.setAccessible(true);
                 ReflectionUtils.setField(field, reservation, value);
             }
-        });
-
-        return reservationRepository.save(reservation);
+        }));
+        return indexCustomer(moveSeats(booking));
     }
 
     // Eliminar una reserva por ID
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RESERVATIONS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.PAYMENTS}, allEntries = true)
+    })
     public void deleteReservation(Long id) {
-        if (!reservationRepository.existsById(id)) {
-            throw new ReservationNotFoundException("Reservation not found with id: " + id);
-        }
+        Reservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation not found with id: " + id));
         reservationRepository.deleteById(id);
+        seatInventory.release(eventId(reservation), reservation.getQuantity());
+        trendingEvents.remove(id);
+        customerIndex.removeReservation(id);
+    }
+
+    // Pasa en memoria las entradas de una reserva cambiada del evento y cantidad anteriores a los nuevos.
+    // El aforo ya lo ha comprobado la base de datos, así que se apuntan sin comprobarlo otra vez
+    private Reservation moveSeats(BookingService.Booking booking) {
+        Reservation reservation = booking.reservation();
+        long eventId = eventId(reservation);
+        if (eventId == booking.previousEventId()) {
+            seatInventory.release(eventId, booking.previousQuantity() - reservation.getQuantity());
+        } else {
+            seatInventory.release(booking.previousEventId(), booking.previousQuantity());
+            seatInventory.release(eventId, -reservation.getQuantity());
+            // Lo pagado por la reserva se va con ella al otro evento
+            paidAmounts.moveReservation(reservation.getId(), booking.previousEventId(), eventId);
+        }
+        trendingEvents.change(reservation.getId(), eventId, reservation.getQuantity());
+        return reservation;
+    }
+
+    private Reservation indexCustomer(Reservation reservation) {
+        customerIndex.putReservation(reservation.getId(), reservation.getCustomerName(), reservation.getEmail());
+        return reservation;
+    }
+
+    private void reserveSeats(long eventId, int quantity) {
+        // Sin evento no hay inventario que comprobar; la base de datos rechaza la reserva
+        if (eventId != 0 && !seatInventory.tryReserve(eventId, quantity)) {
+            throw new NotEnoughSeatsException("Not enough seats left in event " + eventId + " for " + quantity + " tickets");
+        }
+    }
+
+    private long eventId(Reservation reservation) {
+        return reservation.getEvent() != null ? reservation.getEvent().getId() : 0;
     }
 }
@@ -0,0 +1,54 @@
+package com.svalero.apievents.service;
+
+import com.svalero.apievents.domain.dto.SuggestionDto;
+import com.svalero.apievents.domain.dto.SuggestionsDto;
+import com.svalero.apievents.index.CategoryIndexes;
+import com.svalero.apievents.index.CategorySuggestIndex;
+import com.svalero.apievents.index.EventIndexes;
+import com.svalero.apievents.index.EventSuggestIndex;
+import com.svalero.apievents.index.PrefixTrie;
+import com.svalero.apievents.repository.EventCategoryRepository;
+import com.svalero.apievents.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Autocompletado de nombres de eventos y categorías
+@Service
+public class SuggestionService {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    private final EventSuggestIndex eventSuggestIndex;
+    private final CategorySuggestIndex categorySuggestIndex;
+    private final EventIndexes eventIndexes;
+    private final CategoryIndexes categoryIndexes;
+    private final EventRepository eventRepository;
+    private final EventCategoryRepository categoryRepository;
+
+    @Autowired
+    public SuggestionService(EventSuggestIndex eventSuggestIndex, CategorySuggestIndex categorySuggestIndex,
+                             EventIndexes eventIndexes, CategoryIndexes categoryIndexes,
+                             EventRepository eventRepository, EventCategoryRepository categoryRepository) {
+        this.eventSuggestIndex = eventSuggestIndex;
+        this.categorySuggestIndex = categorySuggestIndex;
+        this.eventIndexes = eventIndexes;
+        this.categoryIndexes = categoryIndexes;
+        this.eventRepository = eventRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    // Eventos y categorías con alguna palabra del nombre que empieza por el prefijo
+    public SuggestionsDto suggest(String prefix, int limit) {
+        int size = limit < 1 ? DEFAULT_LIMIT : Math.min(limit, PrefixTrie.TOP_K);
+        // Arranque en frío: candidatos por LIKE en la base de datos, ordenados igual que en el índice
+        List<SuggestionDto> events = eventIndexes.isLoaded()
+                ? eventSuggestIndex.suggest(prefix, size)
+                : EventSuggestIndex.suggest(eventRepository.findByEventNameContainingIgnoreCase(prefix), prefix, size);
+        List<SuggestionDto> categories = categoryIndexes.isLoaded()
+                ? categorySuggestIndex.suggest(prefix, size)
+                : CategorySuggestIndex.suggest(categoryRepository.findByNameContainingIgnoreCase(prefix), prefix, size);
+        return new SuggestionsDto(events, categories);
+    }
+}
@@ -1,24 +1,39 @@
 package com.svalero.apievents.service;
 
+import com.svalero.apievents.config.CacheConfig;
 import com.svalero.apievents.domain.User;
+import com.svalero.apievents.domain.dto.MultiGetDto;
 import com.svalero.apievents.exception.UserNotFoundException;
+import com.svalero.apievents.repository.EntityBatches;
+import com.svalero.apievents.repository.EntityStreams;
+import com.svalero.apievents.repository.GroupCommitWriter;
 import com.svalero.apievents.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final GroupCommitWriter groupCommitWriter;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, EntityManager entityManager,
+                       GroupCommitWriter groupCommitWriter) {
         this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.groupCommitWriter = groupCommitWriter;
     }
 
     // Obtener todos los usuarios
@@ -26,6 +41,12 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    // Recorrer todos los usuarios en streaming: las filas se entregan una a una sin cargar la tabla en memoria
+    @Transactional(readOnly = true)
+    public long streamAllUsers(Consumer<User> action) {
+        return EntityStreams.forEachDetached(userRepository.streamAll(), entityManager, action);
+    }
+
     // Buscar un usuario por email
     //public User getUserByEmail(String email) {return userRepository.findByEmail(email);}
     public User getUserByEmail(String email) throws UserNotFoundException {
@@ -36,17 +57,31 @@ public class UserService {
         return user;
     }
 
+    // Obtener un usuario por ID
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#id")
+    public User getUserById(Long id) throws UserNotFoundException {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+    }
+
+    // Obtener varios usuarios por ID en una sola consulta, en el orden pedido y con los ids que no existen
+    public MultiGetDto<User> getUsersByIds(List<Long> ids) {
+        return EntityBatches.findAllById(userRepository, ids, User::getId);
+    }
+
     // Obtener usuarios activos
     public List<User> getActiveUsers() {
         return userRepository.findByActiveTrue();
     }
 
     // Guardar un nuevo usuario
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#user.id")
     public User saveUser(User user) {
-        return userRepository.save(user);
+        return groupCommitWriter.save(userRepository, user);
     }
 
     // Actualizar un usuario por ID
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public User updateUser(Long id, User userDetails) throws UserNotFoundException {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
@@ -54,9 +89,10 @@ public class UserService {
         // Actualizar los campos necesarios
         existingUser.setName(userDetails.getName());
         existingUser.setEmail(userDetails.getEmail());
-        return userRepository.save(existingUser);
+        return groupCommitWriter.save(userRepository, existingUser);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public User updateUserPartial(Long id, Map<String, Object> updates) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -69,11 +105,12 @@ public class UserService {
             }
         });
 
-        return userRepository.save(user);
+        return groupCommitWriter.save(userRepository, user);
     }
 
 
     // Eliminar un usuario por ID
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public void deleteUser(Long id) throws UserNotFoundException {
         if (!userRepository.existsById(id)) {
             throw new UserNotFoundException("User not found with id: " + id);
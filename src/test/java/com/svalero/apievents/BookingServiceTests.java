@@ -0,0 +1,186 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.exception.BookingConflictException;
+import com.svalero.apievents.exception.InvalidQuantityException;
+import com.svalero.apievents.exception.NotEnoughSeatsException;
+import com.svalero.apievents.repository.EventRepository;
+import com.svalero.apievents.repository.ReservationRepository;
+import com.svalero.apievents.service.BookingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin transacción por test: los hilos tienen que ver lo que confirman los demás
+@DataJpaTest
+@Import(BookingService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingServiceTests {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        eventRepository.deleteAll();
+    }
+
+    @Test
+    void testBookChecksCapacity() {
+        Event event = saveEvent("Concert", 5);
+
+        BookingService.Booking booking = bookingService.book(reservation("R1", event, 3));
+
+        assertNotEquals(0, booking.reservation().getId());
+        assertEquals(0, booking.previousQuantity());
+        assertThrows(NotEnoughSeatsException.class, () -> bookingService.book(reservation("R2", event, 3)));
+        assertEquals(3, reservationRepository.sumQuantityByEventId(event.getId()));
+    }
+
+    @Test
+    void testRebookDoesNotCountOwnSeats() {
+        Event event = saveEvent("Concert", 5);
+        long id = bookingService.book(reservation("R1", event, 4)).reservation().getId();
+
+        BookingService.Booking booking = bookingService.rebook(id, reservation -> reservation.setQuantity(5));
+
+        assertEquals(4, booking.previousQuantity());
+        assertEquals(event.getId(), booking.previousEventId());
+        assertEquals(5, reservationRepository.sumQuantityByEventId(event.getId()));
+        assertThrows(NotEnoughSeatsException.class,
+                () -> bookingService.rebook(id, reservation -> reservation.setQuantity(6)));
+    }
+
+    @Test
+    void testRebookRejectsNegativeQuantity() {
+        Event event = saveEvent("Concert", 5);
+        long id = bookingService.book(reservation("R1", event, 2)).reservation().getId();
+
+        assertThrows(InvalidQuantityException.class,
+                () -> bookingService.rebook(id, reservation -> reservation.setQuantity(-2)));
+        assertEquals(2, reservationRepository.sumQuantityByEventId(event.getId()));
+    }
+
+    @Test
+    void testConcurrentBookingsNeverOversell() throws InterruptedException {
+        Event event = saveEvent("Concert", 20);
+        Result result = bookConcurrently(event, 50);
+
+        assertEquals(50, result.booked + result.soldOut + result.conflicts);
+        assertTrue(result.booked <= 20);
+        assertEquals(result.booked, reservationRepository.sumQuantityByEventId(event.getId()));
+    }
+
+    // mvn test -Dtest=BookingServiceTests -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmarkOneThousandParallelBookers() throws InterruptedException {
+        Event event = saveEvent("Concert", 800);
+        long start = System.nanoTime();
+        Result result = bookConcurrently(event, 1000);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] nanos = result.nanos;
+        Arrays.sort(nanos);
+        System.out.printf("BookingService 1000 bookers: %.0f bookings/s, %d booked, %d sold out, %d conflicts,"
+                        + " %.2f retries per booking, p50 %d ms, p99 %d ms%n",
+                1000 / seconds, result.booked, result.soldOut, result.conflicts,
+                (double) result.retries.get() / 1000, nanos[500] / 1_000_000, nanos[990] / 1_000_000);
+        assertTrue(result.booked <= 800);
+        assertEquals(result.booked, reservationRepository.sumQuantityByEventId(event.getId()));
+    }
+
+    private Result bookConcurrently(Event event, int bookers) throws InterruptedException {
+        Result result = new Result(bookers);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(bookers, 64));
+        for (int i = 0; i < bookers; i++) {
+            int booker = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long begin = System.nanoTime();
+                try {
+                    BookingService.Booking booking = bookingService.book(reservation("R" + booker, event, 1));
+                    result.retries.addAndGet(booking.attempts() - 1);
+                    booked.incrementAndGet();
+                } catch (NotEnoughSeatsException e) {
+                    soldOut.incrementAndGet();
+                } catch (BookingConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                result.nanos[booker] = System.nanoTime() - begin;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        result.booked = booked.get();
+        result.soldOut = soldOut.get();
+        result.conflicts = conflicts.get();
+        return result;
+    }
+
+    private static final class Result {
+        private final long[] nanos;
+        private final AtomicInteger retries = new AtomicInteger();
+        private int booked;
+        private int soldOut;
+        private int conflicts;
+
+        private Result(int bookers) {
+            this.nanos = new long[bookers];
+        }
+    }
+
+    private Event saveEvent(String name, int capacity) {
+        Event event = new Event();
+        event.setEventName(name);
+        event.setEventDate(LocalDate.now().plusDays(10));
+        event.setCapacity(capacity);
+        event.setUbication("Zaragoza");
+        return eventRepository.save(event);
+    }
+
+    private static Reservation reservation(String name, Event event, int quantity) {
+        Event reference = new Event();
+        reference.setId(event.getId());
+        Reservation reservation = new Reservation();
+        reservation.setName(name);
+        reservation.setCustomerName("Customer " + name);
+        reservation.setReservationDate(LocalDate.now());
+        reservation.setQuantity(quantity);
+        reservation.setEvent(reference);
+        return reservation;
+    }
+}
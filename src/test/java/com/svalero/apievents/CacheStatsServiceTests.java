@@ -0,0 +1,47 @@
+package com.svalero.apievents;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.svalero.apievents.domain.dto.CacheStatsDto;
+import com.svalero.apievents.service.CacheStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheStatsServiceTests {
+
+    private CaffeineCacheManager cacheManager;
+    private CacheStatsService cacheStatsService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager("events", "users");
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+        cacheStatsService = new CacheStatsService(cacheManager);
+    }
+
+    // 📌 Test para contar aciertos y fallos de una cache
+    @Test
+    void testGetCacheStats() {
+        Cache events = cacheManager.getCache("events");
+        events.get(1L);
+        events.put(1L, "event");
+        events.get(1L);
+        events.get(1L);
+
+        List<CacheStatsDto> stats = cacheStatsService.getCacheStats();
+
+        assertEquals(2, stats.size());
+        CacheStatsDto eventStats = stats.get(0);
+        assertEquals("events", eventStats.getName());
+        assertEquals(1, eventStats.getSize());
+        assertEquals(2, eventStats.getHitCount());
+        assertEquals(1, eventStats.getMissCount());
+        assertEquals(2.0 / 3, eventStats.getHitRate(), 1e-9);
+        assertEquals(0, stats.get(1).getHitCount());
+    }
+}
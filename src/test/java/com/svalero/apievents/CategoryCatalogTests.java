@@ -0,0 +1,77 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.index.CategoryCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryCatalogTests {
+
+    private CategoryCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new CategoryCatalog();
+        catalog.rebuild(List.of(
+                category(3L, LocalDate.of(2024, 3, 1), 7, true),
+                category(1L, LocalDate.of(2024, 1, 1), 2, true),
+                category(2L, LocalDate.of(2024, 2, 1), 7, false),
+                category(4L, null, 0, null)));
+    }
+
+    @Test
+    void testFindByActive() {
+        assertEquals(List.of(1L, 3L), ids(catalog.findByActiveTrue()));
+        assertEquals(List.of(2L), ids(catalog.findByActiveFalse()));
+    }
+
+    @Test
+    void testFindByCreationDate() {
+        assertEquals(List.of(2L), ids(catalog.findByCreationDate(LocalDate.of(2024, 2, 1))));
+        assertEquals(List.of(3L), ids(catalog.findByCreationDateAfter(LocalDate.of(2024, 2, 1))));
+        assertEquals(List.of(1L), ids(catalog.findByCreationDateBefore(LocalDate.of(2024, 2, 1))));
+        assertEquals(List.of(1L, 2L, 3L), ids(catalog.findByCreationDateAfter(LocalDate.of(2023, 12, 31))));
+    }
+
+    @Test
+    void testFindByNumberEvents() {
+        assertEquals(List.of(2L, 3L), ids(catalog.findByNumberEvents(7)));
+        assertEquals(List.of(1L, 2L, 3L), ids(catalog.findByNumberEventsGreaterThanEqual(1)));
+        assertTrue(catalog.findByNumberEventsGreaterThanEqual(8).isEmpty());
+    }
+
+    @Test
+    void testWritesPublishNewSnapshot() {
+        List<EventCategory> before = catalog.findByActiveTrue();
+
+        catalog.put(category(5L, LocalDate.of(2024, 5, 1), 1, true));
+        catalog.put(category(1L, LocalDate.of(2024, 1, 1), 9, false));
+        catalog.remove(3L);
+
+        assertEquals(List.of(1L, 3L), ids(before));
+        assertEquals(List.of(5L), ids(catalog.findByActiveTrue()));
+        assertEquals(List.of(1L, 2L), ids(catalog.findByActiveFalse()));
+        assertEquals(List.of(1L), ids(catalog.findByNumberEventsGreaterThanEqual(8)));
+        assertEquals(9, catalog.findById(1L).orElseThrow().getNumberEvents());
+        assertTrue(catalog.findById(3L).isEmpty());
+    }
+
+    private static List<Long> ids(List<EventCategory> categories) {
+        return categories.stream().map(EventCategory::getId).toList();
+    }
+
+    private static EventCategory category(long id, LocalDate creationDate, int numberEvents, Boolean active) {
+        EventCategory category = new EventCategory();
+        category.setId(id);
+        category.setName("Category " + id);
+        category.setCreationDate(creationDate);
+        category.setNumberEvents(numberEvents);
+        category.setActive(active);
+        return category;
+    }
+}
@@ -0,0 +1,177 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.config.CacheConfig;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CategoryEventCountDto;
+import com.svalero.apievents.index.CategoryEventCounters;
+import com.svalero.apievents.index.CategoryIndexes;
+import com.svalero.apievents.repository.EventCategoryRepository;
+import com.svalero.apievents.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryEventCountersTests {
+
+    @Mock
+    private EventCategoryRepository categoryRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private CategoryIndexes categoryIndexes;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Cache categoryCache;
+
+    @Mock
+    private Cache eventCache;
+
+    private CategoryEventCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new CategoryEventCounters(categoryRepository, eventRepository, categoryIndexes, cacheManager,
+                transactionManager);
+    }
+
+    @Test
+    void testFlushGroupsCategoriesByDelta() {
+        EventCategory music = category(1L, 3);
+        when(categoryRepository.findAllById(anyIterable())).thenReturn(List.of(music));
+        when(cacheManager.getCache(CacheConfig.EVENT_CATEGORIES)).thenReturn(categoryCache);
+        when(cacheManager.getCache(CacheConfig.EVENTS)).thenReturn(eventCache);
+        for (int i = 0; i < 3; i++) {
+            counters.increment(1L);
+            counters.increment(2L);
+        }
+        counters.move(3L, 4L);
+        counters.decrement(5L);
+        counters.increment(0L);
+
+        counters.flush();
+
+        verify(categoryRepository).addNumberEvents(eq(3), argThat(ids -> sameIds(ids, 1L, 2L)));
+        verify(categoryRepository).addNumberEvents(eq(-1), argThat(ids -> sameIds(ids, 3L, 5L)));
+        verify(categoryRepository).addNumberEvents(eq(1), argThat(ids -> sameIds(ids, 4L)));
+        verify(categoryIndexes).put(music);
+        verify(categoryCache).evict(1L);
+        // Los eventos en caché llevan el contador de su categoría
+        verify(eventCache).clear();
+
+        // Sin cambios nuevos no hay nada que escribir
+        counters.flush();
+        verify(categoryRepository, times(3)).addNumberEvents(anyInt(), anyCollection());
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        counters.increment(1L);
+        when(categoryRepository.addNumberEvents(anyInt(), anyCollection()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> counters.flush());
+        counters.increment(1L);
+        counters.flush();
+
+        verify(categoryRepository).addNumberEvents(2, List.of(1L));
+    }
+
+    @Test
+    void testReconcileFixesDriftedCounts() {
+        counters.increment(1L);
+        when(eventRepository.countGroupByCategory()).thenReturn(List.of(new CategoryEventCountDto(1L, 4)));
+        when(categoryRepository.findAll()).thenReturn(List.of(category(1L, 2), category(2L, 3), category(3L, 0)));
+
+        counters.reconcile();
+
+        verify(categoryRepository).setNumberEvents(4, List.of(1L));
+        verify(categoryRepository).setNumberEvents(0, List.of(2L));
+        verify(categoryRepository, times(2)).setNumberEvents(anyInt(), anyCollection());
+
+        // Lo acumulado antes del recuento ya está contado
+        counters.flush();
+        verify(categoryRepository, never()).addNumberEvents(anyInt(), anyCollection());
+    }
+
+    @Test
+    void testEventSavedDuringReconcileIsNotCountedTwice() {
+        // El evento se guarda y se cuenta mientras se hace el recuento, que ya lo incluye
+        when(eventRepository.countGroupByCategory()).thenAnswer(invocation -> {
+            counters.increment(1L);
+            return List.of(new CategoryEventCountDto(1L, 5));
+        });
+        when(categoryRepository.findAll()).thenReturn(List.of(category(1L, 4)));
+
+        counters.reconcile();
+        counters.flush();
+
+        verify(categoryRepository).setNumberEvents(5, List.of(1L));
+        verify(categoryRepository, never()).addNumberEvents(anyInt(), anyCollection());
+    }
+
+    @Test
+    void testConcurrentIncrementsAreNotLost() throws InterruptedException {
+        int threads = 8;
+        int eventsPerThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < eventsPerThread; j++) {
+                    counters.increment(1L);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        counters.flush();
+
+        verify(categoryRepository).addNumberEvents(threads * eventsPerThread, List.of(1L));
+    }
+
+    private static boolean sameIds(Collection<Long> ids, Long... expected) {
+        return ids != null && ids.size() == expected.length && Set.copyOf(ids).equals(Set.of(expected));
+    }
+
+    private EventCategory category(long id, int numberEvents) {
+        EventCategory category = new EventCategory();
+        category.setId(id);
+        category.setNumberEvents(numberEvents);
+        return category;
+    }
+}
@@ -0,0 +1,107 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.dto.PaymentOutDto;
+import com.svalero.apievents.domain.dto.ReservationOutDto;
+import com.svalero.apievents.index.CustomerIndex;
+import com.svalero.apievents.repository.PaymentRepository;
+import com.svalero.apievents.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomerIndexTests {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerIndex customerIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(reservationRepository.streamAll()).thenReturn(Stream.of(
+                reservation(1L, "Carlos Pérez", "carlos.perez@example.com"),
+                reservation(2L, "Carla Pardo", "cpardo@example.com"),
+                reservation(3L, "María González", "maria@example.com")));
+        when(paymentRepository.streamAll()).thenReturn(Stream.of(
+                payment(10L, "Jonathan Smith"),
+                payment(11L, "John Doe")));
+        customerIndex = new CustomerIndex(reservationRepository, paymentRepository, transactionManager);
+        customerIndex.load();
+    }
+
+    @Test
+    void testLoadReadsBothTables() {
+        assertTrue(customerIndex.isLoaded());
+        assertEquals(List.of(1L), customerIndex.findReservations("perez", 10));
+        assertEquals(List.of(11L), customerIndex.findPayments("doe", 10));
+    }
+
+    @Test
+    void testPartialNamesMatchAsSubstrings() {
+        assertEquals(List.of(3L), customerIndex.findReservations("gonzal", 10));
+        assertEquals(List.of(1L, 2L), customerIndex.findReservations("CAR", 10));
+    }
+
+    @Test
+    void testTyposRankedByDistance() {
+        // Una trasposición en la primera palabra y una letra cambiada en la segunda
+        assertEquals(List.of(1L), customerIndex.findReservations("Calros Peres", 10));
+        // Carlos contiene el término y Carla está a una letra
+        assertEquals(List.of(1L, 2L), customerIndex.findReservations("carlo", 10));
+        assertEquals(List.of(11L), customerIndex.findPayments("Jhon Deo", 10));
+        // Una palabra con errata y otra a medias
+        assertEquals(List.of(3L), customerIndex.findReservations("Marai Gonz", 10));
+    }
+
+    @Test
+    void testShortWordsNeedCloserMatches() {
+        // "doe" solo admite una errata: "dxx" está a dos
+        assertTrue(customerIndex.findPayments("dxx", 10).isEmpty());
+        assertTrue(customerIndex.findReservations("", 10).isEmpty());
+    }
+
+    @Test
+    void testEmailMatchesReservation() {
+        assertEquals(List.of(2L), customerIndex.findReservations("cpardo@example", 10));
+        assertEquals(List.of(1L), customerIndex.findReservations("carlos.perez", 1));
+    }
+
+    @Test
+    void testWritesUpdateTheIndex() {
+        customerIndex.putReservation(2L, "Lucía Martín", "lucia@example.com");
+        customerIndex.removeReservation(3L);
+        customerIndex.putPayment(12L, "Johanna Schmidt");
+        customerIndex.removePayment(10L);
+
+        assertTrue(customerIndex.findReservations("pardo", 10).isEmpty());
+        assertEquals(List.of(2L), customerIndex.findReservations("lucia martin", 10));
+        assertTrue(customerIndex.findReservations("gonzalez", 10).isEmpty());
+        assertEquals(List.of(12L), customerIndex.findPayments("Johana Schmit", 10));
+        assertTrue(customerIndex.findPayments("jonathan", 10).isEmpty());
+    }
+
+    private static ReservationOutDto reservation(long id, String customerName, String email) {
+        return new ReservationOutDto(id, "R" + id, customerName, email, LocalDate.of(2025, 5, 20), 1, 1L);
+    }
+
+    private static PaymentOutDto payment(long id, String customerName) {
+        return new PaymentOutDto(id, "P" + id, customerName, LocalDate.of(2025, 5, 20), 50.0, "PAID", 1L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Payment;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.repository.EntityBatches;
+import com.svalero.apievents.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EntityBatchesTests {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void testResultsInRequestOrderWithMissingIds() {
+        when(paymentRepository.findAllById(List.of(3L, 1L, 2L))).thenReturn(List.of(payment(1L), payment(3L)));
+
+        MultiGetDto<Payment> result = EntityBatches.findAllById(paymentRepository, Arrays.asList(3L, 1L, null, 3L, 2L),
+                Payment::getId);
+
+        assertEquals(List.of(3L, 1L), result.getItems().stream().map(Payment::getId).toList());
+        assertEquals(List.of(2L), result.getMissing());
+        verify(paymentRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void testLongListsAreSplitIntoChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 2 * EntityBatches.MAX_IN_LIST + 1).boxed().toList();
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(paymentRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            return chunk.stream().map(this::payment).toList();
+        });
+
+        MultiGetDto<Payment> result = EntityBatches.findAllById(paymentRepository, ids, Payment::getId);
+
+        assertEquals(List.of(EntityBatches.MAX_IN_LIST, EntityBatches.MAX_IN_LIST, 1), chunkSizes);
+        assertEquals(ids, result.getItems().stream().map(Payment::getId).toList());
+        assertTrue(result.getMissing().isEmpty());
+    }
+
+    @Test
+    void testEmptyListDoesNotQuery() {
+        MultiGetDto<Payment> result = EntityBatches.findAllById(paymentRepository, List.of(), Payment::getId);
+
+        assertTrue(result.getItems().isEmpty());
+        assertTrue(result.getMissing().isEmpty());
+        verifyNoInteractions(paymentRepository);
+    }
+
+    private Payment payment(long id) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        return payment;
+    }
+}
@@ -0,0 +1,72 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.index.CategoryVersions;
+import com.svalero.apievents.index.EntityVersions;
+import com.svalero.apievents.index.EventVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityVersionsTests {
+
+    private CategoryVersions categoryVersions;
+    private EventVersions eventVersions;
+
+    @BeforeEach
+    void setUp() {
+        categoryVersions = new CategoryVersions();
+        eventVersions = new EventVersions(categoryVersions);
+        categoryVersions.rebuild(List.of(category(1L)));
+        eventVersions.rebuild(List.of(event(1L), event(2L)));
+    }
+
+    @Test
+    void testWriteChangesEntityAndTableButNotOthers() {
+        EntityVersions.Version first = eventVersions.of(1L);
+        EntityVersions.Version second = eventVersions.of(2L);
+        EntityVersions.Version table = eventVersions.ofTable();
+
+        eventVersions.put(event(1L));
+
+        assertNotEquals(first.etag(), eventVersions.of(1L).etag());
+        assertEquals(second.etag(), eventVersions.of(2L).etag());
+        assertNotEquals(table.etag(), eventVersions.ofTable().etag());
+    }
+
+    @Test
+    void testCategoryWriteChangesEventButNotEventTable() {
+        EntityVersions.Version event = eventVersions.of(1L);
+        EntityVersions.Version table = eventVersions.ofTable();
+
+        categoryVersions.put(category(1L));
+
+        assertNotEquals(event.etag(), eventVersions.of(1L).etag());
+        assertEquals(table.etag(), eventVersions.ofTable().etag());
+    }
+
+    @Test
+    void testRemovedOrUnknownEntityHasNoVersion() {
+        eventVersions.remove(2L);
+
+        assertNull(eventVersions.of(2L));
+        assertNull(eventVersions.of(99L));
+        assertTrue(eventVersions.of(1L).etag().startsWith("\""));
+    }
+
+    private Event event(long id) {
+        Event event = new Event();
+        event.setId(id);
+        return event;
+    }
+
+    private EventCategory category(long id) {
+        EventCategory category = new EventCategory();
+        category.setId(id);
+        return category;
+    }
+}
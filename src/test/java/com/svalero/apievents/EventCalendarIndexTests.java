@@ -0,0 +1,71 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.EventCursor;
+import com.svalero.apievents.index.EventCalendarIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventCalendarIndexTests {
+
+    private static final LocalDate FRIDAY = LocalDate.of(2025, 6, 6);
+    private static final LocalDate SATURDAY = FRIDAY.plusDays(1);
+    private static final LocalDate SUNDAY = FRIDAY.plusDays(2);
+
+    private EventCalendarIndex calendarIndex;
+
+    @BeforeEach
+    void setUp() {
+        calendarIndex = new EventCalendarIndex();
+        calendarIndex.rebuild(List.of(
+                event(5L, FRIDAY),
+                event(2L, FRIDAY),
+                event(3L, SATURDAY),
+                event(9L, SUNDAY),
+                event(1L, null)));
+    }
+
+    @Test
+    void testFindBetweenOrderedByDateAndId() {
+        assertEquals(List.of(2L, 5L, 3L, 9L), ids(calendarIndex.findBetween(FRIDAY, SUNDAY)));
+        assertEquals(List.of(3L), ids(calendarIndex.findBetween(SATURDAY, SATURDAY)));
+    }
+
+    @Test
+    void testFindBetweenContinuesAfterCursor() {
+        assertEquals(List.of(5L, 3L), ids(calendarIndex.findBetween(FRIDAY, SUNDAY, new EventCursor(FRIDAY, 2L), 2)));
+        assertEquals(List.of(9L), ids(calendarIndex.findBetween(FRIDAY, SUNDAY, new EventCursor(SATURDAY, 3L), 10)));
+    }
+
+    @Test
+    void testPutMovesEventBetweenDays() {
+        calendarIndex.put(event(5L, SUNDAY));
+        calendarIndex.put(event(4L, SATURDAY));
+
+        assertEquals(List.of(2L), ids(calendarIndex.findBetween(FRIDAY, FRIDAY)));
+        assertEquals(List.of(3L, 4L, 5L, 9L), ids(calendarIndex.findBetween(SATURDAY, SUNDAY)));
+    }
+
+    @Test
+    void testRemoveDropsEmptyDays() {
+        calendarIndex.remove(3L);
+        assertTrue(calendarIndex.findBetween(SATURDAY, SATURDAY).isEmpty());
+        assertEquals(List.of(2L, 5L, 9L), ids(calendarIndex.findBetween(FRIDAY, SUNDAY)));
+    }
+
+    private List<Long> ids(List<Event> events) {
+        return events.stream().map(Event::getId).toList();
+    }
+
+    private Event event(long id, LocalDate date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setEventDate(date);
+        return event;
+    }
+}
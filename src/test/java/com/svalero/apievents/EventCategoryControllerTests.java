@@ -3,6 +3,9 @@ package com.svalero.apievents;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.svalero.apievents.controller.EventCategoryController;
 import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CategoryStatsDto;
+import com.svalero.apievents.index.CategoryVersions;
+import com.svalero.apievents.index.EntityVersions;
 import com.svalero.apievents.service.EventCategoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,13 +13,16 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -33,6 +39,9 @@ public class EventCategoryControllerTests {
     @MockBean
     private EventCategoryService categoryService;
 
+    @MockBean
+    private CategoryVersions categoryVersions;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -51,9 +60,17 @@ public class EventCategoryControllerTests {
 
     @Test
     void testGetAllCategories() throws Exception {
-        when(categoryService.getAllCategories()).thenReturn(List.of(category));
+        when(categoryService.streamAllCategories(any())).thenAnswer(invocation -> {
+            Consumer<EventCategory> action = invocation.getArgument(0);
+            action.accept(category);
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/event-categories"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/event-categories"))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value("Music"));
     }
@@ -78,6 +95,42 @@ public class EventCategoryControllerTests {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    void testGetCategoryByIdNotModified() throws Exception {
+        EntityVersions.Version version = new EntityVersions.Version("\"a-3\"", 1_700_000_000_000L);
+        when(categoryVersions.of(1L)).thenReturn(version);
+
+        mockMvc.perform(get("/event-categories/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"a-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"a-3\""));
+
+        verify(categoryService, never()).getCategoryById(any());
+    }
+
+    @Test
+    void testGetAllCategoriesNotModifiedSince() throws Exception {
+        when(categoryVersions.ofTable()).thenReturn(new EntityVersions.Version("\"a-7\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/event-categories")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 15 Nov 2023 08:00:00 GMT"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+
+        verify(categoryService, never()).streamAllCategories(any());
+    }
+
+    @Test
+    void testGetAllCategoriesNotModified() throws Exception {
+        when(categoryVersions.ofTable()).thenReturn(new EntityVersions.Version("\"a-7\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/event-categories")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"a-6\", \"a-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(categoryService, never()).streamAllCategories(any());
+    }
+
     @Test
     void testGetCategoriesByName() throws Exception {
         when(categoryService.getCategoriesByName("Music")).thenReturn(List.of(category));
@@ -88,6 +141,19 @@ public class EventCategoryControllerTests {
                 .andExpect(jsonPath("$[0].name").value("Music"));
     }
 
+    @Test
+    void testGetCategoryStats() throws Exception {
+        when(categoryService.getCategoryStats()).thenReturn(List.of(
+                new CategoryStatsDto(1L, "Music", 2, 300, 40, 1200.0, LocalDate.of(2030, 5, 1))));
+
+        mockMvc.perform(get("/event-categories/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].categoryId").value(1))
+                .andExpect(jsonPath("$[0].reservedSeats").value(40))
+                .andExpect(jsonPath("$[0].revenue").value(1200.0))
+                .andExpect(jsonPath("$[0].nextEventDate").value("2030-05-01"));
+    }
+
     @Test
     void testGetActiveCategories() throws Exception {
         when(categoryService.getActiveCategories()).thenReturn(List.of(category));
@@ -1,7 +1,14 @@
 package com.svalero.apievents;
 
+import com.svalero.apievents.domain.Event;
 import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.Payment;
+import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.CategoryStatsDto;
 import com.svalero.apievents.repository.EventCategoryRepository;
+import com.svalero.apievents.repository.EventRepository;
+import com.svalero.apievents.repository.PaymentRepository;
+import com.svalero.apievents.repository.ReservationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +25,15 @@ public class EventCategoryRepositoryTests {
     @Autowired
     private EventCategoryRepository eventCategoryRepository;
 
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
     private EventCategory category;
 
     @BeforeEach
@@ -91,4 +107,68 @@ public class EventCategoryRepositoryTests {
         List<EventCategory> results = eventCategoryRepository.findByNumberEventsGreaterThanEqual(3);
         assertEquals(1, results.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindStats() {
+        LocalDate today = LocalDate.now();
+        Event past = saveEvent("Past Concert", today.minusDays(3), 100);
+        saveEvent("Next Concert", today.plusDays(2), 50);
+        saveEvent("Later Concert", today.plusDays(9), 20);
+        Reservation first = saveReservation("R1", "Ana", past, 3);
+        Reservation second = saveReservation("R2", "Luis", past, 4);
+        savePayment(first, 30.0);
+        savePayment(first, 15.5);
+        savePayment(second, 40.0);
+
+        List<CategoryStatsDto> stats = eventCategoryRepository.findStats(today);
+
+        assertEquals(1, stats.size());
+        CategoryStatsDto music = stats.get(0);
+        assertEquals(category.getId(), music.getCategoryId());
+        assertEquals(3, music.getEvents());
+        assertEquals(170, music.getTotalCapacity());
+        assertEquals(7, music.getReservedSeats());
+        assertEquals(85.5, music.getRevenue(), 0.001);
+        assertEquals(today.plusDays(2), music.getNextEventDate());
+    }
+
+    @Test
+    void testFindStatsOfEmptyCategory() {
+        CategoryStatsDto music = eventCategoryRepository.findStats(LocalDate.now()).get(0);
+
+        assertEquals(0, music.getEvents());
+        assertEquals(0, music.getTotalCapacity());
+        assertEquals(0, music.getReservedSeats());
+        assertEquals(0.0, music.getRevenue());
+        assertNull(music.getNextEventDate());
+    }
+
+    private Event saveEvent(String name, LocalDate date, int capacity) {
+        Event event = new Event();
+        event.setEventName(name);
+        event.setEventDate(date);
+        event.setCapacity(capacity);
+        event.setUbication("Zaragoza");
+        event.setCategory(category);
+        return eventRepository.save(event);
+    }
+
+    private Reservation saveReservation(String name, String customerName, Event event, int quantity) {
+        Reservation reservation = new Reservation();
+        reservation.setName(name);
+        reservation.setCustomerName(customerName);
+        reservation.setReservationDate(LocalDate.now());
+        reservation.setQuantity(quantity);
+        reservation.setEvent(event);
+        return reservationRepository.save(reservation);
+    }
+
+    private void savePayment(Reservation reservation, double amount) {
+        Payment payment = new Payment();
+        payment.setCustomerName(reservation.getCustomerName());
+        payment.setPaymentDate(LocalDate.now());
+        payment.setAmount(amount);
+        payment.setReservation(reservation);
+        paymentRepository.save(payment);
+    }
+}
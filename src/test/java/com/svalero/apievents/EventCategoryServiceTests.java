@@ -1,14 +1,20 @@
 package com.svalero.apievents;
 
 import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CategoryStatsDto;
 import com.svalero.apievents.exception.EventCategoryNotFoundException;
+import com.svalero.apievents.index.CategoryCatalog;
+import com.svalero.apievents.index.CategoryIndexes;
+import com.svalero.apievents.index.CategoryTextIndex;
 import com.svalero.apievents.repository.EventCategoryRepository;
+import com.svalero.apievents.repository.GroupCommitWriter;
 import com.svalero.apievents.service.EventCategoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
@@ -23,6 +29,18 @@ public class EventCategoryServiceTests {
     @Mock
     private EventCategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryIndexes categoryIndexes;
+
+    @Mock
+    private CategoryTextIndex categoryTextIndex;
+
+    @Mock
+    private CategoryCatalog categoryCatalog;
+
+    @Spy
+    private GroupCommitWriter groupCommitWriter = GroupCommitWriter.disabled();
+
     @InjectMocks
     private EventCategoryService categoryService;
 
@@ -65,6 +83,8 @@ public class EventCategoryServiceTests {
         when(categoryRepository.save(any())).thenReturn(category);
         EventCategory saved = categoryService.saveCategory(category);
         assertEquals("Music", saved.getName());
+        assertEquals(0, saved.getNumberEvents());
+        verify(categoryIndexes).put(category);
     }
 
     @Test
@@ -77,23 +97,26 @@ public class EventCategoryServiceTests {
         updated.setActive(false);
 
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(categoryRepository.save(any())).thenReturn(updated);
+        when(categoryRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         EventCategory result = categoryService.updateCategory(1L, updated);
         assertEquals("Updated", result.getName());
-        assertEquals(10, result.getNumberEvents());
+        // El número de eventos lo mantiene el servidor
+        assertEquals(5, result.getNumberEvents());
     }
 
     @Test
     void testUpdatePartialCategory() {
         Map<String, Object> updates = new HashMap<>();
+        updates.put("description", "Live music");
         updates.put("numberEvents", 15);
 
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
         when(categoryRepository.save(any())).thenReturn(category);
 
         EventCategory result = categoryService.updateEventCategoryPartial(1L, updates);
-        assertEquals(15, result.getNumberEvents());
+        assertEquals("Live music", result.getDescription());
+        assertEquals(5, result.getNumberEvents());
     }
 
     @Test
@@ -116,15 +139,47 @@ public class EventCategoryServiceTests {
         assertEquals(1, categoryService.getCategoriesByName("Music").size());
     }
 
+    @Test
+    void testGetCategoriesByNameFromIndex() {
+        when(categoryIndexes.isLoaded()).thenReturn(true);
+        when(categoryTextIndex.findByNameContaining("músic")).thenReturn(List.of(category));
+        assertEquals(1, categoryService.getCategoriesByName("músic").size());
+        verify(categoryRepository, never()).findByNameContaining(anyString());
+    }
+
     @Test
     void testGetActiveCategories() {
         when(categoryRepository.findByActiveTrue()).thenReturn(List.of(category));
         assertEquals(1, categoryService.getActiveCategories().size());
     }
 
+    @Test
+    void testGetActiveCategoriesFromCatalog() {
+        when(categoryIndexes.isLoaded()).thenReturn(true);
+        when(categoryCatalog.findByActiveTrue()).thenReturn(List.of(category));
+        assertEquals(1, categoryService.getActiveCategories().size());
+        verify(categoryRepository, never()).findByActiveTrue();
+    }
+
     @Test
     void testGetCategoriesByNumberOfEvents() {
         when(categoryRepository.findByNumberEvents(5)).thenReturn(List.of(category));
         assertEquals(1, categoryService.getCategoriesByNumberOfEvents(5).size());
     }
+
+    @Test
+    void testGetCategoriesWithMinEventsFromCatalog() {
+        when(categoryIndexes.isLoaded()).thenReturn(true);
+        when(categoryCatalog.findByNumberEventsGreaterThanEqual(3)).thenReturn(List.of(category));
+        assertEquals(1, categoryService.getCategoriesWithMinEvents(3).size());
+        verify(categoryRepository, never()).findByNumberEventsGreaterThanEqual(anyInt());
+    }
+
+    @Test
+    void testGetCategoryStats() {
+        CategoryStatsDto stats = new CategoryStatsDto(1L, "Music", 2, 300, 40, 1200.0, LocalDate.now().plusDays(3));
+        when(categoryRepository.findStats(any())).thenReturn(List.of(stats));
+
+        assertEquals(List.of(stats), categoryService.getCategoryStats());
+    }
 }
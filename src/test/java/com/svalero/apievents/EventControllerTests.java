@@ -3,21 +3,45 @@ package com.svalero.apievents;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.svalero.apievents.controller.EventController;
 import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.BulkEventResultDto;
+import com.svalero.apievents.domain.dto.CursorPage;
+import com.svalero.apievents.domain.dto.EventCursor;
+import com.svalero.apievents.domain.dto.EventFacetsDto;
+import com.svalero.apievents.domain.dto.EventOccupancyDto;
 import com.svalero.apievents.domain.dto.EventOutDto;
 import com.svalero.apievents.domain.dto.EventRegistrationDto;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.domain.dto.NearbyEventOutDto;
+import com.svalero.apievents.domain.dto.PageDto;
+import com.svalero.apievents.domain.dto.SuggestionDto;
+import com.svalero.apievents.domain.dto.SuggestionsDto;
+import com.svalero.apievents.domain.dto.TopEventDto;
+import com.svalero.apievents.domain.dto.UpcomingEventDto;
+import com.svalero.apievents.exception.InvalidQueryException;
+import com.svalero.apievents.index.EntityVersions;
+import com.svalero.apievents.index.EventFacetIndex;
+import com.svalero.apievents.index.EventVersions;
+import com.svalero.apievents.repository.EventSpecifications;
+import com.svalero.apievents.service.EventImportService;
 import com.svalero.apievents.service.EventService;
+import com.svalero.apievents.service.SuggestionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,10 +57,20 @@ public class EventControllerTests {
     @MockBean
     private EventService eventService;
 
+    @MockBean
+    private EventImportService eventImportService;
+
+    @MockBean
+    private SuggestionService suggestionService;
+
+    @MockBean
+    private EventVersions eventVersions;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Event event;
+    private EventOutDto eventSummary;
 
     @BeforeEach
     void setUp() {
@@ -46,17 +80,61 @@ public class EventControllerTests {
         event.setCapacity(100);
         event.setEventDate(LocalDate.now());
         event.setUbication("Test City");
+
+        eventSummary = new EventOutDto(1L, "Test Event", LocalDate.now(), 100, "Test City", 0L, 0, 0);
     }
 
     @Test
     void testGetAllEvents() throws Exception {
-        Mockito.when(eventService.getAllEvents()).thenReturn(List.of(event));
+        Mockito.when(eventService.getAllEvents(any(EventCursor.class), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(eventSummary), null));
 
         mockMvc.perform(get("/events"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].eventName").value("Test Event"));
     }
 
+    @Test
+    void testGetAllEventsReturnsNextCursor() throws Exception {
+        String next = EventCursor.of(event).encode();
+        Mockito.when(eventService.getAllEvents(any(EventCursor.class), eq(1)))
+                .thenReturn(new CursorPage<>(List.of(eventSummary), next));
+
+        mockMvc.perform(get("/events")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EventController.NEXT_CURSOR_HEADER, next))
+                .andExpect(jsonPath("$[0].eventName").value("Test Event"));
+    }
+
+    @Test
+    void testStreamAllEventsAsNdjson() throws Exception {
+        Mockito.when(eventService.streamAllEvents(any())).thenAnswer(invocation -> {
+            Consumer<EventOutDto> action = invocation.getArgument(0);
+            action.accept(eventSummary);
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/events")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Test Event", objectMapper.readValue(body.trim(), EventOutDto.class).getEventName());
+        Mockito.verify(eventService, Mockito.never()).getAllEvents(any(EventCursor.class), anyInt());
+    }
+
+    @Test
+    void testGetAllEventsInvalidCursor() throws Exception {
+        mockMvc.perform(get("/events")
+                        .param("after", "!!!"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testAddEvent() throws Exception {
         EventOutDto dto = new EventOutDto();
@@ -67,6 +145,8 @@ public class EventControllerTests {
 
         EventRegistrationDto input = new EventRegistrationDto();
         input.setEventName("Test Event");
+        input.setCapacity(100);
+        input.setUbication("Madrid");
 
         mockMvc.perform(post("/events")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -75,6 +155,59 @@ public class EventControllerTests {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    void testAddEventWithoutCapacity() throws Exception {
+        EventRegistrationDto input = new EventRegistrationDto();
+        input.setEventName("Test Event");
+        input.setUbication("Madrid");
+
+        // Las mismas reglas que el alta masiva: capacidad de al menos 1
+        mockMvc.perform(post("/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(input)))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(eventService);
+    }
+
+    @Test
+    void testAddEventsBulk() throws Exception {
+        Mockito.when(eventImportService.addAll(any())).thenReturn(List.of(
+                BulkEventResultDto.created(0, 10L),
+                BulkEventResultDto.rejected(1, "Category 9 not found")));
+
+        EventRegistrationDto first = new EventRegistrationDto();
+        first.setEventName("First");
+        EventRegistrationDto second = new EventRegistrationDto();
+        second.setEventName("Second");
+
+        mockMvc.perform(post("/events/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first, second))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(BulkEventResultDto.CREATED))
+                .andExpect(jsonPath("$[0].id").value(10))
+                .andExpect(jsonPath("$[1].status").value(BulkEventResultDto.REJECTED))
+                .andExpect(jsonPath("$[1].error").value("Category 9 not found"));
+    }
+
+    @Test
+    void testAddEventsBulkNdjson() throws Exception {
+        List<String> names = new ArrayList<>();
+        Mockito.when(eventImportService.addAll(any())).thenAnswer(invocation -> {
+            Iterator<EventRegistrationDto> rows = invocation.getArgument(0);
+            rows.forEachRemaining(row -> names.add(row.getEventName()));
+            return List.of(BulkEventResultDto.created(0, 10L), BulkEventResultDto.created(1, 11L));
+        });
+
+        mockMvc.perform(post("/events/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"eventName\":\"First\"}\n{\"eventName\":\"Second\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].id").value(11));
+
+        assertEquals(List.of("First", "Second"), names);
+    }
+
     @Test
     void testGetEventById() throws Exception {
         Mockito.when(eventService.getEventById(1L)).thenReturn(event);
@@ -86,10 +219,144 @@ public class EventControllerTests {
         assertEquals("Test Event", event.getEventName());
     }
 
+    @Test
+    void testGetEventOccupancy() throws Exception {
+        Mockito.when(eventService.getEventOccupancy(1L)).thenReturn(new EventOccupancyDto(1L, 100, 60L, 1250.0, 40L));
+
+        mockMvc.perform(get("/events/1/occupancy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reserved").value(60))
+                .andExpect(jsonPath("$.paid").value(1250.0))
+                .andExpect(jsonPath("$.remaining").value(40));
+    }
+
+    @Test
+    void testQueryEvents() throws Exception {
+        EventSpecifications.Filter filter = new EventSpecifications.Filter(null, LocalDate.of(2025, 6, 1),
+                LocalDate.of(2025, 6, 30), null, 500, "Madrid", 3L);
+        Mockito.when(eventService.queryEvents(filter, 1, 20, "capacity,desc"))
+                .thenReturn(new PageDto<>(List.of(eventSummary), 1, 20, 21));
+
+        mockMvc.perform(get("/events/query")
+                        .param("startDate", "2025-06-01")
+                        .param("endDate", "2025-06-30")
+                        .param("maxCapacity", "500")
+                        .param("ubication", "Madrid")
+                        .param("categoryId", "3")
+                        .param("page", "1")
+                        .param("size", "20")
+                        .param("sort", "capacity,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].eventName").value("Test Event"))
+                .andExpect(jsonPath("$.total").value(21));
+    }
+
+    @Test
+    void testQueryEventsWithInvalidSort() throws Exception {
+        Mockito.when(eventService.queryEvents(any(), anyInt(), anyInt(), eq("description")))
+                .thenThrow(new InvalidQueryException("Invalid sort: description"));
+
+        mockMvc.perform(get("/events/query").param("sort", "description"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSuggest() throws Exception {
+        Mockito.when(suggestionService.suggest("fest", 5)).thenReturn(new SuggestionsDto(
+                List.of(new SuggestionDto(1L, "Gran Festival")), List.of(new SuggestionDto(2L, "Festivales"))));
+
+        mockMvc.perform(get("/events/suggest").param("prefix", "fest").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events[0].name").value("Gran Festival"))
+                .andExpect(jsonPath("$.categories[0].id").value(2));
+    }
+
+    @Test
+    void testGetEventsByIds() throws Exception {
+        Mockito.when(eventService.getEventsByIds(List.of(1L, 9L))).thenReturn(new MultiGetDto<>(List.of(event), List.of(9L)));
+
+        mockMvc.perform(get("/events").param("ids", "1,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(9));
+
+        Mockito.verify(eventService, Mockito.never()).getAllEvents(any(), anyInt());
+    }
+
+    @Test
+    void testGetEventsByIdsPost() throws Exception {
+        Mockito.when(eventService.getEventsByIds(List.of(1L, 9L))).thenReturn(new MultiGetDto<>(List.of(event), List.of(9L)));
+
+        mockMvc.perform(post("/events/by-ids")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(1L, 9L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].eventName").value("Test Event"))
+                .andExpect(jsonPath("$.missing[0]").value(9));
+    }
+
+    @Test
+    void testGetEventByIdReturnsETag() throws Exception {
+        Mockito.when(eventVersions.of(1L)).thenReturn(new EntityVersions.Version("\"a-4-2\"", 1_700_000_000_000L));
+        Mockito.when(eventService.getEventById(1L)).thenReturn(event);
+
+        mockMvc.perform(get("/events/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"a-3-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"a-4-2\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void testGetEventByIdNotModifiedSince() throws Exception {
+        // 1_700_000_000_000 ms es 2023-11-14T22:13:20Z
+        Mockito.when(eventVersions.of(1L)).thenReturn(new EntityVersions.Version("\"a-4-2\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/events/1")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 14 Nov 2023 22:13:20 GMT"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Tue, 14 Nov 2023 22:13:20 GMT"));
+
+        Mockito.verify(eventService, Mockito.never()).getEventById(any());
+    }
+
+    @Test
+    void testGetEventByIdModifiedSince() throws Exception {
+        Mockito.when(eventVersions.of(1L)).thenReturn(new EntityVersions.Version("\"a-4-2\"", 1_700_000_000_000L));
+        Mockito.when(eventService.getEventById(1L)).thenReturn(event);
+
+        mockMvc.perform(get("/events/1")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 14 Nov 2023 22:13:19 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testIfNoneMatchWinsOverIfModifiedSince() throws Exception {
+        Mockito.when(eventVersions.ofTable()).thenReturn(new EntityVersions.Version("\"a-9\"", 1_700_000_000_000L));
+        Mockito.when(eventService.getAllEvents(any(EventCursor.class), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/events")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"a-8\"")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 14 Nov 2023 22:13:20 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetAllEventsNotModified() throws Exception {
+        Mockito.when(eventVersions.ofTable()).thenReturn(new EntityVersions.Version("\"a-9\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/events")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"a-9\""))
+                .andExpect(status().isNotModified());
+
+        Mockito.verify(eventService, Mockito.never()).getAllEvents(any(EventCursor.class), anyInt());
+    }
+
     @Test
     void testGetEventsByName() throws Exception {
-        Mockito.when(eventService.getEventsByName("Test"))
-                .thenReturn(List.of(event));
+        Mockito.when(eventService.getEventsByName(eq("Test"), any(EventCursor.class), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(eventSummary), null));
 
         mockMvc.perform(get("/events/name")
                         .param("name", "Test"))
@@ -99,8 +366,8 @@ public class EventControllerTests {
 
     @Test
     void testGetEventsByCapacity() throws Exception {
-        Mockito.when(eventService.getEventsByCapacity(100))
-                .thenReturn(List.of(event));
+        Mockito.when(eventService.getEventsByCapacity(eq(100), any(EventCursor.class), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(eventSummary), null));
 
         mockMvc.perform(get("/events/capacity")
                         .param("capacity", "100"))
@@ -110,7 +377,8 @@ public class EventControllerTests {
 
     @Test
     void testGetEventsByDate() throws Exception {
-        Mockito.when(eventService.getEventsByDate(any(LocalDate.class))).thenReturn(List.of(event));
+        Mockito.when(eventService.getEventsByDate(any(LocalDate.class), any(EventCursor.class), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(eventSummary), null));
 
         mockMvc.perform(get("/events/date")
                         .param("date", LocalDate.now().toString()))
@@ -120,7 +388,8 @@ public class EventControllerTests {
 
     @Test
     void testGetEventsBetweenDates() throws Exception {
-        Mockito.when(eventService.getEventsBetweenDates(any(), any())).thenReturn(List.of(event));
+        Mockito.when(eventService.getEventsBetweenDates(any(), any(), any(EventCursor.class), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(eventSummary), null));
 
         mockMvc.perform(get("/events/range")
                         .param("startDate", LocalDate.now().minusDays(1).toString())
@@ -130,7 +399,8 @@ public class EventControllerTests {
 
     @Test
     void testGetEventsByUbication() throws Exception {
-        Mockito.when(eventService.getEventsByUbication("Test City")).thenReturn(List.of(event));
+        Mockito.when(eventService.getEventsByUbication(eq("Test City"), any(EventCursor.class), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(eventSummary), null));
 
         mockMvc.perform(get("/events/ubication")
                         .param("ubication", "Test City"))
@@ -138,6 +408,91 @@ public class EventControllerTests {
                 .andExpect(jsonPath("$[0].ubication").value("Test City"));
     }
 
+    @Test
+    void testSearchEvents() throws Exception {
+        Mockito.when(eventService.searchEvents("test city", 100)).thenReturn(List.of(eventSummary));
+
+        mockMvc.perform(get("/events/search")
+                        .param("q", "test city"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].eventName").value("Test Event"));
+    }
+
+    @Test
+    void testGetEventsNear() throws Exception {
+        NearbyEventOutDto nearby = new NearbyEventOutDto();
+        nearby.setId(1L);
+        nearby.setEventName("Test Event");
+        nearby.setDistanceKm(2.5);
+        Mockito.when(eventService.getEventsNear(40.4, -3.7, 10, 100)).thenReturn(List.of(nearby));
+
+        mockMvc.perform(get("/events/near")
+                        .param("lat", "40.4")
+                        .param("lon", "-3.7")
+                        .param("radiusKm", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].eventName").value("Test Event"))
+                .andExpect(jsonPath("$[0].distanceKm").value(2.5));
+    }
+
+    @Test
+    void testGetEventFacets() throws Exception {
+        LocalDate day = LocalDate.of(2025, 6, 6);
+        EventFacetIndex.FacetFilter filter = new EventFacetIndex.FacetFilter(day, day, 500, "Madrid", null);
+        EventFacetsDto facets = new EventFacetsDto(1, List.of(eventSummary), Map.of(0L, 1L), Map.of("2025-06", 1L),
+                Map.of("101-500", 1L), Map.of("Madrid", 1L));
+        Mockito.when(eventService.getEventFacets(filter, 100)).thenReturn(facets);
+
+        mockMvc.perform(get("/events/facets")
+                        .param("date", "2025-06-06")
+                        .param("capacity", "500")
+                        .param("ubication", "Madrid"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.events[0].eventName").value("Test Event"))
+                .andExpect(jsonPath("$.months['2025-06']").value(1))
+                .andExpect(jsonPath("$.ubications.Madrid").value(1));
+    }
+
+    @Test
+    void testGetUpcomingEvents() throws Exception {
+        UpcomingEventDto upcoming = new UpcomingEventDto(1L, "Test Event", LocalDate.of(2025, 6, 6), 300, "Madrid",
+                3L, "Música");
+        Mockito.when(eventService.getUpcomingEvents(7, 100)).thenReturn(List.of(upcoming));
+
+        mockMvc.perform(get("/events/upcoming").param("days", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].eventDate").value("2025-06-06"))
+                .andExpect(jsonPath("$[0].categoryName").value("Música"));
+    }
+
+    @Test
+    void testGetTopEvents() throws Exception {
+        Mockito.when(eventService.getTopEvents("7d", 5)).thenReturn(List.of(new TopEventDto(1L, "Test Event", 40)));
+
+        mockMvc.perform(get("/events/top").param("window", "7d").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].eventName").value("Test Event"))
+                .andExpect(jsonPath("$[0].quantity").value(40));
+    }
+
+    @Test
+    void testGetTopEventsWithInvalidWindow() throws Exception {
+        Mockito.when(eventService.getTopEvents("1h", 10)).thenThrow(new InvalidQueryException("Invalid window: 1h"));
+
+        mockMvc.perform(get("/events/top").param("window", "1h"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetEventsNearInvalidLatitude() throws Exception {
+        mockMvc.perform(get("/events/near")
+                        .param("lat", "120")
+                        .param("lon", "-3.7")
+                        .param("radiusKm", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testUpdateEvent() throws Exception {
         Mockito.when(eventService.updateEvent(eq(1L), any(Event.class))).thenReturn(event);
@@ -0,0 +1,98 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.EventFacetsDto;
+import com.svalero.apievents.domain.dto.EventOutDto;
+import com.svalero.apievents.index.EventFacetIndex;
+import com.svalero.apievents.index.EventFacetIndex.FacetFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventFacetIndexTests {
+
+    private static final FacetFilter NO_FILTER = new FacetFilter(null, null, null, null, null);
+
+    private EventFacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        facetIndex = new EventFacetIndex();
+        facetIndex.rebuild(List.of(
+                event(1L, LocalDate.of(2025, 6, 6), 40, "Madrid", 3L),
+                event(2L, LocalDate.of(2025, 6, 20), 300, "Madrid", 3L),
+                event(3L, LocalDate.of(2025, 7, 1), 2000, "Zaragoza", 4L),
+                event(4L, null, 80, "Málaga", null)));
+    }
+
+    @Test
+    void testCountsEveryFacetInOnePass() {
+        EventFacetsDto facets = facetIndex.facets(NO_FILTER, 100);
+
+        assertEquals(4, facets.getTotal());
+        assertEquals(List.of(4L, 1L, 2L, 3L), ids(facets));
+        assertEquals(Map.of(3L, 2L, 4L, 1L, 0L, 1L), facets.getCategories());
+        assertEquals(List.of("2025-06", "2025-07"), List.copyOf(facets.getMonths().keySet()));
+        assertEquals(2L, facets.getMonths().get("2025-06"));
+        assertEquals(List.of("<=50", "51-100", "101-500", ">1000"), List.copyOf(facets.getCapacities().keySet()));
+        assertEquals(List.of("Madrid", "Málaga", "Zaragoza"), List.copyOf(facets.getUbications().keySet()));
+    }
+
+    @Test
+    void testFiltersCombine() {
+        FacetFilter filter = new FacetFilter(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30), 500, "madrid", 3L);
+
+        EventFacetsDto facets = facetIndex.facets(filter, 100);
+
+        assertEquals(2, facets.getTotal());
+        assertEquals(Map.of("Madrid", 2L), facets.getUbications());
+        assertEquals(Map.of("<=50", 1L, "101-500", 1L), facets.getCapacities());
+    }
+
+    @Test
+    void testLimitKeepsCountsOfAllMatches() {
+        EventFacetsDto facets = facetIndex.facets(NO_FILTER, 1);
+
+        assertEquals(4, facets.getTotal());
+        assertEquals(List.of(4L), ids(facets));
+        assertEquals(4, facets.getCapacities().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testPutAndRemoveReuseSlots() {
+        facetIndex.remove(3L);
+        facetIndex.put(event(2L, LocalDate.of(2025, 8, 1), 300, "Huesca", 3L));
+        facetIndex.put(event(5L, LocalDate.of(2025, 8, 2), 60, "Huesca", 4L));
+
+        EventFacetsDto facets = facetIndex.facets(new FacetFilter(null, null, null, "huesca", null), 100);
+
+        assertEquals(List.of(2L, 5L), ids(facets));
+        assertEquals(Map.of("2025-08", 2L), facets.getMonths());
+        assertEquals(4, facetIndex.facets(NO_FILTER, 100).getTotal());
+    }
+
+    private List<Long> ids(EventFacetsDto facets) {
+        return facets.getEvents().stream().map(EventOutDto::getId).toList();
+    }
+
+    private Event event(long id, LocalDate date, int capacity, String ubication, Long categoryId) {
+        Event event = new Event();
+        event.setId(id);
+        event.setEventName("Event " + id);
+        event.setEventDate(date);
+        event.setCapacity(capacity);
+        event.setUbication(ubication);
+        if (categoryId != null) {
+            EventCategory category = new EventCategory();
+            category.setId(categoryId);
+            event.setCategory(category);
+        }
+        return event;
+    }
+}
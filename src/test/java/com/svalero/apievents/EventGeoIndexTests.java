@@ -0,0 +1,70 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.index.EventGeoIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventGeoIndexTests {
+
+    private EventGeoIndex geoIndex;
+
+    @BeforeEach
+    void setUp() {
+        geoIndex = new EventGeoIndex();
+        geoIndex.rebuild(List.of(
+                event(1L, 40.4168, -3.7038),   // Madrid, Puerta del Sol
+                event(2L, 40.4530, -3.6883),   // Madrid, Bernabéu
+                event(3L, 41.3874, 2.1686),    // Barcelona
+                event(4L, 0, 0)));             // Sin coordenadas
+    }
+
+    @Test
+    void testFindNearSortedByDistance() {
+        List<EventGeoIndex.GeoHit> hits = geoIndex.findNear(40.4168, -3.7038, 10, 10);
+        assertEquals(2, hits.size());
+        assertEquals(1L, hits.get(0).event().getId());
+        assertEquals(2L, hits.get(1).event().getId());
+        assertTrue(hits.get(1).distanceKm() < 10);
+    }
+
+    @Test
+    void testFindNearRespectsLimit() {
+        List<EventGeoIndex.GeoHit> hits = geoIndex.findNear(40.4168, -3.7038, 1000, 1);
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).event().getId());
+    }
+
+    @Test
+    void testPutMovesEventAndRemoveDropsIt() {
+        geoIndex.put(event(3L, 40.42, -3.70));
+        assertEquals(3, geoIndex.findNear(40.4168, -3.7038, 10, 10).size());
+
+        geoIndex.remove(3L);
+        geoIndex.remove(1L);
+        List<EventGeoIndex.GeoHit> hits = geoIndex.findNear(40.4168, -3.7038, 10, 10);
+        assertEquals(1, hits.size());
+        assertEquals(2L, hits.get(0).event().getId());
+    }
+
+    @Test
+    void testFindNearAcrossAntimeridian() {
+        geoIndex.put(event(5L, -16.5, 179.95));
+        List<EventGeoIndex.GeoHit> hits = geoIndex.findNear(-16.5, -179.95, 20, 10);
+        assertEquals(1, hits.size());
+        assertEquals(5L, hits.get(0).event().getId());
+    }
+
+    private Event event(long id, double latitude, double longitude) {
+        Event event = new Event();
+        event.setId(id);
+        event.setEventName("Event " + id);
+        event.setLatitude(latitude);
+        event.setLongitude(longitude);
+        return event;
+    }
+}
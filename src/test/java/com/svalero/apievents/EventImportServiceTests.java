@@ -0,0 +1,129 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.BulkEventResultDto;
+import com.svalero.apievents.domain.dto.EventRegistrationDto;
+import com.svalero.apievents.index.CategoryEventCounters;
+import com.svalero.apievents.index.EventIndexes;
+import com.svalero.apievents.repository.EventCategoryRepository;
+import com.svalero.apievents.repository.EventRepository;
+import com.svalero.apievents.service.EventImportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EventImportServiceTests {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventCategoryRepository categoryRepository;
+
+    @Mock
+    private EventIndexes eventIndexes;
+
+    @Mock
+    private CategoryEventCounters categoryEventCounters;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EventImportService eventImportService;
+
+    private EventCategory category;
+
+    @BeforeEach
+    void setUp() {
+        eventImportService = new EventImportService(eventRepository, categoryRepository, eventIndexes,
+                categoryEventCounters, entityManager, transactionManager, 2);
+
+        category = new EventCategory();
+        category.setId(1L);
+        category.setName("Music");
+    }
+
+    private EventRegistrationDto row(String name, long categoryId) {
+        EventRegistrationDto dto = new EventRegistrationDto();
+        dto.setEventName(name);
+        dto.setUbication("Zaragoza");
+        dto.setCapacity(100);
+        dto.setEventDate(LocalDate.of(2025, 6, 1));
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+
+    @Test
+    void testAddAllInBatches() {
+        AtomicLong ids = new AtomicLong(100);
+        doAnswer(invocation -> {
+            invocation.<Event>getArgument(0).setId(ids.incrementAndGet());
+            return null;
+        }).when(entityManager).persist(any(Event.class));
+        when(categoryRepository.findAllById(anyIterable())).thenReturn(List.of(category));
+        when(eventRepository.findEventNamesIn(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of("Taken"));
+
+        List<BulkEventResultDto> results = eventImportService.addAll(List.of(
+                row("Concert", 1L),
+                row("Unknown category", 9L),
+                row("Taken", 1L)).iterator());
+
+        assertEquals(3, results.size());
+        assertEquals(BulkEventResultDto.created(0, 101L), results.get(0));
+        assertEquals(BulkEventResultDto.rejected(1, "Category 9 not found"), results.get(1));
+        assertEquals(BulkEventResultDto.rejected(2, "Event name already exists: Taken"), results.get(2));
+        verify(entityManager, times(1)).persist(any(Event.class));
+        // Un flush y una transacción por lote de 2 filas
+        verify(entityManager, times(2)).flush();
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventIndexes, times(1)).put(any(Event.class));
+        verify(categoryEventCounters, times(1)).increment(1L);
+    }
+
+    @Test
+    void testAddAllRejectsRepeatedNamesInsideBatch() {
+        when(categoryRepository.findAllById(anyIterable())).thenReturn(List.of(category));
+        when(eventRepository.findEventNamesIn(anyCollection())).thenReturn(List.of());
+
+        List<BulkEventResultDto> results = eventImportService.addAll(List.of(
+                row("Concert", 1L),
+                row("Concert", 1L)).iterator());
+
+        assertEquals(BulkEventResultDto.CREATED, results.get(0).getStatus());
+        assertEquals(BulkEventResultDto.REJECTED, results.get(1).getStatus());
+        verify(entityManager, times(1)).persist(any(Event.class));
+    }
+
+    @Test
+    void testAddAllRejectsMissingFields() {
+        when(categoryRepository.findAllById(anyIterable())).thenReturn(List.of(category));
+        EventRegistrationDto noName = row(null, 1L);
+
+        List<BulkEventResultDto> results = eventImportService.addAll(List.of(noName).iterator());
+
+        assertEquals(BulkEventResultDto.rejected(0, "Event name is required"), results.get(0));
+        verify(eventRepository, never()).findEventNamesIn(anyCollection());
+        verify(entityManager, never()).persist(any());
+    }
+}
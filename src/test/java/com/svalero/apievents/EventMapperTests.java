@@ -0,0 +1,75 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.EventMapper;
+import com.svalero.apievents.domain.dto.EventOutDto;
+import com.svalero.apievents.domain.dto.EventRegistrationDto;
+import com.svalero.apievents.domain.dto.NearbyEventOutDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventMapperTests {
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        EventCategory category = new EventCategory();
+        category.setId(3L);
+
+        event = new Event();
+        event.setId(7L);
+        event.setEventName("Concert");
+        event.setDescription("Open air");
+        event.setEventDate(LocalDate.of(2025, 5, 20));
+        event.setCapacity(300);
+        event.setUbication("Madrid");
+        event.setLatitude(40.4);
+        event.setLongitude(-3.7);
+        event.setCategory(category);
+    }
+
+    @Test
+    void testToEventCopiesRegistrationFields() {
+        EventRegistrationDto dto = new EventRegistrationDto("Concert", LocalDate.of(2025, 5, 20), 300, "Madrid",
+                40.4, -3.7, 3L);
+
+        Event result = EventMapper.toEvent(dto);
+
+        assertEquals("Concert", result.getEventName());
+        assertEquals(LocalDate.of(2025, 5, 20), result.getEventDate());
+        assertEquals(300, result.getCapacity());
+        assertEquals("Madrid", result.getUbication());
+        assertEquals(40.4, result.getLatitude());
+        assertEquals(-3.7, result.getLongitude());
+        assertNull(result.getCategory());
+    }
+
+    @Test
+    void testToOutDto() {
+        EventOutDto result = EventMapper.toOutDto(event);
+
+        assertEquals(new EventOutDto(7L, "Concert", LocalDate.of(2025, 5, 20), 300, "Madrid", 3L, 40.4, -3.7), result);
+    }
+
+    @Test
+    void testToOutDtoWithoutCategory() {
+        event.setCategory(null);
+
+        assertEquals(0L, EventMapper.toOutDto(event).getCategoryId());
+    }
+
+    @Test
+    void testToNearbyOutDto() {
+        NearbyEventOutDto result = EventMapper.toNearbyOutDto(event, 1.5);
+
+        assertEquals(7L, result.getId());
+        assertEquals(3L, result.getCategoryId());
+        assertEquals(1.5, result.getDistanceKm());
+    }
+}
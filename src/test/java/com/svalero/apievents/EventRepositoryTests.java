@@ -1,11 +1,20 @@
 package com.svalero.apievents;
 
 import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.EventCursor;
+import com.svalero.apievents.domain.dto.EventOutDto;
+import com.svalero.apievents.domain.dto.TopEventDto;
 import com.svalero.apievents.repository.EventRepository;
+import com.svalero.apievents.repository.EventSpecifications;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -18,6 +27,9 @@ public class EventRepositoryTests {
     @Autowired
     private EventRepository eventRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Event event;
 
     @BeforeEach
@@ -72,4 +84,92 @@ public class EventRepositoryTests {
         assertEquals(1, events.size());
         assertEquals("Madrid", events.get(0).getUbication());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindPageAfterCursor() {
+        Event later = new Event();
+        later.setEventName("Feria del Libro");
+        later.setCapacity(300);
+        later.setEventDate(LocalDate.of(2025, 6, 1));
+        later.setUbication("Madrid");
+        eventRepository.save(later);
+
+        List<EventOutDto> firstPage = eventRepository.findPage(EventCursor.FIRST_DATED.getEventDate(),
+                EventCursor.FIRST_DATED.getId(), Limit.of(1));
+        assertEquals(1, firstPage.size());
+        assertEquals("Festival de Música", firstPage.get(0).getEventName());
+
+        List<EventOutDto> secondPage = eventRepository.findPage(firstPage.get(0).getEventDate(), firstPage.get(0).getId(), Limit.of(1));
+        assertEquals(1, secondPage.size());
+        assertEquals("Feria del Libro", secondPage.get(0).getEventName());
+    }
+
+    @Test
+    void testFindUndatedPageAfterCursor() {
+        Event undated = new Event();
+        undated.setEventName("Mercadillo");
+        undated.setCapacity(100);
+        undated.setUbication("Madrid");
+        eventRepository.save(undated);
+
+        List<EventOutDto> firstPage = eventRepository.findUndatedPage(0L, Limit.of(2));
+        assertEquals(List.of("Mercadillo"), firstPage.stream().map(EventOutDto::getEventName).toList());
+        assertTrue(eventRepository.findUndatedPage(undated.getId(), Limit.of(2)).isEmpty());
+
+        List<EventOutDto> datedPage = eventRepository.findPage(EventCursor.FIRST_DATED.getEventDate(),
+                EventCursor.FIRST_DATED.getId(), Limit.of(2));
+        assertEquals(List.of("Festival de Música"), datedPage.stream().map(EventOutDto::getEventName).toList());
+    }
+
+    @Test
+    void testKeysetConditionSeeksTheDateIdIndex() {
+        // Misma condición que EventRepository.KEYSET_AFTER: H2 la resuelve buscando en el índice a partir del
+        // cursor y sin ordenar después, de modo que una página profunda lee tantas filas como la primera
+        String plan = (String) entityManager.createNativeQuery("explain select id from events"
+                        + " where (event_date, id) > (date '2025-05-01', 0) order by event_date, id limit 11")
+                .getSingleResult();
+        assertTrue(plan.contains("IDX_EVENTS_DATE_ID"), plan);
+        assertTrue(plan.contains("EVENT_DATE >="), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void testFindSummariesContainingReturnsCategoryIdZeroWithoutCategory() {
+        List<EventOutDto> summaries = eventRepository.findSummariesContaining("Madrid", Limit.of(10));
+        assertEquals(1, summaries.size());
+        assertEquals("Festival de Música", summaries.get(0).getEventName());
+        assertEquals(0L, summaries.get(0).getCategoryId());
+    }
+
+    @Test
+    void testFindEventNamesByIdInSkipsMissingIds() {
+        List<TopEventDto> names = eventRepository.findEventNamesByIdIn(List.of(event.getId(), event.getId() + 1000));
+        assertEquals(List.of(new TopEventDto(event.getId(), "Festival de Música", 0)), names);
+    }
+
+    @Test
+    void testFindAllMatchingCombinedFilters() {
+        Event small = new Event();
+        small.setEventName("Teatro de Calle");
+        small.setCapacity(80);
+        small.setEventDate(LocalDate.of(2025, 5, 25));
+        small.setUbication("Madrid Centro");
+        eventRepository.save(small);
+
+        Event elsewhere = new Event();
+        elsewhere.setEventName("Concierto");
+        elsewhere.setCapacity(200);
+        elsewhere.setEventDate(LocalDate.of(2025, 5, 22));
+        elsewhere.setUbication("Sevilla");
+        eventRepository.save(elsewhere);
+
+        EventSpecifications.Filter filter = new EventSpecifications.Filter(null, LocalDate.of(2025, 5, 1),
+                LocalDate.of(2025, 5, 31), null, 500, "Madrid", null);
+        Page<Event> page = eventRepository.findAll(EventSpecifications.matching(filter),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "capacity")));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of("Festival de Música", "Teatro de Calle"),
+                page.getContent().stream().map(Event::getEventName).toList());
+    }
+}
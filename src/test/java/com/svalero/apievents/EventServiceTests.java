@@ -2,19 +2,39 @@ package com.svalero.apievents;
 
 import com.svalero.apievents.domain.Event;
 import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.CursorPage;
+import com.svalero.apievents.domain.dto.EventCursor;
+import com.svalero.apievents.domain.dto.EventFacetsDto;
+import com.svalero.apievents.domain.dto.EventOccupancyDto;
 import com.svalero.apievents.domain.dto.EventOutDto;
 import com.svalero.apievents.domain.dto.EventRegistrationDto;
+import com.svalero.apievents.domain.dto.NearbyEventOutDto;
+import com.svalero.apievents.domain.dto.TopEventDto;
+import com.svalero.apievents.domain.dto.UpcomingEventDto;
 import com.svalero.apievents.exception.EventCategoryNotFoundException;
 import com.svalero.apievents.exception.EventNotFoundException;
+import com.svalero.apievents.exception.InvalidQueryException;
+import com.svalero.apievents.index.CategoryCatalog;
+import com.svalero.apievents.index.CategoryEventCounters;
+import com.svalero.apievents.index.EventCalendarIndex;
+import com.svalero.apievents.index.EventFacetIndex;
+import com.svalero.apievents.index.EventGeoIndex;
+import com.svalero.apievents.index.EventIndexes;
+import com.svalero.apievents.index.EventTextIndex;
+import com.svalero.apievents.index.PaidAmounts;
+import com.svalero.apievents.index.SeatInventory;
+import com.svalero.apievents.index.TrendingEvents;
+import com.svalero.apievents.index.UpcomingEventsView;
 import com.svalero.apievents.repository.EventCategoryRepository;
 import com.svalero.apievents.repository.EventRepository;
+import com.svalero.apievents.repository.GroupCommitWriter;
 import com.svalero.apievents.service.EventService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.modelmapper.ModelMapper;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
@@ -33,7 +53,41 @@ public class EventServiceTests {
     private EventCategoryRepository categoryRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private EventIndexes eventIndexes;
+
+    @Mock
+    private EventGeoIndex eventGeoIndex;
+
+    @Mock
+    private EventTextIndex eventTextIndex;
+
+    @Mock
+    private EventCalendarIndex eventCalendarIndex;
+
+    @Mock
+    private EventFacetIndex eventFacetIndex;
+
+    @Mock
+    private UpcomingEventsView upcomingEventsView;
+
+    @Mock
+    private TrendingEvents trendingEvents;
+
+    @Mock
+    private CategoryEventCounters categoryEventCounters;
+
+    @Mock
+    private CategoryCatalog categoryCatalog;
+
+    // Sin grupos: cada save llega directo al repositorio simulado
+    @Spy
+    private GroupCommitWriter groupCommitWriter = GroupCommitWriter.disabled();
+
+    @Mock
+    private SeatInventory seatInventory;
+
+    @Mock
+    private PaidAmounts paidAmounts;
 
     @InjectMocks
     private EventService eventService;
@@ -64,6 +118,113 @@ public class EventServiceTests {
         assertEquals(1, result.size());
     }
 
+    @Test
+    void testGetAllEventsPageWithNextCursor() {
+        EventOutDto first = new EventOutDto(1L, "Concert", LocalDate.now(), 200, "Madrid", 1L, 0, 0);
+        EventOutDto second = new EventOutDto(2L, "Festival", LocalDate.now(), 500, "Madrid", 1L, 0, 0);
+        when(eventRepository.findUndatedPage(eq(0L), argThat(limit -> limit.max() == 2))).thenReturn(List.of());
+        when(eventRepository.findPage(eq(EventCursor.FIRST_DATED.getEventDate()), eq(0L), argThat(limit -> limit.max() == 2)))
+                .thenReturn(List.of(first, second));
+
+        CursorPage<EventOutDto> page = eventService.getAllEvents(EventCursor.FIRST, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(EventCursor.of(event), EventCursor.decode(page.getNext()));
+    }
+
+    @Test
+    void testGetAllEventsPageContinuesFromUndatedToDated() {
+        EventOutDto undated = new EventOutDto(3L, "Mercadillo", null, 100, "Madrid", 1L, 0, 0);
+        EventOutDto dated = new EventOutDto(1L, "Concert", LocalDate.now(), 200, "Madrid", 1L, 0, 0);
+        when(eventRepository.findUndatedPage(eq(0L), argThat(limit -> limit.max() == 3))).thenReturn(List.of(undated));
+        when(eventRepository.findPage(eq(EventCursor.FIRST_DATED.getEventDate()), eq(0L), argThat(limit -> limit.max() == 2)))
+                .thenReturn(List.of(dated));
+
+        CursorPage<EventOutDto> page = eventService.getAllEvents(EventCursor.FIRST, 2);
+
+        assertEquals(List.of(3L, 1L), page.getItems().stream().map(EventOutDto::getId).toList());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void testGetAllEventsLastPage() {
+        EventCursor after = EventCursor.of(event);
+        when(eventRepository.findPage(eq(after.getEventDate()), eq(after.getId()),
+                argThat(limit -> limit.max() == EventService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        CursorPage<EventOutDto> page = eventService.getAllEvents(after, 0);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void testGetEventsByNamePageFromIndex() {
+        Event second = new Event();
+        second.setId(2L);
+        second.setEventDate(LocalDate.now().plusDays(1));
+        when(eventIndexes.isLoaded()).thenReturn(true);
+        when(eventTextIndex.findPageByEventNameContaining("conc", EventCursor.of(event), 11))
+                .thenReturn(List.of(second));
+
+        CursorPage<EventOutDto> page = eventService.getEventsByName("conc", EventCursor.of(event), 10);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(2L, page.getItems().get(0).getId());
+        assertNull(page.getNext());
+        verifyNoMoreInteractions(eventRepository);
+    }
+
+    @Test
+    void testGetEventsBetweenDatesFromCalendar() {
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusDays(2);
+        when(eventIndexes.isLoaded()).thenReturn(true);
+        when(eventCalendarIndex.findBetween(start, end, EventCursor.FIRST, 11)).thenReturn(List.of(event));
+
+        CursorPage<EventOutDto> page = eventService.getEventsBetweenDates(start, end, EventCursor.FIRST, 10);
+
+        assertEquals(1, page.getItems().size());
+        // Las entidades del índice se resumen con la categoría como id
+        assertEquals(1L, page.getItems().get(0).getCategoryId());
+        assertNull(page.getNext());
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testGetEventsByDateColdStartUsesDatabase() {
+        LocalDate today = LocalDate.now();
+        when(eventIndexes.isLoaded()).thenReturn(false);
+        when(eventRepository.findByEventDate(today)).thenReturn(List.of(event));
+
+        assertEquals(1, eventService.getEventsByDate(today).size());
+        verifyNoInteractions(eventCalendarIndex);
+    }
+
+    @Test
+    void testSearchEventsFromIndex() {
+        when(eventIndexes.isLoaded()).thenReturn(true);
+        when(eventTextIndex.search("concierto madrid", 10)).thenReturn(List.of(event));
+
+        List<EventOutDto> result = eventService.searchEvents("concierto madrid", 10);
+
+        assertEquals(1, result.size());
+        assertEquals("Concert", result.get(0).getEventName());
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testSearchEventsColdStartUsesProjection() {
+        EventOutDto summary = new EventOutDto(1L, "Concert", LocalDate.now(), 200, "Madrid", 1L, 0, 0);
+        when(eventIndexes.isLoaded()).thenReturn(false);
+        when(eventRepository.findSummariesContaining(eq("Concert"), argThat(limit -> limit.max() == 10)))
+                .thenReturn(List.of(summary));
+
+        assertEquals(List.of(summary), eventService.searchEvents("Concert", 10));
+        verifyNoInteractions(eventTextIndex);
+    }
+
     @Test
     void testGetEventByIdFound() {
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
@@ -78,11 +239,104 @@ public class EventServiceTests {
         assertThrows(EventNotFoundException.class, () -> eventService.getEventById(99L));
     }
 
+    @Test
+    void testGetEventOccupancyFromCounters() {
+        when(seatInventory.capacity(1L)).thenReturn(100);
+        when(seatInventory.reserved(1L)).thenReturn(60L);
+        when(paidAmounts.paid(1L)).thenReturn(1250.0);
+
+        EventOccupancyDto occupancy = eventService.getEventOccupancy(1L);
+
+        assertEquals(new EventOccupancyDto(1L, 100, 60L, 1250.0, 40L), occupancy);
+        verifyNoInteractions(eventRepository);
+    }
+
     @Test
     void testSaveEvent() {
         when(eventRepository.save(any())).thenReturn(event);
         Event saved = eventService.saveEvent(event);
         assertEquals("Concert", saved.getEventName());
+        verify(eventIndexes).put(event);
+        verify(categoryEventCounters).increment(category.getId());
+    }
+
+    @Test
+    void testGetEventFacetsFromIndex() {
+        EventFacetIndex.FacetFilter filter = new EventFacetIndex.FacetFilter(null, null, 500, null, null);
+        EventFacetsDto facets = new EventFacetsDto();
+        when(eventIndexes.isLoaded()).thenReturn(true);
+        when(eventFacetIndex.facets(filter, 10)).thenReturn(facets);
+
+        assertSame(facets, eventService.getEventFacets(filter, 10));
+        verify(eventRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetUpcomingEventsFromViewWithoutDatabase() {
+        List<UpcomingEventDto> upcoming = List.of(new UpcomingEventDto());
+        when(eventIndexes.isLoaded()).thenReturn(true);
+        when(upcomingEventsView.find(30, 100)).thenReturn(upcoming);
+
+        assertSame(upcoming, eventService.getUpcomingEvents(30, 0));
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testGetTopEventsWithNames() {
+        when(trendingEvents.top(TrendingEvents.Window.WEEK, 10)).thenReturn(List.of(
+                new TrendingEvents.Score(event.getId(), 12), new TrendingEvents.Score(99L, 3)));
+        when(eventRepository.findEventNamesByIdIn(List.of(event.getId(), 99L)))
+                .thenReturn(List.of(new TopEventDto(event.getId(), event.getEventName(), 0)));
+
+        List<TopEventDto> top = eventService.getTopEvents("7d", 10);
+
+        assertEquals(List.of(new TopEventDto(event.getId(), event.getEventName(), 12),
+                new TopEventDto(99L, null, 3)), top);
+    }
+
+    @Test
+    void testGetTopEventsWithInvalidWindow() {
+        assertThrows(InvalidQueryException.class, () -> eventService.getTopEvents("1h", 10));
+        verifyNoInteractions(trendingEvents);
+    }
+
+    @Test
+    void testGetEventFacetsColdStartUsesDatabase() {
+        when(eventIndexes.isLoaded()).thenReturn(false);
+        when(eventRepository.findAll()).thenReturn(List.of(event));
+
+        EventFacetsDto facets = eventService.getEventFacets(new EventFacetIndex.FacetFilter(null, null, null, null, null), 10);
+
+        assertEquals(1, facets.getTotal());
+        assertEquals(Map.of(category.getId(), 1L), facets.getCategories());
+        verifyNoInteractions(eventFacetIndex);
+    }
+
+    @Test
+    void testGetEventsNearFromIndex() {
+        when(eventIndexes.isLoaded()).thenReturn(true);
+        when(eventGeoIndex.findNear(40.4, -3.7, 5, 10)).thenReturn(List.of(new EventGeoIndex.GeoHit(event, 1.5)));
+
+        List<NearbyEventOutDto> result = eventService.getEventsNear(40.4, -3.7, 5, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(event.getId(), result.get(0).getId());
+        assertEquals(1.5, result.get(0).getDistanceKm());
+        verify(eventRepository, never()).findByLatitudeBetweenAndLongitudeBetween(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testGetEventsNearColdStartUsesDatabase() {
+        event.setLatitude(40.41);
+        event.setLongitude(-3.70);
+        when(eventIndexes.isLoaded()).thenReturn(false);
+        when(eventRepository.findByLatitudeBetweenAndLongitudeBetween(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(event));
+
+        List<NearbyEventOutDto> result = eventService.getEventsNear(40.4, -3.7, 5, 10);
+
+        assertEquals(1, result.size());
+        verifyNoInteractions(eventGeoIndex);
     }
 
     @Test
@@ -93,17 +347,42 @@ public class EventServiceTests {
         dto.setUbication("Madrid");
         dto.setCategoryId(1L);
 
-        EventOutDto outDto = new EventOutDto();
-        outDto.setId(1L);
-        outDto.setEventName("Concert");
-
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(modelMapper.map(dto, Event.class)).thenReturn(event);
-        when(eventRepository.save(any())).thenReturn(event);
-        when(modelMapper.map(event, EventOutDto.class)).thenReturn(outDto);
+        when(eventRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         EventOutDto result = eventService.add(dto);
         assertEquals("Concert", result.getEventName());
+        assertEquals(LocalDate.now(), result.getEventDate());
+        assertEquals(category.getId(), result.getCategoryId());
+        verify(categoryEventCounters).increment(category.getId());
+    }
+
+    @Test
+    void testAddEventKeepsItsDate() {
+        EventRegistrationDto dto = new EventRegistrationDto();
+        dto.setEventName("Concert");
+        dto.setEventDate(LocalDate.of(2025, 9, 1));
+        dto.setCapacity(300);
+        dto.setUbication("Madrid");
+        dto.setCategoryId(1L);
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(eventRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(LocalDate.of(2025, 9, 1), eventService.add(dto).getEventDate());
+    }
+
+    @Test
+    void testAddEventTakesCategoryFromCatalog() {
+        EventRegistrationDto dto = new EventRegistrationDto();
+        dto.setEventName("Concert");
+        dto.setCategoryId(1L);
+
+        when(categoryCatalog.findById(1L)).thenReturn(Optional.of(category));
+        when(eventRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(category.getId(), eventService.add(dto).getCategoryId());
+        verify(categoryRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -131,6 +410,21 @@ public class EventServiceTests {
         assertEquals("Updated", result.getEventName());
     }
 
+    @Test
+    void testUpdateEventToAnotherCategoryMovesCounter() {
+        EventCategory other = new EventCategory();
+        other.setId(2L);
+        Event updated = new Event();
+        updated.setCategory(other);
+
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(eventRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        eventService.updateEvent(1L, updated);
+
+        verify(categoryEventCounters).move(category.getId(), 2L);
+    }
+
     @Test
     void testUpdateEventPartial() {
         Map<String, Object> updates = new HashMap<>();
@@ -145,16 +439,19 @@ public class EventServiceTests {
 
     @Test
     void testDeleteEventSuccess() {
-        when(eventRepository.existsById(1L)).thenReturn(true);
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
         doNothing().when(eventRepository).deleteById(1L);
         eventService.deleteEvent(1L);
         verify(eventRepository).deleteById(1L);
+        verify(eventIndexes).remove(1L);
+        verify(categoryEventCounters).decrement(category.getId());
     }
 
     @Test
     void testDeleteEventNotFound() {
-        when(eventRepository.existsById(99L)).thenReturn(false);
+        when(eventRepository.findById(99L)).thenReturn(Optional.empty());
         assertThrows(EventNotFoundException.class, () -> eventService.deleteEvent(99L));
+        verifyNoInteractions(categoryEventCounters);
     }
 }
 
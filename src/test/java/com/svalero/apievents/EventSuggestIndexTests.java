@@ -0,0 +1,81 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.SuggestionDto;
+import com.svalero.apievents.index.CategorySuggestIndex;
+import com.svalero.apievents.index.EventSuggestIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventSuggestIndexTests {
+
+    @Test
+    void testUpcomingEventsFirstThenUndatedThenPast() {
+        LocalDate today = LocalDate.now();
+        EventSuggestIndex index = new EventSuggestIndex();
+        index.rebuild(List.of(
+                event(1L, "Festival de Otoño", today.minusDays(3)),
+                event(2L, "Festival de Jazz", today.plusDays(30)),
+                event(3L, "Festival Infantil", null),
+                event(4L, "Festival de Cine", today),
+                event(5L, "Festival Antiguo", today.minusDays(300))));
+
+        assertEquals(List.of(4L, 2L, 3L, 1L, 5L), ids(index.suggest("fest", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("jazz", 10)));
+    }
+
+    @Test
+    void testPutMovesEventAndRemoveDropsIt() {
+        LocalDate today = LocalDate.now();
+        EventSuggestIndex index = new EventSuggestIndex();
+        index.rebuild(List.of(event(1L, "Feria", today.plusDays(10)), event(2L, "Feria de Abril", today.plusDays(20))));
+
+        index.put(event(2L, "Feria de Abril", today.plusDays(1)));
+        assertEquals(List.of(2L, 1L), ids(index.suggest("feria", 10)));
+
+        index.remove(2L);
+        assertEquals(List.of(), ids(index.suggest("abril", 10)));
+    }
+
+    @Test
+    void testSnapshotSuggestionsForColdStart() {
+        List<Event> events = List.of(event(1L, "Concierto", LocalDate.now()), event(2L, "Congreso", null));
+
+        assertEquals(List.of(1L), ids(EventSuggestIndex.suggest(events, "conc", 10)));
+    }
+
+    @Test
+    void testCategoriesWithMoreEventsFirst() {
+        CategorySuggestIndex index = new CategorySuggestIndex();
+        index.rebuild(List.of(category(1L, "Música clásica", 3), category(2L, "Música electrónica", 12),
+                category(3L, "Teatro musical", 7)));
+
+        assertEquals(List.of(2L, 3L, 1L), ids(index.suggest("music", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("musica e", 10)));
+    }
+
+    private List<Long> ids(List<SuggestionDto> suggestions) {
+        return suggestions.stream().map(SuggestionDto::getId).toList();
+    }
+
+    private Event event(long id, String name, LocalDate date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setEventName(name);
+        event.setEventDate(date);
+        return event;
+    }
+
+    private EventCategory category(long id, String name, int numberEvents) {
+        EventCategory category = new EventCategory();
+        category.setId(id);
+        category.setName(name);
+        category.setNumberEvents(numberEvents);
+        return category;
+    }
+}
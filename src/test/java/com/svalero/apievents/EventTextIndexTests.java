@@ -0,0 +1,95 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.EventCursor;
+import com.svalero.apievents.index.CategoryTextIndex;
+import com.svalero.apievents.index.EventTextIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventTextIndexTests {
+
+    private CategoryTextIndex categoryTextIndex;
+    private EventTextIndex eventTextIndex;
+    private EventCategory music;
+
+    @BeforeEach
+    void setUp() {
+        music = new EventCategory();
+        music.setId(1L);
+        music.setName("Música");
+        music.setDescription("Conciertos y festivales");
+        categoryTextIndex = new CategoryTextIndex();
+        categoryTextIndex.rebuild(List.of(music));
+
+        eventTextIndex = new EventTextIndex(categoryTextIndex);
+        eventTextIndex.rebuild(List.of(
+                event(1L, "Festival de Música", "Bandas en directo", "Madrid", music, LocalDate.of(2025, 5, 20)),
+                event(2L, "Feria del Libro", "Libros", "Madrid - Retiro", null, LocalDate.of(2025, 5, 1)),
+                event(3L, "Jazz night", "Música jazz", "Zaragoza", null, null)));
+    }
+
+    @Test
+    void testFindByEventNameFoldsCaseAndAccents() {
+        List<Event> events = eventTextIndex.findByEventNameContaining("MUSICA");
+        assertEquals(1, events.size());
+        assertEquals(1L, events.get(0).getId());
+    }
+
+    @Test
+    void testFindByUbicationSortedByDateAndId() {
+        List<Event> events = eventTextIndex.findByUbicationContaining("madrid");
+        assertEquals(List.of(2L, 1L), events.stream().map(Event::getId).toList());
+    }
+
+    @Test
+    void testFindPageByUbicationReturnsTheFirstAfterCursor() {
+        eventTextIndex.put(event(4L, "Mercadillo", "Artesanía", "Madrid", null, null));
+        eventTextIndex.put(event(5L, "Teatro", "Comedia", "Madrid", null, LocalDate.of(2025, 6, 1)));
+
+        List<Event> first = eventTextIndex.findPageByUbicationContaining("madrid", EventCursor.FIRST, 2);
+        assertEquals(List.of(4L, 2L), first.stream().map(Event::getId).toList());
+
+        List<Event> next = eventTextIndex.findPageByUbicationContaining("madrid", EventCursor.of(first.get(1)), 2);
+        assertEquals(List.of(1L, 5L), next.stream().map(Event::getId).toList());
+    }
+
+    @Test
+    void testSearchRanksByRelevance() {
+        List<Event> events = eventTextIndex.search("música madrid", 10);
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(Event::getId).toList());
+    }
+
+    @Test
+    void testSearchMatchesCategoryDescription() {
+        List<Event> events = eventTextIndex.search("festivales", 10);
+        assertEquals(1, events.size());
+        assertEquals(1L, events.get(0).getId());
+    }
+
+    @Test
+    void testPutAndRemoveKeepIndexInSync() {
+        eventTextIndex.put(event(1L, "Concierto", "Rock", "Bilbao", null, null));
+        assertTrue(eventTextIndex.findByEventNameContaining("música").isEmpty());
+
+        eventTextIndex.remove(3L);
+        assertTrue(eventTextIndex.search("jazz", 10).isEmpty());
+    }
+
+    private Event event(long id, String name, String description, String ubication, EventCategory category, LocalDate date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setEventName(name);
+        event.setDescription(description);
+        event.setUbication(ubication);
+        event.setCategory(category);
+        event.setEventDate(date);
+        return event;
+    }
+}
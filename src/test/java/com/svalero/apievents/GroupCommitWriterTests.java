@@ -0,0 +1,138 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.User;
+import com.svalero.apievents.repository.GroupCommitWriter;
+import com.svalero.apievents.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin transacción por test: el escritor confirma en su propio hilo
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class GroupCommitWriterTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private GroupCommitWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.stop();
+        }
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentSavesShareCommits() throws Exception {
+        writer = new GroupCommitWriter(transactionManager, entityManagerFactory, true, 32, 20);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<User>> saved = new ArrayList<>();
+
+        for (int i = 0; i < 64; i++) {
+            User user = user("user" + i);
+            saved.add(executor.submit(() -> writer.save(userRepository, user)));
+        }
+        for (Future<User> user : saved) {
+            assertNotEquals(0, user.get(10, TimeUnit.SECONDS).getId());
+        }
+        executor.shutdown();
+
+        assertEquals(64, userRepository.count());
+        assertEquals(64, writer.getWrites());
+        assertTrue(writer.getCommits() < 64);
+    }
+
+    @Test
+    void testFailedWriteOnlyFailsItself() throws Exception {
+        userRepository.save(user("taken"));
+        writer = new GroupCommitWriter(transactionManager, entityManagerFactory, true, 32, 200);
+
+        CompletableFuture<User> first = writer.submit(userRepository, user("first"));
+        CompletableFuture<User> duplicate = writer.submit(userRepository, user("taken"));
+        CompletableFuture<User> last = writer.submit(userRepository, user("last"));
+
+        assertNotEquals(0, first.get(10, TimeUnit.SECONDS).getId());
+        assertNotEquals(0, last.get(10, TimeUnit.SECONDS).getId());
+        assertThrows(ExecutionException.class, () -> duplicate.get(10, TimeUnit.SECONDS));
+        assertEquals(3, userRepository.count());
+        assertTrue(userRepository.findAll().stream().anyMatch(user -> user.getName().equals("first")));
+        assertTrue(userRepository.findAll().stream().anyMatch(user -> user.getName().equals("last")));
+    }
+
+    @Test
+    void testSubmitsWhileStoppingAreNotLost() throws Exception {
+        writer = new GroupCommitWriter(transactionManager, entityManagerFactory, true, 8, 5);
+        int threads = 8;
+        int savesPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Future<List<CompletableFuture<User>>>> submitted = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            submitted.add(executor.submit(() -> {
+                List<CompletableFuture<User>> saves = new ArrayList<>();
+                started.countDown();
+                for (int j = 0; j < savesPerThread; j++) {
+                    saves.add(writer.submit(userRepository, user("user" + thread + "-" + j)));
+                }
+                return saves;
+            }));
+        }
+        // Se para con las escrituras llegando: unas van al escritor y las que llegan tarde se guardan directas
+        started.await();
+        writer.stop();
+
+        for (Future<List<CompletableFuture<User>>> saves : submitted) {
+            for (CompletableFuture<User> saved : saves.get(10, TimeUnit.SECONDS)) {
+                assertNotEquals(0, saved.get(10, TimeUnit.SECONDS).getId());
+            }
+        }
+        executor.shutdown();
+        assertEquals(threads * savesPerThread, userRepository.count());
+    }
+
+    @Test
+    void testDisabledWriterSavesDirectly() {
+        writer = new GroupCommitWriter(transactionManager, entityManagerFactory, false, 32, 20);
+
+        User saved = writer.save(userRepository, user("direct"));
+
+        assertNotEquals(0, saved.getId());
+        assertFalse(writer.isEnabled());
+        assertEquals(0, writer.getCommits());
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword(name + "-password");
+        return user;
+    }
+}
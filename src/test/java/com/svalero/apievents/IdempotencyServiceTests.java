@@ -0,0 +1,181 @@
+package com.svalero.apievents;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svalero.apievents.domain.IdempotencyRecord;
+import com.svalero.apievents.domain.dto.SuggestionDto;
+import com.svalero.apievents.exception.IdempotencyKeyReusedException;
+import com.svalero.apievents.exception.InvalidQueryException;
+import com.svalero.apievents.exception.NotEnoughSeatsException;
+import com.svalero.apievents.repository.IdempotencyRecordRepository;
+import com.svalero.apievents.service.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTests {
+
+    private static final SuggestionDto REQUEST = new SuggestionDto(1L, "Request");
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, new ObjectMapper(), Duration.ofHours(24), 100);
+    }
+
+    @Test
+    void testRepeatedKeyIsReplayedWithoutExecuting() {
+        AtomicInteger executions = new AtomicInteger();
+
+        ResponseEntity<SuggestionDto> first = idempotencyService.execute("reservations", "key-1", REQUEST, SuggestionDto.class,
+                () -> created(executions.incrementAndGet()));
+        ResponseEntity<SuggestionDto> second = idempotencyService.execute("reservations", "key-1", REQUEST, SuggestionDto.class,
+                () -> created(executions.incrementAndGet()));
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(repository).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testKeysAreScopedAndOptional() {
+        AtomicInteger executions = new AtomicInteger();
+        Supplier<ResponseEntity<SuggestionDto>> action = () -> created(executions.incrementAndGet());
+
+        idempotencyService.execute("reservations", "key-1", REQUEST, SuggestionDto.class, action);
+        idempotencyService.execute("payments", "key-1", REQUEST, SuggestionDto.class, action);
+        idempotencyService.execute("payments", null, REQUEST, SuggestionDto.class, action);
+        idempotencyService.execute("payments", null, REQUEST, SuggestionDto.class, action);
+
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void testStoredResponseSurvivesRestart() {
+        when(repository.findById("payments:key-2")).thenReturn(Optional.of(new IdempotencyRecord("payments:key-2", null, 201,
+                "{\"id\":7,\"name\":\"Stored\"}", Instant.now().minusSeconds(60))));
+
+        ResponseEntity<SuggestionDto> replayed = idempotencyService.execute("payments", "key-2", REQUEST, SuggestionDto.class,
+                () -> fail("a stored key must not execute again"));
+
+        assertEquals(new SuggestionDto(7L, "Stored"), replayed.getBody());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void testRepeatedKeyWithAnotherBodyIsRejected() {
+        idempotencyService.execute("reservations", "key-6", REQUEST, SuggestionDto.class, () -> created(1));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute("reservations", "key-6",
+                new SuggestionDto(1L, "Other"), SuggestionDto.class, () -> fail("a used key must not execute again")));
+        // El mismo contenido con otro objeto sí es una repetición
+        assertEquals(1L, idempotencyService.execute("reservations", "key-6", new SuggestionDto(1L, "Request"),
+                SuggestionDto.class, () -> created(2)).getBody().getId());
+    }
+
+    @Test
+    void testStoredKeyWithAnotherBodyIsRejectedAfterRestart() {
+        when(repository.findById("payments:key-7")).thenReturn(Optional.of(new IdempotencyRecord("payments:key-7",
+                "0".repeat(64), 201, "{\"id\":7,\"name\":\"Stored\"}", Instant.now().minusSeconds(60))));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute("payments", "key-7",
+                REQUEST, SuggestionDto.class, () -> fail("a stored key must not execute again")));
+    }
+
+    @Test
+    void testExpiredKeyExecutesAgain() {
+        when(repository.findById("payments:key-3")).thenReturn(Optional.of(new IdempotencyRecord("payments:key-3", null, 201,
+                "{\"id\":7,\"name\":\"Stored\"}", Instant.now().minus(Duration.ofDays(2)))));
+
+        ResponseEntity<SuggestionDto> response = idempotencyService.execute("payments", "key-3", REQUEST, SuggestionDto.class,
+                () -> created(8));
+
+        assertEquals(8L, response.getBody().getId());
+    }
+
+    @Test
+    void testFailedRequestIsNotStored() {
+        assertThrows(NotEnoughSeatsException.class, () -> idempotencyService.execute("reservations", "key-4",
+                REQUEST, SuggestionDto.class, () -> {
+                    throw new NotEnoughSeatsException("sold out");
+                }));
+
+        assertEquals(9L, idempotencyService.execute("reservations", "key-4", REQUEST, SuggestionDto.class, () -> created(9))
+                .getBody().getId());
+    }
+
+    @Test
+    void testTooLongKeyIsRejected() {
+        String key = "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+
+        assertThrows(InvalidQueryException.class,
+                () -> idempotencyService.execute("payments", key, REQUEST, SuggestionDto.class, () -> created(1)));
+    }
+
+    @Test
+    void testConcurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        int duplicates = 16;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        List<Future<ResponseEntity<SuggestionDto>>> responses = new ArrayList<>();
+
+        responses.add(executor.submit(() -> idempotencyService.execute("reservations", "key-5", REQUEST, SuggestionDto.class,
+                () -> {
+                    started.countDown();
+                    await(release);
+                    return created(executions.incrementAndGet());
+                })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < duplicates; i++) {
+            responses.add(executor.submit(() -> idempotencyService.execute("reservations", "key-5",
+                    REQUEST, SuggestionDto.class, () -> created(executions.incrementAndGet()))));
+        }
+        release.countDown();
+
+        for (Future<ResponseEntity<SuggestionDto>> response : responses) {
+            assertEquals(1L, response.get(5, TimeUnit.SECONDS).getBody().getId());
+        }
+        executor.shutdown();
+        assertEquals(1, executions.get());
+    }
+
+    private static ResponseEntity<SuggestionDto> created(long id) {
+        return new ResponseEntity<>(new SuggestionDto(id, "Reservation " + id), HttpStatus.CREATED);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
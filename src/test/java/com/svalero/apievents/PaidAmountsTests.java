@@ -0,0 +1,87 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.PaidAmountDto;
+import com.svalero.apievents.index.PaidAmounts;
+import com.svalero.apievents.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaidAmountsTests {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private PaidAmounts paidAmounts;
+
+    @BeforeEach
+    void setUp() {
+        paidAmounts = new PaidAmounts(paymentRepository);
+    }
+
+    @Test
+    void testRebuildSeedsAmountsWithOneQuery() {
+        when(paymentRepository.sumAmountGroupByEvent()).thenReturn(List.of(new PaidAmountDto(1L, 120.0)));
+
+        paidAmounts.rebuild(List.of(event(1L), event(2L)));
+        paidAmounts.add(1L, 30.0);
+        paidAmounts.add(2L, 15.0);
+        paidAmounts.add(1L, -50.0);
+
+        assertEquals(100.0, paidAmounts.paid(1L));
+        assertEquals(15.0, paidAmounts.paid(2L));
+        verify(paymentRepository, never()).sumAmountByEventId(anyLong());
+    }
+
+    @Test
+    void testEventNotInMemoryIsReadOnce() {
+        when(paymentRepository.sumAmountByEventId(3L)).thenReturn(40.0);
+
+        // El pago ya está en la tabla: lo trae la primera lectura
+        paidAmounts.add(3L, 40.0);
+
+        assertEquals(40.0, paidAmounts.paid(3L));
+        paidAmounts.add(3L, 10.0);
+        assertEquals(50.0, paidAmounts.paid(3L));
+        verify(paymentRepository, times(1)).sumAmountByEventId(3L);
+    }
+
+    @Test
+    void testMoveReservationToAnotherEvent() {
+        when(paymentRepository.sumAmountGroupByEvent()).thenReturn(List.of(new PaidAmountDto(1L, 100.0)));
+        when(paymentRepository.sumAmountByReservationId(7L)).thenReturn(60.0);
+        paidAmounts.rebuild(List.of(event(1L), event(2L)));
+
+        paidAmounts.moveReservation(7L, 1L, 2L);
+        paidAmounts.moveReservation(7L, 2L, 2L);
+
+        assertEquals(40.0, paidAmounts.paid(1L));
+        assertEquals(60.0, paidAmounts.paid(2L));
+        verify(paymentRepository, times(1)).sumAmountByReservationId(7L);
+    }
+
+    @Test
+    void testRemovedEventIsForgotten() {
+        when(paymentRepository.sumAmountGroupByEvent()).thenReturn(List.of(new PaidAmountDto(1L, 100.0)));
+        paidAmounts.rebuild(List.of(event(1L)));
+
+        paidAmounts.remove(1L);
+
+        assertEquals(0.0, paidAmounts.paid(1L));
+    }
+
+    private Event event(long id) {
+        Event event = new Event();
+        event.setId(id);
+        return event;
+    }
+}
@@ -4,6 +4,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.svalero.apievents.controller.PaymentController;
 import com.svalero.apievents.domain.Payment;
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.MultiGetDto;
+import com.svalero.apievents.domain.dto.PaymentOutDto;
+import com.svalero.apievents.repository.IdempotencyRecordRepository;
+import com.svalero.apievents.service.IdempotencyService;
 import com.svalero.apievents.service.PaymentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,12 +15,15 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,6 +31,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PaymentController.class)
+@Import(IdempotencyService.class)
 public class PaymentControllerTests {
 
     @Autowired
@@ -32,10 +40,14 @@ public class PaymentControllerTests {
     @MockBean
     private PaymentService paymentService;
 
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Payment payment;
+    private PaymentOutDto summary;
 
     @BeforeEach
     void setUp() {
@@ -48,14 +60,24 @@ public class PaymentControllerTests {
         payment.setStatus("PAID");
         payment.setPaymentDate(LocalDate.now());
         payment.setReservation(reservation);
+
+        summary = new PaymentOutDto(1L, null, null, LocalDate.now(), 100.0, "PAID", 1L);
     }
 
     @Test
     void testGetAllPayments() throws Exception {
-        List<Payment> mockPayments = List.of(payment);
-        Mockito.when(paymentService.getAllPayments()).thenReturn(mockPayments);
-
-        mockMvc.perform(get("/payments"))
+        List<PaymentOutDto> mockPayments = List.of(summary);
+        Mockito.when(paymentService.streamAllPayments(any())).thenAnswer(invocation -> {
+            Consumer<PaymentOutDto> action = invocation.getArgument(0);
+            mockPayments.forEach(action);
+            return (long) mockPayments.size();
+        });
+
+        MvcResult result = mockMvc.perform(get("/payments"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].amount").value(100.0));
 
@@ -76,6 +98,16 @@ public class PaymentControllerTests {
         assertEquals(1L, payment.getId());
     }
 
+    @Test
+    void testGetPaymentsByIds() throws Exception {
+        Mockito.when(paymentService.getPaymentsByIds(List.of(2L, 1L))).thenReturn(new MultiGetDto<>(List.of(payment), List.of(2L)));
+
+        mockMvc.perform(get("/payments").param("ids", "2,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(2));
+    }
+
     @Test
     void testGetPaymentById() throws Exception {
         Mockito.when(paymentService.getPaymentById(1L)).thenReturn(payment);
@@ -100,9 +132,19 @@ public class PaymentControllerTests {
         assertEquals("PAID", payment.getStatus());
     }
 
+    @Test
+    void testGetPaymentsByCustomerName() throws Exception {
+        Mockito.when(paymentService.getPaymentsByCustomerName("Jhon", 100)).thenReturn(List.of(summary));
+
+        mockMvc.perform(get("/payments/customer")
+                        .param("name", "Jhon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].amount").value(100.0));
+    }
+
     @Test
     void testGetPaymentsByDate() throws Exception {
-        Mockito.when(paymentService.getPaymentsByDate(any(LocalDate.class))).thenReturn(List.of(payment));
+        Mockito.when(paymentService.getPaymentsByDate(any(LocalDate.class))).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/payments/date")
                         .param("date", LocalDate.now().toString()))
@@ -112,7 +154,7 @@ public class PaymentControllerTests {
 
     @Test
     void testGetPaymentsBetweenDates() throws Exception {
-        Mockito.when(paymentService.getPaymentsBetweenDates(any(), any())).thenReturn(List.of(payment));
+        Mockito.when(paymentService.getPaymentsBetweenDates(any(), any())).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/payments/range")
                         .param("startDate", LocalDate.now().minusDays(1).toString())
@@ -122,7 +164,7 @@ public class PaymentControllerTests {
 
     @Test
     void testGetPaymentsByStatus() throws Exception {
-        Mockito.when(paymentService.getPaymentsByStatus("PAID")).thenReturn(List.of(payment));
+        Mockito.when(paymentService.getPaymentsByStatus("PAID")).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/payments/status")
                         .param("status", "PAID"))
@@ -131,7 +173,7 @@ public class PaymentControllerTests {
 
     @Test
     void testGetPaymentsByAmount() throws Exception {
-        Mockito.when(paymentService.getPaymentsByAmount(100.0)).thenReturn(List.of(payment));
+        Mockito.when(paymentService.getPaymentsByAmount(100.0)).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/payments/amount")
                         .param("amount", "100.0"))
@@ -140,14 +182,14 @@ public class PaymentControllerTests {
 
     @Test
     void testGetPaymentsByReservation() throws Exception {
-        Mockito.when(paymentService.getPaymentsByReservation(1L)).thenReturn(List.of(payment));
+        Mockito.when(paymentService.getPaymentsByReservation(1L)).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/payments/reservation")
                         .param("reservationId", "1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1));
 
-        assertEquals(1L, payment.getReservation().getId());
+        assertEquals(1L, summary.getReservationId());
     }
 
     @Test
@@ -3,13 +3,18 @@ package com.svalero.apievents;
 import com.svalero.apievents.domain.Event;
 import com.svalero.apievents.domain.Payment;
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.PaidAmountDto;
+import com.svalero.apievents.domain.dto.PaymentOutDto;
 import com.svalero.apievents.repository.EventRepository;
 import com.svalero.apievents.repository.PaymentRepository;
+import com.svalero.apievents.repository.PaymentSpecifications;
 import com.svalero.apievents.repository.ReservationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -101,6 +106,50 @@ public class PaymentRepositoryTests {
         assertEquals(1, payments.size());
         assertEquals("John Doe", payments.get(0).getCustomerName());
     }
-}
 
+    @Test
+    void testFindSummariesByStatus() {
+        List<PaymentOutDto> payments = paymentRepository.findSummariesByStatus("PAID");
+        assertEquals(1, payments.size());
+        assertEquals("John Doe", payments.get(0).getCustomerName());
+        assertEquals(payment.getReservation().getId(), payments.get(0).getReservationId());
+    }
+
+    @Test
+    void testFindSummariesByCustomerNameAndIds() {
+        assertEquals(1, paymentRepository.findSummariesByCustomerNameContaining("John").size());
+        assertTrue(paymentRepository.findSummariesByCustomerNameContaining("Jane").isEmpty());
+        List<PaymentOutDto> payments = paymentRepository.findSummariesByIdIn(List.of(payment.getId()));
+        assertEquals(1, payments.size());
+        assertEquals("John Doe", payments.get(0).getCustomerName());
+    }
+
+    @Test
+    void testSumAmountByEvent() {
+        Payment second = new Payment();
+        second.setCustomerName("John Doe");
+        second.setAmount(50.0);
+        second.setReservation(payment.getReservation());
+        paymentRepository.save(second);
+        long eventId = payment.getReservation().getEvent().getId();
+
+        assertEquals(List.of(new PaidAmountDto(eventId, 200.0)), paymentRepository.sumAmountGroupByEvent());
+        assertEquals(200.0, paymentRepository.sumAmountByEventId(eventId));
+        assertEquals(200.0, paymentRepository.sumAmountByReservationId(payment.getReservation().getId()));
+        assertEquals(0.0, paymentRepository.sumAmountByEventId(eventId + 1));
+    }
 
+    @Test
+    void testFindAllMatchingCombinedFilters() {
+        PaymentSpecifications.Filter filter = new PaymentSpecifications.Filter(null, "PAID", LocalDate.of(2025, 3, 1),
+                LocalDate.of(2025, 3, 31), 100.0, null, payment.getReservation().getId());
+        Page<Payment> page = paymentRepository.findAll(PaymentSpecifications.matching(filter), PageRequest.of(0, 10));
+        assertEquals(1, page.getTotalElements());
+        assertEquals("John Doe", page.getContent().get(0).getCustomerName());
+
+        PaymentSpecifications.Filter noMatch = new PaymentSpecifications.Filter(null, "PENDING", null, null,
+                null, null, null);
+        assertEquals(0, paymentRepository.findAll(PaymentSpecifications.matching(noMatch),
+                PageRequest.of(0, 10)).getTotalElements());
+    }
+}
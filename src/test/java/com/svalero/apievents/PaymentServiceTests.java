@@ -2,14 +2,20 @@ package com.svalero.apievents;
 
 import com.svalero.apievents.domain.Payment;
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.PaymentOutDto;
 import com.svalero.apievents.exception.PaymentNotFoundException;
+import com.svalero.apievents.index.CustomerIndex;
+import com.svalero.apievents.index.PaidAmounts;
+import com.svalero.apievents.repository.GroupCommitWriter;
 import com.svalero.apievents.repository.PaymentRepository;
+import com.svalero.apievents.repository.ReservationRepository;
 import com.svalero.apievents.service.PaymentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
@@ -24,10 +30,23 @@ public class PaymentServiceTests {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Spy
+    private GroupCommitWriter groupCommitWriter = GroupCommitWriter.disabled();
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private PaidAmounts paidAmounts;
+
+    @Mock
+    private CustomerIndex customerIndex;
+
     @InjectMocks
     private PaymentService paymentService;
 
     private Payment payment;
+    private PaymentOutDto summary;
 
     @BeforeEach
     void setUp() {
@@ -42,6 +61,8 @@ public class PaymentServiceTests {
         payment.setStatus("PAID");
         payment.setPaymentDate(LocalDate.of(2025, 3, 18));
         payment.setReservation(reservation);
+
+        summary = new PaymentOutDto(1L, "Test Payment", "John Doe", LocalDate.of(2025, 3, 18), 200.0, "PAID", 1L);
     }
 
     @Test
@@ -64,6 +85,7 @@ public class PaymentServiceTests {
         assertEquals("Test Payment", saved.getName());
         assertEquals("John Doe", saved.getCustomerName());
         verify(paymentRepository).save(payment);
+        verify(customerIndex).putPayment(1L, "John Doe");
     }
 
     @Test
@@ -104,6 +126,22 @@ public class PaymentServiceTests {
         assertEquals(300.0, result.getAmount());
     }
 
+    @Test
+    void testUpdatePaymentMovesPaidAmount() {
+        Payment updatedDetails = new Payment();
+        updatedDetails.setAmount(300.0);
+        updatedDetails.setReservation(payment.getReservation());
+
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reservationRepository.findEventIdById(1L)).thenReturn(Optional.of(5L));
+
+        paymentService.updatePayment(1L, updatedDetails);
+
+        verify(paidAmounts).add(5L, -200.0);
+        verify(paidAmounts).add(5L, 300.0);
+    }
+
     @Test
     void testUpdatePaymentPartial() {
         Map<String, Object> updates = new HashMap<>();
@@ -119,44 +157,67 @@ public class PaymentServiceTests {
 
     @Test
     void testDeletePaymentSuccess() {
-        when(paymentRepository.existsById(1L)).thenReturn(true);
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(reservationRepository.findEventIdById(1L)).thenReturn(Optional.of(5L));
         doNothing().when(paymentRepository).deleteById(1L);
 
         paymentService.deletePayment(1L);
 
         verify(paymentRepository).deleteById(1L);
+        verify(paidAmounts).add(5L, -200.0);
+        verify(customerIndex).removePayment(1L);
     }
 
     @Test
     void testDeletePaymentNotFound() {
-        when(paymentRepository.existsById(2L)).thenReturn(false);
+        when(paymentRepository.findById(2L)).thenReturn(Optional.empty());
 
         assertThrows(PaymentNotFoundException.class, () -> paymentService.deletePayment(2L));
     }
 
+    @Test
+    void testGetPaymentsByCustomerNameFromIndex() {
+        when(customerIndex.isLoaded()).thenReturn(true);
+        when(customerIndex.findPayments("Jhon Doe", 100)).thenReturn(List.of(1L));
+        when(paymentRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(summary));
+
+        List<PaymentOutDto> result = paymentService.getPaymentsByCustomerName("Jhon Doe", 0);
+
+        assertEquals(List.of(summary), result);
+    }
+
+    @Test
+    void testGetPaymentsByCustomerNameBeforeIndexIsLoaded() {
+        when(paymentRepository.findSummariesByCustomerNameContaining("John")).thenReturn(List.of(summary));
+
+        List<PaymentOutDto> result = paymentService.getPaymentsByCustomerName("John", 100);
+
+        assertEquals(1, result.size());
+    }
+
     @Test
     void testGetPaymentsByDate() {
-        when(paymentRepository.findByPaymentDate(any(LocalDate.class))).thenReturn(List.of(payment));
+        when(paymentRepository.findSummariesByPaymentDate(any(LocalDate.class))).thenReturn(List.of(summary));
 
-        List<Payment> result = paymentService.getPaymentsByDate(LocalDate.now());
+        List<PaymentOutDto> result = paymentService.getPaymentsByDate(LocalDate.now());
 
         assertEquals(1, result.size());
     }
 
     @Test
     void testGetPaymentsBetweenDates() {
-        when(paymentRepository.findByPaymentDateBetween(any(), any())).thenReturn(List.of(payment));
+        when(paymentRepository.findSummariesByPaymentDateBetween(any(), any())).thenReturn(List.of(summary));
 
-        List<Payment> result = paymentService.getPaymentsBetweenDates(LocalDate.now().minusDays(1), LocalDate.now().plusDays(1));
+        List<PaymentOutDto> result = paymentService.getPaymentsBetweenDates(LocalDate.now().minusDays(1), LocalDate.now().plusDays(1));
 
         assertEquals(1, result.size());
     }
 
     @Test
     void testGetPaymentsByStatus() {
-        when(paymentRepository.findByStatus("PAID")).thenReturn(List.of(payment));
+        when(paymentRepository.findSummariesByStatus("PAID")).thenReturn(List.of(summary));
 
-        List<Payment> result = paymentService.getPaymentsByStatus("PAID");
+        List<PaymentOutDto> result = paymentService.getPaymentsByStatus("PAID");
 
         assertEquals(1, result.size());
         assertEquals("PAID", result.get(0).getStatus());
@@ -164,20 +225,20 @@ public class PaymentServiceTests {
 
     @Test
     void testGetPaymentsByAmount() {
-        when(paymentRepository.findByAmountGreaterThanEqual(150.0)).thenReturn(List.of(payment));
+        when(paymentRepository.findSummariesByAmountGreaterThanEqual(150.0)).thenReturn(List.of(summary));
 
-        List<Payment> result = paymentService.getPaymentsByAmount(150.0);
+        List<PaymentOutDto> result = paymentService.getPaymentsByAmount(150.0);
 
         assertEquals(1, result.size());
     }
 
     @Test
     void testGetPaymentsByReservation() {
-        when(paymentRepository.findByReservationId(1L)).thenReturn(List.of(payment));
+        when(paymentRepository.findSummariesByReservationId(1L)).thenReturn(List.of(summary));
 
-        List<Payment> result = paymentService.getPaymentsByReservation(1L);
+        List<PaymentOutDto> result = paymentService.getPaymentsByReservation(1L);
 
         assertEquals(1, result.size());
-        assertEquals(1L, result.get(0).getReservation().getId());
+        assertEquals(1L, result.get(0).getReservationId());
     }
 }
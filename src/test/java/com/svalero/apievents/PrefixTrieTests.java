@@ -0,0 +1,142 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.index.PrefixTrie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixTrieTests {
+
+    private PrefixTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new PrefixTrie();
+        trie.put(1L, "Gran Festival de Jazz", 30);
+        trie.put(2L, "Festival Flamenco", 10);
+        trie.put(3L, "Feria del Libro", 20);
+        trie.put(4L, "Cine de verano", 5);
+    }
+
+    @Test
+    void testMatchesTheStartOfAnyWord() {
+        assertEquals(List.of(2L, 1L), ids(trie.top("fest", 10)));
+        assertEquals(List.of(1L), ids(trie.top("jaz", 10)));
+        assertEquals(List.of(), ids(trie.top("stival", 10)));
+    }
+
+    @Test
+    void testPrefixCanSpanWords() {
+        assertEquals(List.of(1L), ids(trie.top("festival de", 10)));
+        assertEquals(List.of(2L, 3L, 1L), ids(trie.top("fe", 10)));
+    }
+
+    @Test
+    void testIgnoresCaseAndAccents() {
+        assertEquals(List.of(4L), ids(trie.top("VERÁ", 10)));
+    }
+
+    @Test
+    void testRanksByScoreAndRespectsLimit() {
+        assertEquals(List.of(2L, 3L, 1L), ids(trie.top("f", 10)));
+        assertEquals(List.of(2L), ids(trie.top("f", 1)));
+        assertEquals(List.of(), ids(trie.top("", 10)));
+    }
+
+    @Test
+    void testPutReplacesAndRemoveDeletes() {
+        trie.put(2L, "Muestra de Flamenco", 10);
+        assertEquals(List.of(1L), ids(trie.top("fest", 10)));
+        assertEquals(List.of(2L), ids(trie.top("muestra", 10)));
+
+        trie.remove(1L);
+        assertEquals(List.of(), ids(trie.top("fest", 10)));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void testTopListsMatchBruteForceAfterManyChanges() {
+        Random random = new Random(42);
+        String[] words = {"gran", "festival", "feria", "fiesta", "jazz", "rock", "teatro", "cine"};
+        String[] names = new String[500];
+        long[] scores = new long[500];
+        PrefixTrie large = new PrefixTrie();
+        for (int step = 0; step < 5000; step++) {
+            int id = random.nextInt(names.length);
+            if (random.nextInt(4) == 0) {
+                large.remove(id + 1);
+                names[id] = null;
+            } else {
+                names[id] = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                scores[id] = random.nextInt(100);
+                large.put(id + 1, names[id], scores[id]);
+            }
+        }
+
+        for (String prefix : List.of("f", "fe", "fiesta", "gran f", "r")) {
+            List<Long> expected = IntStream.range(0, names.length)
+                    .filter(id -> names[id] != null && matches(names[id], prefix))
+                    .boxed()
+                    .sorted((a, b) -> scores[a] != scores[b] ? Long.compare(scores[a], scores[b])
+                            : !names[a].equals(names[b]) ? names[a].compareTo(names[b]) : Integer.compare(a, b))
+                    .limit(PrefixTrie.TOP_K)
+                    .map(id -> id + 1L)
+                    .toList();
+            assertEquals(expected, ids(large.top(prefix, PrefixTrie.TOP_K)), prefix);
+        }
+    }
+
+    // mvn test -Dtest=PrefixTrieTests -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmarkOneMillionNames() {
+        Random random = new Random(7);
+        String[] words = new String[5000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random);
+        }
+        PrefixTrie large = new PrefixTrie();
+        for (int id = 1; id <= 1_000_000; id++) {
+            large.put(id, words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + " " + words[random.nextInt(words.length)], random.nextInt(1_000_000));
+        }
+
+        int queries = 200_000;
+        long[] nanos = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            String word = words[random.nextInt(words.length)];
+            String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+            long start = System.nanoTime();
+            large.top(prefix, 10);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long p50 = nanos[queries / 2];
+        long p99 = nanos[queries * 99 / 100];
+        System.out.printf("PrefixTrie 1M names: p50 %d us, p99 %d us%n", p50 / 1000, p99 / 1000);
+        assertTrue(p99 < 1_000_000, "p99 " + p99 + " ns");
+    }
+
+    private static boolean matches(String name, String prefix) {
+        return name.startsWith(prefix) || name.contains(" " + prefix);
+    }
+
+    private static String randomWord(Random random) {
+        char[] chars = new char[4 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static List<Long> ids(List<PrefixTrie.Entry> entries) {
+        return entries.stream().map(PrefixTrie.Entry::id).toList();
+    }
+}
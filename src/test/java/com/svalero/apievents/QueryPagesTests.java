@@ -0,0 +1,44 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.exception.InvalidQueryException;
+import com.svalero.apievents.repository.EventSpecifications;
+import com.svalero.apievents.repository.QueryPages;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryPagesTests {
+
+    @Test
+    void testSortAddsIdAsTieBreaker() {
+        Pageable pageable = QueryPages.of(2, 50, "capacity,desc", EventSpecifications.SORTABLE);
+
+        assertEquals(2, pageable.getPageNumber());
+        assertEquals(50, pageable.getPageSize());
+        assertEquals(Sort.by(Sort.Order.desc("capacity"), Sort.Order.asc("id")), pageable.getSort());
+    }
+
+    @Test
+    void testSortById() {
+        Pageable pageable = QueryPages.of(0, 10, "id,desc", EventSpecifications.SORTABLE);
+
+        assertEquals(Sort.by(Sort.Order.desc("id")), pageable.getSort());
+    }
+
+    @Test
+    void testPageSizeIsBounded() {
+        assertEquals(QueryPages.MAX_PAGE_SIZE, QueryPages.of(0, 5000, "eventDate", EventSpecifications.SORTABLE)
+                .getPageSize());
+        assertEquals(QueryPages.DEFAULT_PAGE_SIZE, QueryPages.of(0, 0, "eventDate", EventSpecifications.SORTABLE)
+                .getPageSize());
+    }
+
+    @Test
+    void testInvalidQueries() {
+        assertThrows(InvalidQueryException.class, () -> QueryPages.of(0, 10, "description", EventSpecifications.SORTABLE));
+        assertThrows(InvalidQueryException.class, () -> QueryPages.of(0, 10, "capacity,sideways", EventSpecifications.SORTABLE));
+        assertThrows(InvalidQueryException.class, () -> QueryPages.of(-1, 10, "capacity", EventSpecifications.SORTABLE));
+    }
+}
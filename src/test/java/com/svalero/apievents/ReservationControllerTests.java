@@ -3,6 +3,11 @@ package com.svalero.apievents.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.svalero.apievents.domain.Event;
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.ReservationOutDto;
+import com.svalero.apievents.exception.InvalidQuantityException;
+import com.svalero.apievents.exception.NotEnoughSeatsException;
+import com.svalero.apievents.repository.IdempotencyRecordRepository;
+import com.svalero.apievents.service.IdempotencyService;
 import com.svalero.apievents.service.ReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,18 +15,23 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ReservationController.class)
+@Import(IdempotencyService.class)
 public class ReservationControllerTests {
 
     @Autowired
@@ -30,10 +40,14 @@ public class ReservationControllerTests {
     @MockBean
     private ReservationService reservationService;
 
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Reservation reservation;
+    private ReservationOutDto summary;
 
     @BeforeEach
     void setUp() {
@@ -48,17 +62,52 @@ public class ReservationControllerTests {
         reservation.setReservationDate(LocalDate.now());
         reservation.setQuantity(2);
         reservation.setEvent(event);
+
+        summary = new ReservationOutDto(1L, "ReservaTest", "Carlos Perez", "carlos@example.com",
+                LocalDate.now(), 2, 1L);
     }
 
     @Test
     void testGetAllReservations() throws Exception {
-        when(reservationService.getAllReservations()).thenReturn(List.of(reservation));
+        when(reservationService.streamAllReservations(any())).thenAnswer(invocation -> {
+            Consumer<ReservationOutDto> action = invocation.getArgument(0);
+            action.accept(summary);
+            return 1L;
+        });
 
-        mockMvc.perform(get("/reservations"))
+        MvcResult result = mockMvc.perform(get("/reservations"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].customerName").value("Carlos Perez"));
     }
 
+    @Test
+    void testStreamAllReservationsAsNdjson() throws Exception {
+        when(reservationService.streamAllReservations(any())).thenAnswer(invocation -> {
+            Consumer<ReservationOutDto> action = invocation.getArgument(0);
+            action.accept(summary);
+            action.accept(summary);
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/reservations")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Carlos Perez", objectMapper.readValue(lines[1], ReservationOutDto.class).getCustomerName());
+    }
+
     @Test
     void testAddReservation() throws Exception {
         when(reservationService.saveReservation(any())).thenReturn(reservation);
@@ -70,10 +119,69 @@ public class ReservationControllerTests {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    void testAddReservationReplaysIdempotencyKey() throws Exception {
+        when(reservationService.saveReservation(any())).thenReturn(reservation);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/reservations")
+                            .header(IdempotencyService.HEADER, "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(reservation)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(1));
+        }
+
+        verify(reservationService, times(1)).saveReservation(any());
+        verify(idempotencyRecordRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testAddReservationRejectsIdempotencyKeyWithAnotherBody() throws Exception {
+        when(reservationService.saveReservation(any())).thenReturn(reservation);
+        mockMvc.perform(post("/reservations")
+                        .header(IdempotencyService.HEADER, "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservation)))
+                .andExpect(status().isCreated());
+
+        reservation.setQuantity(reservation.getQuantity() + 1);
+        mockMvc.perform(post("/reservations")
+                        .header(IdempotencyService.HEADER, "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservation)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(reservationService, times(1)).saveReservation(any());
+    }
+
+    @Test
+    void testAddReservationWithoutSeatsLeft() throws Exception {
+        when(reservationService.saveReservation(any()))
+                .thenThrow(new NotEnoughSeatsException("Not enough seats left in event 1 for 2 tickets"));
+
+        mockMvc.perform(post("/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservation)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testAddReservationWithNegativeQuantity() throws Exception {
+        reservation.setQuantity(-2);
+        when(reservationService.saveReservation(any()))
+                .thenThrow(new InvalidQuantityException("Quantity must be at least 1, got -2"));
+
+        mockMvc.perform(post("/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservation)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetReservationsByCustomerName() throws Exception {
-        when(reservationService.getReservationsByCustomerName("Carlos"))
-                .thenReturn(List.of(reservation));
+        when(reservationService.getReservationsByCustomerName("Carlos", 100))
+                .thenReturn(List.of(summary));
 
         mockMvc.perform(get("/reservations/customer")
                         .param("name", "Carlos"))
@@ -111,7 +219,7 @@ public class ReservationControllerTests {
 
     @Test
     void testGetReservationsByDate() throws Exception {
-        when(reservationService.getReservationsByDate(LocalDate.now())).thenReturn(List.of(reservation));
+        when(reservationService.getReservationsByDate(LocalDate.now())).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/reservations/date")
                         .param("date", LocalDate.now().toString()))
@@ -123,7 +231,7 @@ public class ReservationControllerTests {
     void testGetReservationsBetweenDates() throws Exception {
         LocalDate start = LocalDate.now().minusDays(1);
         LocalDate end = LocalDate.now().plusDays(1);
-        when(reservationService.getReservationsBetweenDates(start, end)).thenReturn(List.of(reservation));
+        when(reservationService.getReservationsBetweenDates(start, end)).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/reservations/range")
                         .param("startDate", start.toString())
@@ -134,7 +242,7 @@ public class ReservationControllerTests {
 
     @Test
     void testGetReservationsByQuantity() throws Exception {
-        when(reservationService.getReservationsByQuantity(2)).thenReturn(List.of(reservation));
+        when(reservationService.getReservationsByQuantity(2)).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/reservations/quantity")
                         .param("quantity", "2"))
@@ -144,12 +252,12 @@ public class ReservationControllerTests {
 
     @Test
     void testGetReservationsByEvent() throws Exception {
-        when(reservationService.getReservationsByEvent(1L)).thenReturn(List.of(reservation));
+        when(reservationService.getReservationsByEvent(1L)).thenReturn(List.of(summary));
 
         mockMvc.perform(get("/reservations/event")
                         .param("eventId", "1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].event.id").value(1));
+                .andExpect(jsonPath("$[0].eventId").value(1));
     }
 }
 
@@ -2,15 +2,20 @@ package com.svalero.apievents;
 
 import com.svalero.apievents.domain.Event;
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.ReservationOutDto;
 import com.svalero.apievents.repository.EventRepository;
 import com.svalero.apievents.repository.ReservationRepository;
+import com.svalero.apievents.repository.ReservationSpecifications;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,4 +90,51 @@ public class ReservationRepositoryTests {
         assertEquals(1, results.size());
         assertEquals("Reserva1", results.get(0).getName());
     }
+
+    @Test
+    void testFindSummariesByEventId() {
+        long eventId = reservation.getEvent().getId();
+        List<ReservationOutDto> results = reservationRepository.findSummariesByEventId(eventId);
+        assertEquals(1, results.size());
+        assertEquals("Reserva1", results.get(0).getName());
+        assertEquals(eventId, results.get(0).getEventId());
+    }
+
+    @Test
+    void testFindSummariesByIdIn() {
+        List<ReservationOutDto> results = reservationRepository.findSummariesByIdIn(
+                List.of(reservation.getId(), reservation.getId() + 1));
+        assertEquals(1, results.size());
+        assertEquals("carlos@example.com", results.get(0).getEmail());
+    }
+
+    @Test
+    void testFindSummariesByReservationDateSince() {
+        List<ReservationOutDto> results = reservationRepository.findSummariesByReservationDateSince(
+                LocalDate.now().minusDays(6));
+        assertEquals(List.of(reservation.getId()), results.stream().map(ReservationOutDto::getId).toList());
+        assertTrue(reservationRepository.findSummariesByReservationDateSince(LocalDate.now().plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testFindEventIdById() {
+        assertEquals(Optional.of(reservation.getEvent().getId()),
+                reservationRepository.findEventIdById(reservation.getId()));
+        assertTrue(reservationRepository.findEventIdById(reservation.getId() + 1).isEmpty());
+    }
+
+    @Test
+    void testFindAllMatchingCombinedFilters() {
+        ReservationSpecifications.Filter filter = new ReservationSpecifications.Filter("Carlos", null, LocalDate.now(),
+                2, null, reservation.getEvent().getId());
+        Page<Reservation> page = reservationRepository.findAll(ReservationSpecifications.matching(filter),
+                PageRequest.of(0, 10));
+        assertEquals(1, page.getTotalElements());
+        assertEquals("Carlos Perez", page.getContent().get(0).getCustomerName());
+
+        ReservationSpecifications.Filter noMatch = new ReservationSpecifications.Filter("Carlos", null, null,
+                null, 2, null);
+        assertEquals(0, reservationRepository.findAll(ReservationSpecifications.matching(noMatch),
+                PageRequest.of(0, 10)).getTotalElements());
+    }
 }
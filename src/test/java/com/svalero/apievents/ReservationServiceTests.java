@@ -2,8 +2,19 @@ package com.svalero.apievents;
 
 import com.svalero.apievents.domain.Event;
 import com.svalero.apievents.domain.Reservation;
+import com.svalero.apievents.domain.dto.ReservationOutDto;
+import com.svalero.apievents.domain.dto.ReservedSeatsDto;
+import com.svalero.apievents.exception.BookingConflictException;
+import com.svalero.apievents.exception.InvalidQuantityException;
+import com.svalero.apievents.exception.NotEnoughSeatsException;
 import com.svalero.apievents.exception.ReservationNotFoundException;
+import com.svalero.apievents.index.CustomerIndex;
+import com.svalero.apievents.index.PaidAmounts;
+import com.svalero.apievents.index.SeatInventory;
+import com.svalero.apievents.index.TrendingEvents;
+import com.svalero.apievents.repository.EventRepository;
 import com.svalero.apievents.repository.ReservationRepository;
+import com.svalero.apievents.service.BookingService;
 import com.svalero.apievents.service.ReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +25,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,10 +37,26 @@ public class ReservationServiceTests {
     @Mock
     private ReservationRepository reservationRepository;
 
+    @Mock
+    private SeatInventory seatInventory;
+
+    @Mock
+    private TrendingEvents trendingEvents;
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private PaidAmounts paidAmounts;
+
+    @Mock
+    private CustomerIndex customerIndex;
+
     @InjectMocks
     private ReservationService reservationService;
 
     private Reservation reservation;
+    private ReservationOutDto summary;
 
     @BeforeEach
     void setUp() {
@@ -42,6 +71,9 @@ public class ReservationServiceTests {
         reservation.setReservationDate(LocalDate.now());
         reservation.setQuantity(2);
         reservation.setEvent(event);
+
+        summary = new ReservationOutDto(1L, "Reserva Test", "Carlos Perez", "carlos@example.com",
+                LocalDate.now(), 2, 1L);
     }
 
     @Test
@@ -54,6 +86,18 @@ public class ReservationServiceTests {
         verify(reservationRepository).findAll();
     }
 
+    @Test
+    void testStreamAllReservations() {
+        when(reservationRepository.streamAll()).thenReturn(Stream.of(summary, summary, summary));
+        List<ReservationOutDto> written = new ArrayList<>();
+
+        long total = reservationService.streamAllReservations(written::add);
+
+        assertEquals(3, total);
+        assertEquals(3, written.size());
+        assertEquals(1L, written.get(0).getEventId());
+    }
+
     @Test
     void testGetReservationByIdFound() {
         when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
@@ -73,12 +117,65 @@ public class ReservationServiceTests {
 
     @Test
     void testSaveReservation() {
-        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+        when(seatInventory.tryReserve(1L, 2)).thenReturn(true);
+        when(bookingService.book(reservation)).thenReturn(new BookingService.Booking(reservation, 0, 0, 1));
 
         Reservation saved = reservationService.saveReservation(reservation);
 
         assertEquals("Carlos Perez", saved.getCustomerName());
-        verify(reservationRepository).save(reservation);
+        verify(bookingService).book(reservation);
+        verify(trendingEvents).record(1L, 1L, 2);
+    }
+
+    @Test
+    void testSaveReservationWithoutSeatsLeft() {
+        when(seatInventory.tryReserve(1L, 2)).thenReturn(false);
+
+        assertThrows(NotEnoughSeatsException.class, () -> reservationService.saveReservation(reservation));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void testSaveReservationWithNegativeQuantityKeepsSeats() {
+        Event event = reservation.getEvent();
+        event.setCapacity(10);
+        when(reservationRepository.sumQuantityGroupByEvent()).thenReturn(List.of(new ReservedSeatsDto(1L, 4L)));
+        SeatInventory inventory = new SeatInventory(mock(EventRepository.class), reservationRepository);
+        inventory.rebuild(List.of(event));
+        ReservationService service = new ReservationService(reservationRepository, inventory, trendingEvents,
+                bookingService, paidAmounts, customerIndex);
+        reservation.setQuantity(-3);
+
+        assertThrows(InvalidQuantityException.class, () -> service.saveReservation(reservation));
+        reservation.setQuantity(0);
+        assertThrows(InvalidQuantityException.class, () -> service.saveReservation(reservation));
+
+        // Una cantidad negativa no puede liberar plazas de otras reservas
+        assertEquals(4, inventory.reserved(1L));
+        assertEquals(6, inventory.remaining(1L));
+        verifyNoInteractions(bookingService, trendingEvents);
+    }
+
+    @Test
+    void testSaveReservationFailureReleasesSeats() {
+        when(seatInventory.tryReserve(1L, 2)).thenReturn(true);
+        when(bookingService.book(reservation)).thenThrow(new BookingConflictException("conflict"));
+
+        assertThrows(BookingConflictException.class, () -> reservationService.saveReservation(reservation));
+        verify(seatInventory).release(1L, 2);
+        verifyNoInteractions(trendingEvents);
+    }
+
+    @Test
+    void testSaveReservationOverExistingReleasesPreviousSeats() {
+        when(seatInventory.tryReserve(1L, 2)).thenReturn(true);
+        when(bookingService.book(reservation)).thenReturn(new BookingService.Booking(reservation, 1L, 5, 1));
+
+        reservationService.saveReservation(reservation);
+
+        verify(seatInventory).release(1L, 5);
+        verify(trendingEvents).change(1L, 1L, 2);
+        verifyNoMoreInteractions(trendingEvents);
     }
 
     @Test
@@ -89,72 +186,116 @@ public class ReservationServiceTests {
         updated.setReservationDate(LocalDate.now().plusDays(1));
         updated.setQuantity(4);
         updated.setEvent(reservation.getEvent());
-
-        when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
-        when(reservationRepository.save(any())).thenReturn(updated);
+        rebooks(1L, 2);
 
         Reservation result = reservationService.updateReservation(1L, updated);
 
         assertEquals("Luis Garcia", result.getCustomerName());
         assertEquals(4, result.getQuantity());
+        verify(seatInventory).release(1L, -2);
+        verify(customerIndex).putReservation(1L, "Luis Garcia", "luis@example.com");
+    }
+
+    @Test
+    void testUpdateReservationToAnotherEvent() {
+        Event other = new Event();
+        other.setId(2L);
+        Reservation updated = new Reservation();
+        updated.setQuantity(3);
+        updated.setEvent(other);
+        rebooks(1L, 2);
+
+        reservationService.updateReservation(1L, updated);
+
+        verify(seatInventory).release(1L, 2);
+        verify(seatInventory).release(2L, -3);
+        verify(paidAmounts).moveReservation(reservation.getId(), 1L, 2L);
+        verify(trendingEvents).change(1L, 2L, 3);
     }
 
     @Test
     void testUpdateReservationPartial() {
         Map<String, Object> updates = new HashMap<>();
         updates.put("quantity", 10);
-
-        when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
-        when(reservationRepository.save(any())).thenReturn(reservation);
+        updates.put("version", 7L);
+        rebooks(1L, 2);
 
         Reservation result = reservationService.updateReservationPartial(1L, updates);
 
         assertEquals(10, result.getQuantity());
+        assertEquals(0, result.getVersion());
+        verify(seatInventory).release(1L, -8);
+    }
+
+    @Test
+    void testUpdateReservationNotFound() {
+        when(bookingService.rebook(eq(2L), any())).thenThrow(new ReservationNotFoundException("not found"));
+
+        assertThrows(ReservationNotFoundException.class,
+                () -> reservationService.updateReservation(2L, new Reservation()));
+        verifyNoInteractions(seatInventory, trendingEvents);
     }
 
     @Test
     void testDeleteReservationSuccess() {
-        when(reservationRepository.existsById(1L)).thenReturn(true);
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
         doNothing().when(reservationRepository).deleteById(1L);
 
         reservationService.deleteReservation(1L);
 
         verify(reservationRepository).deleteById(1L);
+        verify(seatInventory).release(1L, 2);
+        verify(trendingEvents).remove(1L);
+        verify(customerIndex).removeReservation(1L);
     }
 
     @Test
     void testDeleteReservationNotFound() {
-        when(reservationRepository.existsById(2L)).thenReturn(false);
+        when(reservationRepository.findById(2L)).thenReturn(Optional.empty());
 
         assertThrows(ReservationNotFoundException.class, () -> reservationService.deleteReservation(2L));
     }
 
     @Test
     void testGetReservationsByCustomerName() {
-        when(reservationRepository.findByCustomerNameContaining("Carlos"))
-                .thenReturn(List.of(reservation));
+        when(reservationRepository.findSummariesByCustomerNameContaining("Carlos"))
+                .thenReturn(List.of(summary));
 
-        List<Reservation> results = reservationService.getReservationsByCustomerName("Carlos");
+        List<ReservationOutDto> results = reservationService.getReservationsByCustomerName("Carlos", 100);
 
         assertEquals(1, results.size());
     }
 
+    @Test
+    void testGetReservationsByCustomerNameFromIndexInRankOrder() {
+        ReservationOutDto closer = new ReservationOutDto(2L, "R2", "Carlos Peres", "carlos@example.com",
+                LocalDate.now(), 1, 1L);
+        when(customerIndex.isLoaded()).thenReturn(true);
+        when(customerIndex.findReservations("Carlso Perez", 10)).thenReturn(List.of(2L, 1L));
+        when(reservationRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(summary, closer));
+
+        List<ReservationOutDto> results = reservationService.getReservationsByCustomerName("Carlso Perez", 10);
+
+        assertEquals(List.of(2L, 1L), results.stream().map(ReservationOutDto::getId).toList());
+        verify(reservationRepository, never()).findSummariesByCustomerNameContaining(any());
+    }
+
     @Test
     void testGetReservationsByDate() {
-        when(reservationRepository.findByReservationDate(LocalDate.now()))
-                .thenReturn(List.of(reservation));
+        when(reservationRepository.findSummariesByReservationDate(LocalDate.now()))
+                .thenReturn(List.of(summary));
 
-        List<Reservation> results = reservationService.getReservationsByDate(LocalDate.now());
+        List<ReservationOutDto> results = reservationService.getReservationsByDate(LocalDate.now());
 
         assertEquals(1, results.size());
     }
 
     @Test
     void testGetReservationsBetweenDates() {
-        when(reservationRepository.findByReservationDateBetween(any(), any()))
-                .thenReturn(List.of(reservation));
+        when(reservationRepository.findSummariesByReservationDateBetween(any(), any()))
+                .thenReturn(List.of(summary));
 
-        List<Reservation> results = reservationService.getReservationsBetweenDates(
+        List<ReservationOutDto> results = reservationService.getReservationsBetweenDates(
                 LocalDate.now().minusDays(1), LocalDate.now().plusDays(1));
 
         assertEquals(1, results.size());
@@ -162,19 +303,27 @@ public class ReservationServiceTests {
 
     @Test
     void testGetReservationsByQuantity() {
-        when(reservationRepository.findByQuantity(2)).thenReturn(List.of(reservation));
+        when(reservationRepository.findSummariesByQuantity(2)).thenReturn(List.of(summary));
 
-        List<Reservation> results = reservationService.getReservationsByQuantity(2);
+        List<ReservationOutDto> results = reservationService.getReservationsByQuantity(2);
 
         assertEquals(1, results.size());
     }
 
     @Test
     void testGetReservationsByEvent() {
-        when(reservationRepository.findByEventId(1L)).thenReturn(List.of(reservation));
+        when(reservationRepository.findSummariesByEventId(1L)).thenReturn(List.of(summary));
 
-        List<Reservation> results = reservationService.getReservationsByEvent(1L);
+        List<ReservationOutDto> results = reservationService.getReservationsByEvent(1L);
 
         assertEquals(1, results.size());
     }
+
+    // El servicio de reservas aplica los cambios sobre la reserva guardada y devuelve lo que tenía antes
+    private void rebooks(long previousEventId, int previousQuantity) {
+        when(bookingService.rebook(eq(1L), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<Reservation>>getArgument(1).accept(reservation);
+            return new BookingService.Booking(reservation, previousEventId, previousQuantity, 1);
+        });
+    }
 }
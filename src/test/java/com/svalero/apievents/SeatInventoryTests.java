@@ -0,0 +1,182 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.dto.ReservedSeatsDto;
+import com.svalero.apievents.exception.EventNotFoundException;
+import com.svalero.apievents.index.SeatInventory;
+import com.svalero.apievents.repository.EventRepository;
+import com.svalero.apievents.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatInventoryTests {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private SeatInventory seatInventory;
+
+    @BeforeEach
+    void setUp() {
+        seatInventory = new SeatInventory(eventRepository, reservationRepository);
+    }
+
+    @Test
+    void testRebuildSeedsReservedSeats() {
+        when(reservationRepository.sumQuantityGroupByEvent()).thenReturn(List.of(new ReservedSeatsDto(1L, 8L)));
+
+        seatInventory.rebuild(List.of(event(1L, 10), event(2L, 5)));
+
+        assertEquals(2, seatInventory.remaining(1L));
+        assertEquals(5, seatInventory.remaining(2L));
+        assertFalse(seatInventory.tryReserve(1L, 3));
+        assertTrue(seatInventory.tryReserve(1L, 2));
+        assertEquals(0, seatInventory.remaining(1L));
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testReleaseAndCapacityChange() {
+        when(reservationRepository.sumQuantityGroupByEvent()).thenReturn(List.of());
+        seatInventory.rebuild(List.of(event(1L, 4)));
+
+        assertTrue(seatInventory.tryReserve(1L, 4));
+        seatInventory.release(1L, 1);
+        assertEquals(1, seatInventory.remaining(1L));
+
+        seatInventory.put(event(1L, 10));
+        assertEquals(7, seatInventory.remaining(1L));
+    }
+
+    @Test
+    void testNonPositiveQuantityIsRejected() {
+        when(reservationRepository.sumQuantityGroupByEvent()).thenReturn(List.of(new ReservedSeatsDto(1L, 3L)));
+        seatInventory.rebuild(List.of(event(1L, 5)));
+
+        assertThrows(IllegalArgumentException.class, () -> seatInventory.tryReserve(1L, -3));
+        assertThrows(IllegalArgumentException.class, () -> seatInventory.tryReserve(1L, 0));
+        assertEquals(3, seatInventory.reserved(1L));
+        assertEquals(2, seatInventory.remaining(1L));
+    }
+
+    @Test
+    void testUnknownEventIsSeededFromDatabase() {
+        when(eventRepository.findById(3L)).thenReturn(Optional.of(event(3L, 100)));
+        when(reservationRepository.sumQuantityByEventId(3L)).thenReturn(99L);
+
+        assertTrue(seatInventory.tryReserve(3L, 1));
+        assertFalse(seatInventory.tryReserve(3L, 1));
+        verify(eventRepository, times(1)).findById(3L);
+    }
+
+    @Test
+    void testMissingEvent() {
+        when(eventRepository.findById(4L)).thenReturn(Optional.empty());
+
+        assertThrows(EventNotFoundException.class, () -> seatInventory.tryReserve(4L, 1));
+    }
+
+    @Test
+    void testConcurrentReservationsNeverOversell() throws InterruptedException {
+        int capacity = 1000;
+        int threads = 32;
+        int attemptsPerThread = 200;
+        when(reservationRepository.sumQuantityGroupByEvent()).thenReturn(List.of());
+        seatInventory.rebuild(List.of(event(1L, capacity)));
+
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < attemptsPerThread; j++) {
+                    if (seatInventory.tryReserve(1L, 1)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(capacity, accepted.get());
+        assertEquals(0, seatInventory.remaining(1L));
+    }
+
+    // mvn test -Dtest=SeatInventoryTests -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmarkContentionOnOneEvent() throws InterruptedException {
+        int reservations = 4_000_000;
+        when(reservationRepository.sumQuantityGroupByEvent()).thenReturn(List.of());
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+            // Un evento que nunca se llena: todos los hilos compiten por el mismo contador
+            seatInventory.rebuild(List.of(event(1L, Integer.MAX_VALUE)));
+            seatInventory.release(1L, seatInventory.reserved(1L));
+            int perThread = reservations / threads;
+            AtomicInteger accepted = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    int mine = 0;
+                    for (int j = 0; j < perThread; j++) {
+                        if (seatInventory.tryReserve(1L, 1)) {
+                            mine++;
+                        }
+                    }
+                    accepted.addAndGet(mine);
+                });
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+            double seconds = (System.nanoTime() - begin) / 1e9;
+
+            System.out.printf("SeatInventory %2d threads: %,.0f reservations/s%n", threads,
+                    threads * perThread / seconds);
+            assertEquals(threads * perThread, accepted.get());
+            assertEquals(accepted.get(), seatInventory.reserved(1L));
+        }
+    }
+
+    private Event event(long id, int capacity) {
+        Event event = new Event();
+        event.setId(id);
+        event.setCapacity(capacity);
+        return event;
+    }
+}
@@ -0,0 +1,122 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.dto.ReservationOutDto;
+import com.svalero.apievents.index.TrendingEvents;
+import com.svalero.apievents.index.TrendingEvents.Score;
+import com.svalero.apievents.index.TrendingEvents.Window;
+import com.svalero.apievents.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TrendingEventsTests {
+
+    private static final Instant NOW = Instant.parse("2025-06-06T12:30:00Z");
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private TrendingEvents trendingEvents;
+
+    @BeforeEach
+    void setUp() {
+        trendingEvents = new TrendingEvents(reservationRepository);
+    }
+
+    @Test
+    void testRanksByReservedQuantity() {
+        trendingEvents.record(11L, 1L, 5, NOW);
+        trendingEvents.record(12L, 2L, 8, NOW);
+        trendingEvents.record(13L, 3L, 5, NOW.plusSeconds(60));
+        trendingEvents.record(14L, 1L, 4, NOW.plusSeconds(120));
+
+        assertEquals(List.of(new Score(1L, 9), new Score(2L, 8), new Score(3L, 5)),
+                trendingEvents.top(Window.DAY, 10, NOW.plusSeconds(180)));
+        assertEquals(List.of(new Score(1L, 9)), trendingEvents.top(Window.WEEK, 1, NOW.plusSeconds(180)));
+    }
+
+    @Test
+    void testHoursLeaveEachWindow() {
+        trendingEvents.record(11L, 1L, 5, NOW);
+        trendingEvents.record(12L, 2L, 3, NOW.plus(Duration.ofHours(20)));
+
+        Instant nextDay = NOW.plus(Duration.ofHours(24));
+        assertEquals(List.of(new Score(2L, 3)), trendingEvents.top(Window.DAY, 10, nextDay));
+        assertEquals(List.of(new Score(1L, 5), new Score(2L, 3)), trendingEvents.top(Window.WEEK, 10, nextDay));
+
+        Instant nextWeek = NOW.plus(Duration.ofDays(7));
+        assertEquals(List.of(), trendingEvents.top(Window.DAY, 10, nextWeek));
+        assertEquals(List.of(new Score(2L, 3)), trendingEvents.top(Window.WEEK, 10, nextWeek));
+    }
+
+    @Test
+    void testChangesAndRemovalsSubtract() {
+        trendingEvents.record(11L, 1L, 5, NOW);
+        trendingEvents.record(12L, 2L, 4, NOW);
+        trendingEvents.change(11L, 1L, 3, NOW.plusSeconds(60));
+        trendingEvents.remove(12L, NOW.plusSeconds(60));
+
+        assertEquals(List.of(new Score(1L, 3)), trendingEvents.top(Window.DAY, 10, NOW.plusSeconds(120)));
+    }
+
+    @Test
+    void testOldReservationOnlyLeavesTheWindowsItCountsIn() {
+        trendingEvents.record(11L, 1L, 5, NOW);
+        trendingEvents.record(12L, 1L, 2, NOW.plus(Duration.ofDays(3)));
+        trendingEvents.record(13L, 2L, 1, NOW.plus(Duration.ofDays(3)));
+
+        // Reservada hace tres días: ya no cuenta en 24 horas, que no pierde nada al borrarla
+        Instant later = NOW.plus(Duration.ofDays(3)).plusSeconds(60);
+        trendingEvents.remove(11L, later);
+        assertEquals(List.of(new Score(1L, 2), new Score(2L, 1)), trendingEvents.top(Window.DAY, 10, later));
+        assertEquals(List.of(new Score(1L, 2), new Score(2L, 1)), trendingEvents.top(Window.WEEK, 10, later));
+
+        // Cuando caduca su hora no se resta otra vez
+        Instant nextWeek = NOW.plus(Duration.ofDays(7));
+        assertEquals(List.of(new Score(1L, 2), new Score(2L, 1)), trendingEvents.top(Window.WEEK, 10, nextWeek));
+    }
+
+    @Test
+    void testChangeKeepsTheHourItWasRecorded() {
+        trendingEvents.record(11L, 1L, 5, NOW);
+
+        // Un cambio dos días después mueve las entradas al otro evento en la hora de la reserva, no en la actual
+        Instant later = NOW.plus(Duration.ofDays(2));
+        trendingEvents.change(11L, 2L, 6, later);
+        assertEquals(List.of(), trendingEvents.top(Window.DAY, 10, later));
+        assertEquals(List.of(new Score(2L, 6)), trendingEvents.top(Window.WEEK, 10, later));
+
+        assertEquals(List.of(), trendingEvents.top(Window.WEEK, 10, NOW.plus(Duration.ofDays(7))));
+        // Pasada la semana la reserva ya no cuenta en ninguna ventana y sus cambios tampoco
+        trendingEvents.change(11L, 2L, 9, NOW.plus(Duration.ofDays(8)));
+        assertEquals(List.of(), trendingEvents.top(Window.WEEK, 10, NOW.plus(Duration.ofDays(8))));
+    }
+
+    @Test
+    void testLoadSeedsFromLastSevenDays() {
+        LocalDate today = LocalDate.now();
+        when(reservationRepository.findSummariesByReservationDateSince(today.minusDays(6))).thenReturn(List.of(
+                new ReservationOutDto(11L, "R1", "Ana", "ana@example.com", today.minusDays(3), 10, 1L),
+                new ReservationOutDto(12L, "R2", "Luis", "luis@example.com", today, 4, 2L)));
+
+        trendingEvents.load();
+
+        assertEquals(List.of(new Score(2L, 4)), trendingEvents.top(Window.DAY, 10));
+        assertEquals(List.of(new Score(1L, 10), new Score(2L, 4)), trendingEvents.top(Window.WEEK, 10));
+
+        // Las sembradas también se pueden quitar de las ventanas en las que cuentan
+        trendingEvents.remove(11L);
+        assertEquals(List.of(new Score(2L, 4)), trendingEvents.top(Window.WEEK, 10));
+    }
+}
@@ -0,0 +1,104 @@
+package com.svalero.apievents;
+
+import com.svalero.apievents.domain.Event;
+import com.svalero.apievents.domain.EventCategory;
+import com.svalero.apievents.domain.dto.UpcomingEventDto;
+import com.svalero.apievents.index.UpcomingEventsView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpcomingEventsViewTests {
+
+    private final LocalDate today = LocalDate.now();
+
+    private EventCategory music;
+
+    private UpcomingEventsView view;
+
+    @BeforeEach
+    void setUp() {
+        music = category(3L, "Música");
+        view = new UpcomingEventsView(30);
+        view.rebuild(List.of(
+                event(1L, today.plusDays(5), music),
+                event(2L, today, null),
+                event(3L, today.minusDays(1), music),
+                event(4L, today.plusDays(29), music),
+                event(5L, today.plusDays(30), music),
+                event(6L, null, null),
+                event(7L, today.plusDays(5), null)));
+    }
+
+    @Test
+    void testWindowIsSortedAndAnnotated() {
+        List<UpcomingEventDto> upcoming = view.find(30, 100);
+
+        assertEquals(List.of(2L, 1L, 7L, 4L), ids(upcoming));
+        assertEquals("Música", upcoming.get(1).getCategoryName());
+        assertEquals(3L, upcoming.get(1).getCategoryId());
+        assertNull(upcoming.get(0).getCategoryName());
+    }
+
+    @Test
+    void testDaysAndLimitCutTheWindow() {
+        assertEquals(List.of(2L), ids(view.find(1, 100)));
+        assertEquals(List.of(2L, 1L, 7L), ids(view.find(6, 100)));
+        assertEquals(List.of(2L, 1L), ids(view.find(30, 2)));
+        assertEquals(List.of(2L, 1L, 7L, 4L), ids(view.find(365, 100)));
+    }
+
+    @Test
+    void testWritesUpdateTheWindowIncrementally() {
+        view.put(event(5L, today.plusDays(1), music));
+        view.put(event(4L, today.plusDays(40), music));
+        view.remove(7L);
+        view.put(event(8L, today.minusDays(2), null));
+
+        assertEquals(List.of(2L, 5L, 1L), ids(view.find(30, 100)));
+    }
+
+    @Test
+    void testCategoryRenameReannotatesRows() {
+        List<UpcomingEventDto> before = view.find(30, 100);
+
+        view.annotate(List.of(category(3L, "Conciertos")));
+
+        List<UpcomingEventDto> after = view.find(30, 100);
+        assertEquals("Conciertos", after.get(1).getCategoryName());
+        assertEquals("Conciertos", after.get(3).getCategoryName());
+        // Una lista ya devuelta no cambia
+        assertEquals("Música", before.get(1).getCategoryName());
+    }
+
+    @Test
+    void testSnapshotForColdStart() {
+        List<Event> events = List.of(event(1L, today.plusDays(2), music), event(2L, today.plusDays(1), null));
+
+        assertEquals(List.of(2L, 1L), ids(UpcomingEventsView.find(events, 30, 100)));
+    }
+
+    private List<Long> ids(List<UpcomingEventDto> rows) {
+        return rows.stream().map(UpcomingEventDto::getId).toList();
+    }
+
+    private Event event(long id, LocalDate date, EventCategory category) {
+        Event event = new Event();
+        event.setId(id);
+        event.setEventName("Event " + id);
+        event.setEventDate(date);
+        event.setCategory(category);
+        return event;
+    }
+
+    private EventCategory category(long id, String name) {
+        EventCategory category = new EventCategory();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
@@ -12,15 +12,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -65,15 +67,23 @@ class UserControllerTest {
     @Test
     void testGetAllUsers() throws Exception {
         List<User> users = Arrays.asList(user1, user2);
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.streamAllUsers(any())).thenAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            users.forEach(action);
+            return (long) users.size();
+        });
 
-        mockMvc.perform(get("/users"))
+        MvcResult result = mockMvc.perform(get("/users"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()").value(2))
                 .andExpect(jsonPath("$[0].name").value("John Doe"))
                 .andExpect(jsonPath("$[1].name").value("Jane Doe"));
 
-        verify(userService, times(1)).getAllUsers();
+        verify(userService, times(1)).streamAllUsers(any());
     }
 
     // 📌 Test para agregar un nuevo usuario
@@ -90,6 +100,27 @@ class UserControllerTest {
         verify(userService, times(1)).saveUser(any(User.class));
     }
 
+    // 📌 Test para obtener un usuario por ID
+    @Test
+    void testGetUserById() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(user1);
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"));
+
+        verify(userService, times(1)).getUserById(1L);
+    }
+
+    // 📌 Test para obtener un usuario por ID que no existe
+    @Test
+    void testGetUserByIdNotFound() throws Exception {
+        when(userService.getUserById(99L)).thenThrow(new UserNotFoundException("User not found"));
+
+        mockMvc.perform(get("/users/99"))
+                .andExpect(status().isNotFound());
+    }
+
     // 📌 Test para buscar un usuario por email
     @Test
     void testGetUserByEmail() throws Exception {
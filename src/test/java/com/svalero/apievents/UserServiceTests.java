@@ -2,6 +2,7 @@ package com.svalero.apievents;
 
 import com.svalero.apievents.domain.User;
 import com.svalero.apievents.exception.UserNotFoundException;
+import com.svalero.apievents.repository.GroupCommitWriter;
 import com.svalero.apievents.repository.UserRepository;
 import com.svalero.apievents.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.*;
@@ -23,6 +25,9 @@ class UserServiceTests {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private GroupCommitWriter groupCommitWriter = GroupCommitWriter.disabled();
+
     @InjectMocks
     private UserService userService;
 
@@ -62,6 +67,25 @@ class UserServiceTests {
         verify(userRepository, times(1)).findByEmail("johndoe@example.com");
     }
 
+    // 📌 Test para obtener un usuario por ID
+    @Test
+    void testGetUserById() throws UserNotFoundException {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        User result = userService.getUserById(1L);
+
+        assertEquals("John Doe", result.getName());
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    // 📌 Test para obtener un usuario por ID que no existe
+    @Test
+    void testGetUserByIdNotFound() {
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(99L));
+    }
+
     // 📌 Test para obtener usuarios activos
     @Test
     void testGetActiveUsers() {